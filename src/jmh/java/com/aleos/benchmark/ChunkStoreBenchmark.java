@@ -0,0 +1,125 @@
+package com.aleos.benchmark;
+
+import com.aleos.storage.ChunkStore;
+import com.aleos.storage.ContentDefinedChunker;
+import com.aleos.storage.IngestedContent;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the storage paths of a file: ingesting new content, which chunks, hashes and writes it,
+ * ingesting content whose chunks are all present already, streaming a stored file out, and plain
+ * SHA-256 hashing of the same bytes as a baseline for the ingest cost.
+ * <p>
+ * The chunk sizes are the defaults of the application properties.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChunkStoreBenchmark {
+
+    @Param({"1048576", "33554432"})
+    private int contentSize;
+
+    private byte[] content;
+    private byte[] freshContent;
+    private Path root;
+    private ChunkStore chunkStore;
+    private IngestedContent stored;
+    private IngestedContent ingestedFresh;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        content = new byte[contentSize];
+        freshContent = new byte[contentSize];
+        new Random(42).nextBytes(content);
+
+        root = Files.createTempDirectory("chunk-store-benchmark");
+        chunkStore = new ChunkStore(root, new ContentDefinedChunker(262_144, 1_048_576, 4_194_304));
+        stored = ingest(content);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Setup(Level.Invocation)
+    public void newContent() {
+        ThreadLocalRandom.current().nextBytes(freshContent);
+    }
+
+    @TearDown(Level.Invocation)
+    public void removeNewContent() {
+        // Keeps the store from growing by the content size with every call
+        if (ingestedFresh != null) {
+            ingestedFresh.chunks().forEach(chunk -> chunkStore.delete(chunk.hash()));
+            ingestedFresh = null;
+        }
+    }
+
+    @Benchmark
+    public IngestedContent ingestNew() throws IOException {
+        ingestedFresh = ingest(freshContent);
+        return ingestedFresh;
+    }
+
+    @Benchmark
+    public IngestedContent ingestDuplicate() throws IOException {
+        return ingest(content);
+    }
+
+    @Benchmark
+    public long transfer() throws IOException {
+        DiscardingChannel target = new DiscardingChannel();
+        chunkStore.transfer(stored.chunks(), 0, stored.size(), target);
+        return target.written;
+    }
+
+    @Benchmark
+    public byte[] sha256() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(content);
+    }
+
+    private IngestedContent ingest(byte[] bytes) throws IOException {
+        return chunkStore.ingest(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    private static final class DiscardingChannel implements WritableByteChannel {
+
+        private long written;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int remaining = src.remaining();
+            src.position(src.limit());
+            written += remaining;
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.aleos.benchmark;
+
+import com.aleos.dto.FileSummaryDto;
+import com.aleos.dto.SignUpPayload;
+import com.aleos.dto.UsageSummaryDto;
+import com.aleos.web.WebMvcConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.templateresolver.SpringResourceTemplateResolver;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures rendering the dashboard and the authentication pages through the same template
+ * engine, resolver and view resolver that {@link WebMvcConfiguration} sets up, including the
+ * layout dialect decoration. Views are rendered the way the DispatcherServlet renders them,
+ * into a mock response, with templates cached as in production. The dashboard lists 1,000 recent files.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplateRenderingBenchmark {
+
+    @Param({"dashboard", "auth/sign-in", "auth/sign-up"})
+    private String viewName;
+
+    private MockServletContext servletContext;
+    private GenericWebApplicationContext applicationContext;
+    private View view;
+    private List<FileSummaryDto> recentActivity;
+
+    @Setup
+    public void setUp() throws Exception {
+        servletContext = new MockServletContext();
+        applicationContext = new GenericWebApplicationContext(servletContext);
+        applicationContext.refresh();
+
+        WebMvcConfiguration configuration = new WebMvcConfiguration();
+        SpringResourceTemplateResolver templateResolver = configuration.templateResolver();
+        templateResolver.setApplicationContext(applicationContext);
+        SpringTemplateEngine templateEngine = configuration.templateEngine(templateResolver, 100, 500);
+        templateEngine.setMessageSource(applicationContext);
+
+        ViewResolver viewResolver = configuration.viewResolver(templateEngine, 16384);
+        ((ApplicationContextAware) viewResolver).setApplicationContext(applicationContext);
+        view = viewResolver.resolveViewName(viewName, Locale.ENGLISH);
+
+        Instant now = Instant.now();
+        recentActivity = IntStream.range(0, 1000)
+                .mapToObj(i -> new FileSummaryDto(
+                        UUID.randomUUID(), "file-" + i + ".pdf", "application/pdf", 1024L * i, now.minusSeconds(i)))
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public String render() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/" + viewName);
+        request.setAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, applicationContext);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        view.render(model(), request, response);
+        return response.getContentAsString();
+    }
+
+    private Map<String, Object> model() {
+        Map<String, Object> model = new HashMap<>();
+        switch (viewName) {
+            case "dashboard" -> {
+                model.put("usage", new UsageSummaryDto(1_024, 5_368_709_120L, 256));
+                model.put("recentActivity", recentActivity);
+            }
+            case "auth/sign-up" -> {
+                SignUpPayload payload = SignUpPayload.empty();
+                model.put("signUpPayload", payload);
+                model.put(BindingResult.MODEL_KEY_PREFIX + "signUpPayload",
+                        new WebDataBinder(payload, "signUpPayload").getBindingResult());
+            }
+            default -> {
+            }
+        }
+        return model;
+    }
+}
@@ -0,0 +1,29 @@
+package com.aleos.benchmark;
+
+import com.aleos.dto.SignUpPayload;
+import com.aleos.mapper.UserMapper;
+import com.aleos.mapper.UserMapperImpl;
+import com.aleos.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the mapping of a sign-up form to a new user entity by the generated mapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMapperBenchmark {
+
+    private final UserMapper mapper = new UserMapperImpl();
+    private final SignUpPayload payload = new SignUpPayload("Alice", "Liddell", "alice@example.com", "secret-password");
+
+    @Benchmark
+    public User toEntity() {
+        return mapper.toEntity(payload);
+    }
+}
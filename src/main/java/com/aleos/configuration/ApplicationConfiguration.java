@@ -1,13 +1,24 @@
 package com.aleos.configuration;
 
+import com.aleos.storage.ChunkStore;
+import com.aleos.storage.ContentDefinedChunker;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.*;
 import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 
+import java.nio.file.Path;
 import java.util.Properties;
 
 @Configuration
@@ -17,9 +28,13 @@ import java.util.Properties;
                 type = FilterType.REGEX,
                 pattern = "com.aleos.web.*"
         ))
+@EnableScheduling
+@EnableAsync
 @Slf4j
 public class ApplicationConfiguration {
 
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+
     /**
      * Configures and provides a ResourceBundleMessageSource bean.
      * The message source is used for resolving messages, typically for internationalization.
@@ -34,15 +49,104 @@ public class ApplicationConfiguration {
         return messageSource;
     }
 
+    /**
+     * Configures the content-addressed chunk store that holds the content of all stored files.
+     * Chunks are kept in the "chunks" directory under the storage root.
+     *
+     * @param storageRoot the root directory of the file storage
+     * @param minSize     the minimum chunk size in bytes
+     * @param averageSize the target average chunk size in bytes, must be a power of two
+     * @param maxSize     the maximum chunk size in bytes
+     * @return a configured ChunkStore
+     */
+    @Bean
+    public ChunkStore chunkStore(
+            @Value("${storage.root}") Path storageRoot,
+            @Value("${storage.chunk.min-size}") int minSize,
+            @Value("${storage.chunk.average-size}") int averageSize,
+            @Value("${storage.chunk.max-size}") int maxSize
+    ) {
+        return new ChunkStore(storageRoot.resolve("chunks"), new ContentDefinedChunker(minSize, averageSize, maxSize));
+    }
+
+    /**
+     * Configures the scheduler running the background jobs, such as counter flushes and email delivery.
+     * Several threads keep a slow job, e.g. a batch of emails to a slow SMTP server, from delaying the others.
+     * In virtual-thread mode every run gets a virtual thread of its own instead.
+     *
+     * @param virtualThreads whether to run the jobs on virtual threads
+     * @param poolSize       the number of scheduler threads otherwise
+     * @return a configured TaskScheduler
+     */
+    @Bean
+    public TaskScheduler taskScheduler(@Value("${threads.virtual.enabled}") boolean virtualThreads,
+                                       @Value("${scheduling.pool-size}") int poolSize) {
+        if (virtualThreads) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix("scheduler-");
+            scheduler.setTaskTerminationTimeout(SHUTDOWN_TIMEOUT_MILLIS);
+            return scheduler;
+        }
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduler-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        return scheduler;
+    }
+
+    /**
+     * Configures the executor of asynchronous work: {@code @Async} methods, asynchronous MVC
+     * request processing and I/O workers. The work is mostly blocking I/O, so in virtual-thread
+     * mode each task simply gets a virtual thread; otherwise a fixed pool of platform threads
+     * runs the tasks.
+     *
+     * @param virtualThreads whether to run the tasks on virtual threads
+     * @param poolSize       the number of platform threads otherwise
+     * @return a configured AsyncTaskExecutor
+     */
+    @Bean
+    public AsyncTaskExecutor taskExecutor(@Value("${threads.virtual.enabled}") boolean virtualThreads,
+                                          @Value("${async.pool-size}") int poolSize) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("task-");
+            executor.setVirtualThreads(true);
+            executor.setTaskTerminationTimeout(SHUTDOWN_TIMEOUT_MILLIS);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("task-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
     /**
      * Configures and returns a JavaMailSender object for sending emails via the SMTP server.
+     * The server is configurable so that a local SMTP server without authentication or TLS
+     * can stand in for the real one during development and testing.
      *
+     * @param host     the SMTP server host
+     * @param port     the SMTP server port
+     * @param auth     whether to authenticate with the SMTP server
+     * @param starttls whether to upgrade the connection with STARTTLS
+     * @param timeout  the connect, read and write timeout in milliseconds
+     * @param debug    whether to log the SMTP conversation
      * @param username the SMTP server username for email authentication
      * @param password the SMTP server password for email authentication
      * @return a configured JavaMailSender object
      */
     @Bean
     public JavaMailSender javaMailSender(
+            @Value("${mail.smtp.host}") String host,
+            @Value("${mail.smtp.port}") int port,
+            @Value("${mail.smtp.auth}") boolean auth,
+            @Value("${mail.smtp.starttls}") boolean starttls,
+            @Value("${mail.smtp.timeout}") int timeout,
+            @Value("${mail.debug}") boolean debug,
             @Value("${mail.smtp.username}") String username,
             @Value("${mail.smtp.password}") String password
     ) {
@@ -51,34 +155,23 @@ public class ApplicationConfiguration {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
 
         // Configure SMTP server
-        mailSender.setHost("smtp.gmail.com");
-        mailSender.setPort(587);
-        mailSender.setUsername(username);
-        mailSender.setPassword(password);
+        mailSender.setHost(host);
+        mailSender.setPort(port);
+        if (auth) {
+            mailSender.setUsername(username);
+            mailSender.setPassword(password);
+        }
 
         // Define JavaMail properties
         Properties props = mailSender.getJavaMailProperties();
-        props.put("mail.smtp.auth", "true");
-        props.
-
-                put("mail.smtp.starttls.enable", "true"); // Use STARTTLS for secure connections
-        props.
-
-                put("mail.debug", "true");
-
-        log.
-
-                debug("SMTP properties set: host={}, port={}, auth={}, starttls={}",
-                        props.get("mail.smtp.host"),
-                        props.
-
-                                get("mail.smtp.port"),
-                        props.
-
-                                get("mail.smtp.auth"),
-                        props.
-
-                                get("mail.smtp.starttls.enable"));
+        props.put("mail.smtp.auth", String.valueOf(auth));
+        props.put("mail.smtp.starttls.enable", String.valueOf(starttls));
+        props.put("mail.smtp.connectiontimeout", String.valueOf(timeout));
+        props.put("mail.smtp.timeout", String.valueOf(timeout));
+        props.put("mail.smtp.writetimeout", String.valueOf(timeout));
+        props.put("mail.debug", String.valueOf(debug));
+
+        log.debug("SMTP properties set: host={}, port={}, auth={}, starttls={}", host, port, auth, starttls);
 
         return mailSender;
     }
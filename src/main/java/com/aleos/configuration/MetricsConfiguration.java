@@ -0,0 +1,131 @@
+package com.aleos.configuration;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import java.util.Set;
+
+/**
+ * Configures the metrics registry and the instrumentation feeding it.
+ * <p>
+ * Metrics are kept in a Prometheus registry and scraped from the metrics endpoint. Besides JVM
+ * figures they cover the connection pool, which registers itself when the DataSource is created,
+ * the Hibernate statistics, and the latency of every request, observed by a servlet filter that
+ * runs ahead of all other filters and tags each request with its mapped URI pattern.
+ * <p>
+ * Request latency and connection acquire and usage times are published with p50, p99 and p999
+ * computed in the application, and as histogram buckets so that percentiles can also be
+ * aggregated over several nodes.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    private static final String SESSION_FACTORY_NAME = "dropjar";
+
+    private static final Set<String> LATENCY_METERS = Set.of(
+            "http.server.requests",
+            "hikaricp.connections.acquire",
+            "hikaricp.connections.usage"
+    );
+
+    /**
+     * Configures the registry holding all application metrics.
+     *
+     * @param application the value of the "application" tag added to every metric
+     * @return a configured PrometheusMeterRegistry
+     */
+    @Bean
+    public PrometheusMeterRegistry meterRegistry(@Value("${metrics.application}") String application) {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config()
+                .commonTags("application", application)
+                .meterFilter(latencyPercentiles());
+
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmGcMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+
+        return registry;
+    }
+
+    /**
+     * Configures the observation registry, recording every observation as a timer.
+     *
+     * @param meterRegistry the registry the timers are kept in
+     * @return a configured ObservationRegistry
+     */
+    @Bean
+    public ObservationRegistry observationRegistry(MeterRegistry meterRegistry) {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        return registry;
+    }
+
+    /**
+     * Configures the filter observing every HTTP request, published as "http.server.requests".
+     * It is registered in {@code WebApplicationInitializer}.
+     *
+     * @param observationRegistry the registry the observations are reported to
+     * @return a configured ServerHttpObservationFilter
+     */
+    @Bean
+    public ServerHttpObservationFilter serverHttpObservationFilter(ObservationRegistry observationRegistry) {
+        return new ServerHttpObservationFilter(observationRegistry);
+    }
+
+    /**
+     * Publishes the Hibernate statistics: session, transaction and query counts, the slowest
+     * query, second-level and natural-id cache hits and misses per region, and the execution
+     * time of each query.
+     *
+     * @param entityManagerFactory the EntityManagerFactory whose statistics are published
+     * @param meterRegistry        the registry the statistics are published to
+     * @return the binder of the general statistics
+     */
+    @Bean
+    public HibernateMetrics hibernateMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+
+        HibernateMetrics metrics = new HibernateMetrics(sessionFactory, SESSION_FACTORY_NAME, Tags.empty());
+        metrics.bindTo(meterRegistry);
+        new HibernateQueryMetrics(sessionFactory, SESSION_FACTORY_NAME, Tags.empty()).bindTo(meterRegistry);
+
+        return metrics;
+    }
+
+    private static MeterFilter latencyPercentiles() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!LATENCY_METERS.contains(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.99, 0.999)
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -1,7 +1,10 @@
 package com.aleos.configuration;
 
+import com.aleos.jdbc.BoundedDataSource;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManagerFactory;
 import liquibase.integration.spring.SpringLiquibase;
 import lombok.AllArgsConstructor;
@@ -11,6 +14,7 @@ import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -19,6 +23,9 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
 import java.util.Properties;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Configuration
 @PropertySource("classpath:dbconfig.properties")
@@ -31,13 +38,33 @@ public class PersistenceConfiguration {
 
     /**
      * Configures the DataSource bean using HikariCP.
+     * The pool reports its usage and connection acquire times to the given registry.
+     * In virtual-thread mode the pool is fronted by a fair semaphore, so any number of virtual
+     * threads queue for a connection in order instead of crowding the pool.
      *
+     * @param meterRegistry the registry the pool metrics are published to
      * @return DataSource configured with HikariCP settings
      */
     @Bean
-    public DataSource dataSource() {
+    public DataSource dataSource(MeterRegistry meterRegistry) {
         var hikariConfig = configureHikariPool();
-        return new HikariDataSource(hikariConfig);
+        hikariConfig.setMetricRegistry(meterRegistry);
+        var pool = new HikariDataSource(hikariConfig);
+        if (!env.getProperty("threads.virtual.enabled", Boolean.class, false)) {
+            return pool;
+        }
+
+        int permits = Integer.parseInt(env.getProperty("connectionPermits", "0"));
+        var bounded = new BoundedDataSource(
+                pool,
+                permits > 0 ? permits : hikariConfig.getMaximumPoolSize(),
+                hikariConfig.getConnectionTimeout()
+        );
+        Gauge.builder("jdbc.connections.permits.waiting", bounded, BoundedDataSource::getWaitingThreads)
+                .tag("pool", hikariConfig.getPoolName())
+                .description("Threads waiting for a connection permit")
+                .register(meterRegistry);
+        return bounded;
     }
 
     /**
@@ -71,6 +98,7 @@ public class PersistenceConfiguration {
         hikariConfig.setUsername(env.getProperty("POSTGRES_USER"));
         hikariConfig.setPassword(env.getProperty("POSTGRES_PASSWORD"));
 
+        hikariConfig.setPoolName(env.getProperty("poolName", "dropjar"));
         hikariConfig.setDriverClassName(env.getProperty("driverClassName", "org.postgresql.Driver"));
         hikariConfig.setMaximumPoolSize(Integer.parseInt(env.getProperty("maximumPoolSize", "10")));
         hikariConfig.setMinimumIdle(Integer.parseInt(env.getProperty("minimumIdle", "3")));
@@ -96,12 +124,31 @@ public class PersistenceConfiguration {
         properties.setProperty("hibernate.generate_statistics", env.getProperty("hibernate.generate_statistics"));
         properties.setProperty("hibernate.session.events.log.LOG_QUERIES_SLOWER_THAN_MS", env.getProperty("hibernate.session.events.log.LOG_QUERIES_SLOWER_THAN_MS"));
 
+        // Bounded in-process second-level cache, every region must be configured up front
+        properties.setProperty("hibernate.cache.use_second_level_cache", env.getProperty("hibernate.cache.use_second_level_cache"));
+        properties.setProperty("hibernate.cache.region.factory_class", env.getProperty("hibernate.cache.region.factory_class"));
+        properties.setProperty("hibernate.javax.cache.provider", env.getProperty("hibernate.javax.cache.provider"));
+        properties.setProperty("hibernate.javax.cache.uri", env.getProperty("hibernate.javax.cache.uri"));
+        properties.setProperty("hibernate.javax.cache.missing_cache_strategy", env.getProperty("hibernate.javax.cache.missing_cache_strategy"));
+
         // Instruct Hibernate to use the provided DataSource
         properties.setProperty("hibernate.connection.provider_class", env.getProperty("hibernate.connection.provider_class"));
 
         return properties;
     }
 
+    /**
+     * Provides a JdbcTemplate for bulk statements that are impractical through JPA.
+     * Within a JPA transaction it runs on the same connection as the EntityManager.
+     *
+     * @param dataSource the DataSource to be used by the JdbcTemplate
+     * @return a JdbcTemplate bound to the application DataSource
+     */
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
     /**
      * Configures the transaction manager for managing transactions.
      *
@@ -119,7 +166,8 @@ public class PersistenceConfiguration {
      * Configures and returns a SpringLiquibase bean.
      * The SpringLiquibase bean is set up with a specified DataSource and
      * Liquibase changelog file. This bean initializes the Liquibase integration
-     * to manage database migrations.
+     * to manage database migrations. The storage settings are passed to the changelog,
+     * as the migration of legacy file content writes to the chunk store.
      *
      * @param dataSource the DataSource to be used by SpringLiquibase
      * @return a configured SpringLiquibase instance
@@ -129,6 +177,12 @@ public class PersistenceConfiguration {
         SpringLiquibase springLiquibase = new SpringLiquibase();
         springLiquibase.setDataSource(dataSource);
         springLiquibase.setChangeLog("db/changelog/db.changelog-master.yml");
+        springLiquibase.setChangeLogParameters(Stream.of(
+                        "storage.root",
+                        "storage.chunk.min-size",
+                        "storage.chunk.average-size",
+                        "storage.chunk.max-size")
+                .collect(Collectors.toMap(Function.identity(), env::getRequiredProperty)));
         springLiquibase.setShouldRun(true);
         return springLiquibase;
     }
@@ -0,0 +1,94 @@
+package com.aleos.configuration;
+
+import com.aleos.session.CompactSessionSerializer;
+import com.aleos.session.ThrottledSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Configures the HTTP session store shared by all application nodes.
+ * <p>
+ * Sessions live in the database instead of the servlet container, so any node can serve any
+ * request and the concurrent session limit counts the sessions of a user across all nodes.
+ * The store is exposed as a {@link FindByIndexNameSessionRepository}; the security configuration
+ * depends on nothing more, so another store can be plugged in by replacing the beans below.
+ * <p>
+ * The {@code springSessionRepositoryFilter} created by {@link EnableSpringHttpSession} is registered
+ * ahead of the security filters in {@code WebApplicationInitializer}.
+ * <p>
+ * Sessions are the only state shared between nodes. The following stays local to each node, and
+ * running several nodes without routing a user to the same node weakens it as described:
+ * - User cache: sign-in reads the user from the database, so activations and new password hashes
+ *   apply on every node at once; other reads of a user may be up to the cache expiry old.
+ * - Authentication rate limits: every node keeps its own buckets, so a client gets the configured
+ *   rate once per node.
+ * - Email availability filter: an email registered through another node may be reported as free
+ *   until the filter is rebuilt; the unique constraint still rejects the sign-up.
+ * - Quota ledger: reservations in flight on another node are not seen, so concurrent uploads of
+ *   one user through several nodes can overshoot the quota by what those uploads hold.
+ */
+@Configuration
+@EnableSpringHttpSession
+public class SessionConfiguration {
+
+    /**
+     * Configures the JDBC session store. Attributes are written deflated, and expired sessions
+     * are removed by the store itself on the given schedule.
+     *
+     * @param jdbcTemplate       the JdbcTemplate bound to the application DataSource
+     * @param transactionManager the transaction manager the store runs its statements in
+     * @param timeout            the inactivity timeout of a session in seconds
+     * @param cleanupCron        the schedule of the removal of expired sessions
+     * @return a configured JdbcIndexedSessionRepository
+     */
+    @Bean
+    public JdbcIndexedSessionRepository jdbcSessionRepository(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${session.timeout}") long timeout,
+            @Value("${session.cleanup-cron}") String cleanupCron
+    ) {
+        CompactSessionSerializer serializer = new CompactSessionSerializer(getClass().getClassLoader());
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, new SerializingConverter(serializer));
+        conversionService.addConverter(byte[].class, Object.class, new DeserializingConverter(serializer));
+
+        JdbcIndexedSessionRepository repository =
+                new JdbcIndexedSessionRepository(jdbcTemplate, new TransactionTemplate(transactionManager));
+        repository.setDefaultMaxInactiveInterval(Duration.ofSeconds(timeout));
+        repository.setConversionService(conversionService);
+        repository.setCleanupCron(cleanupCron);
+        return repository;
+    }
+
+    /**
+     * Configures the session store used by the application, which writes the last access time
+     * of a session at most once per touch interval.
+     *
+     * @param jdbcSessionRepository the store holding the sessions
+     * @param touchInterval         the minimum time between two writes of the last access time in seconds
+     * @return the session store used by the session filter and the session registry
+     */
+    @Bean
+    @Primary
+    public FindByIndexNameSessionRepository<? extends Session> sessionRepository(
+            JdbcIndexedSessionRepository jdbcSessionRepository,
+            @Value("${session.touch-interval}") long touchInterval
+    ) {
+        return new ThrottledSessionRepository<>(jdbcSessionRepository, Duration.ofSeconds(touchInterval));
+    }
+}
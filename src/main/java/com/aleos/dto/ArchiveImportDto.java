@@ -0,0 +1,12 @@
+package com.aleos.dto;
+
+/**
+ * A record class representing the outcome of extracting an uploaded archive.
+ * The folders count only those created by the extraction; the size is the total of the extracted files.
+ */
+public record ArchiveImportDto(
+        Integer folders,
+        Integer files,
+        Long size
+) {
+}
@@ -0,0 +1,22 @@
+package com.aleos.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.UUID;
+
+/**
+ * A record class representing the payload required to create a folder.
+ * It includes the folder name and the id of the parent folder, null for a top-level folder.
+ */
+public record CreateFolderPayload(
+
+        @NotBlank
+        @Size(max = 255, message = "Folder name length should be at most {max}")
+        @Pattern(regexp = "(?!\\.\\.?$)[^/\\\\]*", message = "Folder name must not contain slashes or be . or ..")
+        String name,
+
+        UUID parentId
+) {
+}
@@ -0,0 +1,9 @@
+package com.aleos.dto;
+
+/**
+ * A record class representing the answer to an email availability check of the sign-up form.
+ */
+public record EmailAvailabilityDto(
+        boolean available
+) {
+}
@@ -0,0 +1,13 @@
+package com.aleos.dto;
+
+import java.util.List;
+
+/**
+ * A record class representing one page of a file listing.
+ * The nextCursor is an opaque token to pass back for the following page, or null on the last page.
+ */
+public record FilePageDto(
+        List<FileSummaryDto> items,
+        String nextCursor
+) {
+}
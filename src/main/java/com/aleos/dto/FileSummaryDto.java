@@ -0,0 +1,16 @@
+package com.aleos.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A record class representing a single row of a file listing.
+ */
+public record FileSummaryDto(
+        UUID id,
+        String name,
+        String contentType,
+        Long size,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,19 @@
+package com.aleos.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A record class representing a folder returned to clients.
+ * The size and fileCount cover all files in the folder and in its subfolders, at any depth.
+ */
+public record FolderDto(
+        UUID id,
+        UUID parentId,
+        String name,
+        Integer depth,
+        Long size,
+        Long fileCount,
+        Instant createdAt
+) {
+}
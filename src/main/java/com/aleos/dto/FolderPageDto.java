@@ -0,0 +1,13 @@
+package com.aleos.dto;
+
+import java.util.List;
+
+/**
+ * A record class representing one page of the folders in a subtree.
+ * The nextCursor is an opaque token to pass back for the following page, or null on the last page.
+ */
+public record FolderPageDto(
+        List<FolderDto> items,
+        String nextCursor
+) {
+}
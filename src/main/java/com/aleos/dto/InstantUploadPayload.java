@@ -0,0 +1,35 @@
+package com.aleos.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.util.UUID;
+
+/**
+ * A record class representing the payload of an instant upload: a file described only by
+ * its name, media type, content digest and size, completed without sending the content
+ * when the server already stores the same content. The folderId names the folder to store
+ * the file in, null for none.
+ */
+public record InstantUploadPayload(
+
+        @NotBlank
+        @Size(max = 255, message = "File name length should be at most {max}")
+        String name,
+
+        String contentType,
+
+        @NotNull
+        @Pattern(regexp = "[0-9a-f]{64}", message = "SHA-256 must be 64 lowercase hex characters")
+        String sha256,
+
+        @NotNull
+        @PositiveOrZero
+        Long size,
+
+        UUID folderId
+) {
+}
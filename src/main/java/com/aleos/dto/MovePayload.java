@@ -0,0 +1,12 @@
+package com.aleos.dto;
+
+import java.util.UUID;
+
+/**
+ * A record class representing the target of moving a file or folder:
+ * the id of the folder to move it into, null to move it to the top level.
+ */
+public record MovePayload(
+        UUID folderId
+) {
+}
@@ -0,0 +1,29 @@
+package com.aleos.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.util.UUID;
+
+/**
+ * A record class representing the payload required to open a resumable upload session.
+ * It includes the file name, its media type, its total size in bytes and the folder
+ * to store it in, null for none.
+ */
+public record OpenUploadSessionPayload(
+
+        @NotBlank
+        @Size(max = 255, message = "File name length should be at most {max}")
+        String fileName,
+
+        String contentType,
+
+        @NotNull
+        @PositiveOrZero
+        Long totalSize,
+
+        UUID folderId
+) {
+}
@@ -0,0 +1,12 @@
+package com.aleos.dto;
+
+import java.time.Instant;
+
+/**
+ * A record class representing a public share link of a stored file.
+ */
+public record ShareLinkDto(
+        String url,
+        Instant expiresAt
+) {
+}
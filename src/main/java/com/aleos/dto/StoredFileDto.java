@@ -0,0 +1,17 @@
+package com.aleos.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A record class representing the file metadata returned to clients after an upload.
+ */
+public record StoredFileDto(
+        UUID id,
+        String name,
+        String contentType,
+        Long size,
+        String sha256,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,11 @@
+package com.aleos.dto;
+
+/**
+ * A record class representing a received part of a resumable upload session.
+ */
+public record UploadPartDto(
+        Integer partNumber,
+        Long size,
+        String sha256
+) {
+}
@@ -0,0 +1,22 @@
+package com.aleos.dto;
+
+import com.aleos.model.UploadSessionStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A record class representing the state of a resumable upload session as seen by the client.
+ * The receivedParts list tells a resuming client which parts it does not need to send again.
+ */
+public record UploadSessionDto(
+        UUID id,
+        String fileName,
+        String contentType,
+        Long totalSize,
+        Long partSize,
+        Integer partCount,
+        UploadSessionStatus status,
+        List<Integer> receivedParts
+) {
+}
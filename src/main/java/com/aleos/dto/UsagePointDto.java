@@ -0,0 +1,14 @@
+package com.aleos.dto;
+
+import java.time.Instant;
+
+/**
+ * A record class representing one point of the storage usage chart:
+ * the usage as of the end of a time slot.
+ */
+public record UsagePointDto(
+        Instant time,
+        long fileCount,
+        long bytesUsed
+) {
+}
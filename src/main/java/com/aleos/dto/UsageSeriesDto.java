@@ -0,0 +1,20 @@
+package com.aleos.dto;
+
+import com.aleos.model.UsageRange;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A record class representing the storage usage of a user over a time range,
+ * sampled at a fixed step sized to the resolution of the chart.
+ */
+public record UsageSeriesDto(
+        UsageRange range,
+        Instant from,
+        Instant to,
+        Duration step,
+        List<UsagePointDto> points
+) {
+}
@@ -0,0 +1,26 @@
+package com.aleos.dto;
+
+/**
+ * A record class representing the usage figures shown on the dashboard metric cards.
+ */
+public record UsageSummaryDto(
+        long fileCount,
+        long bytesUsed,
+        long activeUsers
+) {
+
+    private static final String[] UNITS = {"B", "KB", "MB", "GB", "TB", "PB"};
+
+    /**
+     * Formats the used storage with a binary unit, e.g. "1.5 GB".
+     *
+     * @return the human readable storage size
+     */
+    public String storageUsed() {
+        if (bytesUsed < 1024) {
+            return bytesUsed + " " + UNITS[0];
+        }
+        int unit = Math.min((63 - Long.numberOfLeadingZeros(bytesUsed)) / 10, UNITS.length - 1);
+        return "%.1f %s".formatted(bytesUsed / (double) (1L << (unit * 10)), UNITS[unit]);
+    }
+}
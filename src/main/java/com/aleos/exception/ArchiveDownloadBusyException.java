@@ -0,0 +1,13 @@
+package com.aleos.exception;
+
+/**
+ * This exception is thrown when an archive download is refused because as many archives as allowed
+ * are being streamed already.
+ * It extends from the {@link DropJarException}, allowing the capture of additional context or root cause.
+ */
+public class ArchiveDownloadBusyException extends DropJarException {
+
+    public ArchiveDownloadBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
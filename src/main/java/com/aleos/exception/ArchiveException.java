@@ -0,0 +1,16 @@
+package com.aleos.exception;
+
+/**
+ * This exception is thrown when an archive cannot be built or read from the given request.
+ * It extends from the {@link DropJarException}, allowing the capture of additional context or root cause.
+ */
+public class ArchiveException extends DropJarException {
+
+    public ArchiveException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ArchiveException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.aleos.exception;
+
+/**
+ * This exception is thrown when file content cannot be written to or read from the storage.
+ * It extends from the {@link DropJarException}, allowing the capture of additional context or root cause.
+ */
+public class FileStorageException extends DropJarException {
+
+    public FileStorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public FileStorageException(String message) {
+        super(message);
+    }
+}
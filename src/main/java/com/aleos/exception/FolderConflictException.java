@@ -0,0 +1,18 @@
+package com.aleos.exception;
+
+/**
+ * This exception is thrown when a folder operation conflicts with the state of the folder tree,
+ * e.g. a folder would be moved into its own subtree, a sibling of the same name exists or a
+ * folder to delete still holds files.
+ * It extends from the {@link DropJarException}, allowing the capture of additional context or root cause.
+ */
+public class FolderConflictException extends DropJarException {
+
+    public FolderConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public FolderConflictException(String message) {
+        super(message);
+    }
+}
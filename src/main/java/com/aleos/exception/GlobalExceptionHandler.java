@@ -1,6 +1,10 @@
 package com.aleos.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -21,6 +25,78 @@ public class GlobalExceptionHandler {
         return "auth/sign-in";
     }
 
+    @ExceptionHandler(FileStorageException.class)
+    public ResponseEntity<ProblemDetail> handleFileStorageException(FileStorageException ex) {
+        log.error(ex.getMessage(), ex);
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage()))
+                .build();
+    }
+
+    @ExceptionHandler(UploadSessionException.class)
+    public ResponseEntity<ProblemDetail> handleUploadSessionException(UploadSessionException ex) {
+        log.warn(ex.getMessage());
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage()))
+                .build();
+    }
+
+    @ExceptionHandler(FolderConflictException.class)
+    public ResponseEntity<ProblemDetail> handleFolderConflictException(FolderConflictException ex) {
+        log.warn(ex.getMessage());
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage()))
+                .build();
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ProblemDetail> handleResourceNotFoundException(ResourceNotFoundException ex) {
+        log.warn(ex.getMessage());
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage()))
+                .build();
+    }
+
+    @ExceptionHandler(QuotaExceededException.class)
+    public ResponseEntity<ProblemDetail> handleQuotaExceededException(QuotaExceededException ex) {
+        log.warn(ex.getMessage());
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.INSUFFICIENT_STORAGE, ex.getMessage()))
+                .build();
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidCursorException(InvalidCursorException ex) {
+        log.warn(ex.getMessage());
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage()))
+                .build();
+    }
+
+    @ExceptionHandler(ArchiveException.class)
+    public ResponseEntity<ProblemDetail> handleArchiveException(ArchiveException ex) {
+        log.warn(ex.getMessage());
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage()))
+                .build();
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ProblemDetail> handlePasswordHashingBusyException(PasswordHashingBusyException ex) {
+        log.warn(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
+
+    @ExceptionHandler(ArchiveDownloadBusyException.class)
+    public ResponseEntity<ProblemDetail> handleArchiveDownloadBusyException(ArchiveDownloadBusyException ex) {
+        log.warn(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
+
+    @ExceptionHandler(ShareLinkUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleShareLinkUnavailableException(ShareLinkUnavailableException ex) {
+        log.warn(ex.getMessage());
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()))
+                .build();
+    }
+
     // Handle all other exceptions
     @ExceptionHandler(Exception.class)
     public String handleException(Exception ex, Model model) {
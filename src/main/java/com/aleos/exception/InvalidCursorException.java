@@ -0,0 +1,16 @@
+package com.aleos.exception;
+
+/**
+ * This exception is thrown when a pagination cursor is malformed or was issued for a different sort order.
+ * It extends from the {@link DropJarException}, allowing the capture of additional context or root cause.
+ */
+public class InvalidCursorException extends DropJarException {
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.aleos.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * This exception is thrown when a password cannot be hashed or verified because the password
+ * hashing executor is saturated.
+ * Unlike the other exceptions of this package it extends Spring Security's
+ * {@link AuthenticationServiceException}, so a sign-in rejected this way ends as a failed
+ * authentication instead of an internal error.
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
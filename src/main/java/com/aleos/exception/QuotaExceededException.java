@@ -0,0 +1,12 @@
+package com.aleos.exception;
+
+/**
+ * This exception is thrown when storing a file would exceed the storage quota of its owner.
+ * It extends from the {@link DropJarException}, allowing the capture of additional context or root cause.
+ */
+public class QuotaExceededException extends DropJarException {
+
+    public QuotaExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.aleos.exception;
+
+/**
+ * This exception is thrown when a requested resource does not exist or is not visible to the current user.
+ * It extends from the {@link DropJarException}, allowing the capture of additional context or root cause.
+ */
+public class ResourceNotFoundException extends DropJarException {
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.aleos.exception;
+
+/**
+ * This exception is thrown when a share link is requested but no key to sign share links is configured.
+ * It extends from the {@link DropJarException}, allowing the capture of additional context or root cause.
+ */
+public class ShareLinkUnavailableException extends DropJarException {
+
+    public ShareLinkUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.aleos.exception;
+
+/**
+ * This exception is thrown when an upload session operation conflicts with the state of the session,
+ * e.g. a part does not fit the session layout or the session is no longer open.
+ * It extends from the {@link DropJarException}, allowing the capture of additional context or root cause.
+ */
+public class UploadSessionException extends DropJarException {
+
+    public UploadSessionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public UploadSessionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,132 @@
+package com.aleos.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource that lets only a fixed number of threads hold or wait inside the connection pool.
+ * <p>
+ * With virtual threads, the number of concurrent requests is no longer capped by a thread pool,
+ * and thousands of them may ask the pool for a connection at once. Every thread beyond the pool
+ * size would then spin and park inside the pool's own hand-off queue. Here a fair semaphore with
+ * as many permits as the pool has connections queues them in order instead, where waiting costs a
+ * parked virtual thread and nothing else. A permit is held until the connection is closed, and a
+ * thread that waits longer than the timeout fails as it would when the pool itself times out.
+ * <p>
+ * Closing this DataSource closes the pool it wraps, so the pool is shut down with the bean
+ * that exposes it.
+ */
+public class BoundedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permits;
+    private final long timeoutMillis;
+
+    /**
+     * @param target        the pooled DataSource
+     * @param permits       the number of connections that may be held at once, usually the pool size
+     * @param timeoutMillis the longest a thread waits for a permit
+     */
+    public BoundedDataSource(DataSource target, int permits, long timeoutMillis) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of threads waiting for a permit
+     */
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Closes the wrapped DataSource if it holds resources, such as a connection pool.
+     *
+     * @throws Exception if the wrapped DataSource fails to close
+     */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable target) {
+            target.close();
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Connection is not available, request timed out after " + timeoutMillis + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "close" -> {
+                        close(connection, released);
+                        yield null;
+                    }
+                    default -> invoke(connection, method, args);
+                });
+    }
+
+    private void close(Connection connection, AtomicBoolean released) throws SQLException {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            connection.close();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
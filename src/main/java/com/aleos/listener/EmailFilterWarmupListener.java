@@ -0,0 +1,31 @@
+package com.aleos.listener;
+
+import com.aleos.service.EmailAvailabilityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * EmailFilterWarmupListener is a component responsible for building the filter of
+ * registered emails when the application starts, so that availability checks of the
+ * sign-up form are answered from memory from the first request on.
+ */
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class EmailFilterWarmupListener implements ApplicationListener<ContextRefreshedEvent> {
+
+    private final EmailAvailabilityService emailAvailabilityService;
+
+    @Override
+    public void onApplicationEvent(@NonNull ContextRefreshedEvent event) {
+        if (event.getApplicationContext().getParent() != null) {
+            return;
+        }
+
+        emailAvailabilityService.rebuild();
+    }
+}
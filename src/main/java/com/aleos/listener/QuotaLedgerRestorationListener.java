@@ -0,0 +1,34 @@
+package com.aleos.listener;
+
+import com.aleos.service.QuotaLedger;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * QuotaLedgerRestorationListener is a component responsible for restoring the
+ * quota reservations of open upload sessions when the application starts.
+ * It implements the ApplicationListener interface and listens for ContextRefreshedEvent.
+ *
+ * It runs after the usage counters have been reconciled, because the ledger loads
+ * the used space of the affected accounts from them.
+ */
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class QuotaLedgerRestorationListener implements ApplicationListener<ContextRefreshedEvent> {
+
+    private final QuotaLedger quotaLedger;
+
+    @Override
+    public void onApplicationEvent(@NonNull ContextRefreshedEvent event) {
+        if (event.getApplicationContext().getParent() != null) {
+            return;
+        }
+
+        quotaLedger.restore();
+    }
+}
@@ -0,0 +1,43 @@
+package com.aleos.listener;
+
+import com.aleos.service.UsageCounterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * UsageCounterReconciliationListener is a component responsible for rebuilding
+ * the usage counters when the application starts. It implements the ApplicationListener
+ * interface and listens for ContextRefreshedEvent.
+ *
+ * The counters are maintained incrementally and may drift if the application stops
+ * without flushing them, so they are recomputed once from the files and users tables
+ * before any request is served. Refresh events of the servlet context, which are
+ * propagated to this listener as well, are ignored.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class UsageCounterReconciliationListener implements ApplicationListener<ContextRefreshedEvent> {
+
+    private final UsageCounterService usageCounterService;
+
+    @Value("${usage.reconcile-on-startup}")
+    private boolean reconcileOnStartup;
+
+    @Override
+    public void onApplicationEvent(@NonNull ContextRefreshedEvent event) {
+        if (!reconcileOnStartup || event.getApplicationContext().getParent() != null) {
+            return;
+        }
+
+        log.info("Reconciling usage counters...");
+        usageCounterService.reconcile();
+    }
+}
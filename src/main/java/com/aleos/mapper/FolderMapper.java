@@ -0,0 +1,24 @@
+package com.aleos.mapper;
+
+import com.aleos.dto.FolderDto;
+import com.aleos.model.Folder;
+import com.aleos.repository.FolderSummary;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * FolderMapper is a MapStruct mapper interface used to map
+ * Folder entities and listing projections to the DTOs exposed by the web layer.
+ */
+@Mapper(
+        componentModel = MappingConstants.ComponentModel.SPRING,
+        unmappedTargetPolicy = ReportingPolicy.IGNORE
+)
+public interface FolderMapper {
+
+    FolderDto toDto(Folder folder);
+
+    FolderDto toDto(FolderSummary summary);
+
+}
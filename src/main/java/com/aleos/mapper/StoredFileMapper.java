@@ -0,0 +1,25 @@
+package com.aleos.mapper;
+
+import com.aleos.dto.FileSummaryDto;
+import com.aleos.dto.StoredFileDto;
+import com.aleos.model.StoredFile;
+import com.aleos.repository.StoredFileSummary;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * StoredFileMapper is a MapStruct mapper interface used to map
+ * StoredFile entities and listing projections to the DTOs exposed by the web layer.
+ */
+@Mapper(
+        componentModel = MappingConstants.ComponentModel.SPRING,
+        unmappedTargetPolicy = ReportingPolicy.IGNORE
+)
+public interface StoredFileMapper {
+
+    StoredFileDto toDto(StoredFile storedFile);
+
+    FileSummaryDto toDto(StoredFileSummary summary);
+
+}
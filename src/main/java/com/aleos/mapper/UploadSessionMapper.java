@@ -0,0 +1,27 @@
+package com.aleos.mapper;
+
+import com.aleos.dto.UploadPartDto;
+import com.aleos.dto.UploadSessionDto;
+import com.aleos.model.UploadPart;
+import com.aleos.model.UploadSession;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * UploadSessionMapper is a MapStruct mapper interface used to map
+ * upload sessions and their parts to the DTOs exposed by the web layer.
+ */
+@Mapper(
+        componentModel = MappingConstants.ComponentModel.SPRING,
+        unmappedTargetPolicy = ReportingPolicy.IGNORE
+)
+public interface UploadSessionMapper {
+
+    UploadSessionDto toDto(UploadSession uploadSession, List<Integer> receivedParts);
+
+    UploadPartDto toDto(UploadPart uploadPart);
+
+}
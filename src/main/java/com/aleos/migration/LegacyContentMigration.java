@@ -0,0 +1,197 @@
+package com.aleos.migration;
+
+import com.aleos.storage.ChunkRef;
+import com.aleos.storage.ChunkStore;
+import com.aleos.storage.ContentDefinedChunker;
+import com.aleos.storage.IngestedContent;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Liquibase change moving the content of files uploaded before chunked storage into the chunk store.
+ * <p>
+ * Such files kept their whole content in one blob under the storage root, located by their
+ * {@code storage_key}. Every blob is split and stored exactly as a new upload would be, its digest
+ * is checked against the recorded one and its chunk references and positions are inserted, so the
+ * storage key can be dropped afterwards. A missing or altered blob fails the change, and with it
+ * the migration, instead of leaving a file without content.
+ * <p>
+ * The blobs themselves are left in place: the change runs in the transaction of its changeset and
+ * a rollback must still find them. They can be removed once the migration has completed.
+ * <p>
+ * The storage root and the chunk sizes are passed in as changeset parameters and must match the
+ * configuration of the application.
+ */
+@Slf4j
+@Setter
+public class LegacyContentMigration implements CustomTaskChange {
+
+    private static final int PAGE_SIZE = 500;
+
+    private static final String SELECT_FILES = """
+            SELECT id, storage_key, sha256, size FROM stored_file
+            WHERE id > ?
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private static final String UPSERT_REFERENCES = """
+            INSERT INTO chunk (hash, size, ref_count, created_at)
+            VALUES (?, ?, ?, now())
+            ON CONFLICT (hash) DO UPDATE SET ref_count = chunk.ref_count + EXCLUDED.ref_count
+            """;
+
+    private static final String INSERT_CHUNK = """
+            INSERT INTO file_chunk (file_id, seq, chunk_hash, chunk_offset, size)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private String storageRoot;
+    private String minChunkSize;
+    private String averageChunkSize;
+    private String maxChunkSize;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Path root = Path.of(storageRoot);
+        ChunkStore chunkStore = new ChunkStore(root.resolve("chunks"), new ContentDefinedChunker(
+                Integer.parseInt(minChunkSize), Integer.parseInt(averageChunkSize), Integer.parseInt(maxChunkSize)));
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+
+        int migrated = 0;
+        UUID after = new UUID(0, 0);
+        try {
+            List<LegacyFile> page;
+            do {
+                page = findFiles(connection, after);
+                for (LegacyFile file : page) {
+                    IngestedContent content = ingest(chunkStore, root, file);
+                    addReferences(connection, content.chunks());
+                    insertChunks(connection, file.id(), content.chunks());
+                }
+                migrated += page.size();
+                if (!page.isEmpty()) {
+                    after = page.getLast().id();
+                }
+            } while (page.size() == PAGE_SIZE);
+        } catch (SQLException e) {
+            throw new CustomChangeException("Failed to migrate stored files to chunks", e);
+        }
+        log.info("Moved the content of {} stored files into the chunk store", migrated);
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Stored file content moved into the chunk store";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        errors.checkRequiredField("storageRoot", storageRoot);
+        errors.checkRequiredField("minChunkSize", minChunkSize);
+        errors.checkRequiredField("averageChunkSize", averageChunkSize);
+        errors.checkRequiredField("maxChunkSize", maxChunkSize);
+        return errors;
+    }
+
+    private static List<LegacyFile> findFiles(Connection connection, UUID after) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_FILES)) {
+            statement.setObject(1, after);
+            statement.setInt(2, PAGE_SIZE);
+            List<LegacyFile> files = new ArrayList<>(PAGE_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    files.add(new LegacyFile(rs.getObject("id", UUID.class), rs.getString("storage_key"),
+                            rs.getString("sha256"), rs.getLong("size")));
+                }
+            }
+            return files;
+        }
+    }
+
+    private static IngestedContent ingest(ChunkStore chunkStore, Path root, LegacyFile file)
+            throws CustomChangeException {
+        Path blob = root.resolve(file.storageKey().substring(0, 2)).resolve(file.storageKey());
+        if (!Files.exists(blob)) {
+            throw new CustomChangeException("Content of stored file %s is missing: %s".formatted(file.id(), blob));
+        }
+
+        IngestedContent content;
+        try (FileChannel channel = FileChannel.open(blob, StandardOpenOption.READ)) {
+            content = chunkStore.ingest(channel);
+        } catch (IOException e) {
+            throw new CustomChangeException("Failed to move content of stored file " + file.id(), e);
+        }
+        if (content.size() != file.size() || !content.sha256().equals(file.sha256())) {
+            throw new CustomChangeException("Content of stored file %s does not match its digest: %s"
+                    .formatted(file.id(), blob));
+        }
+        return content;
+    }
+
+    private static void addReferences(Connection connection, List<ChunkRef> chunks) throws SQLException {
+        // Hash order, as the application locks chunk rows
+        Map<String, int[]> references = new TreeMap<>();
+        for (ChunkRef chunk : chunks) {
+            references.computeIfAbsent(chunk.hash(), hash -> new int[]{chunk.size(), 0})[1]++;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT_REFERENCES)) {
+            for (Map.Entry<String, int[]> reference : references.entrySet()) {
+                statement.setString(1, reference.getKey());
+                statement.setInt(2, reference.getValue()[0]);
+                statement.setInt(3, reference.getValue()[1]);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static void insertChunks(Connection connection, UUID fileId, List<ChunkRef> chunks) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_CHUNK)) {
+            for (int seq = 0; seq < chunks.size(); seq++) {
+                ChunkRef chunk = chunks.get(seq);
+                statement.setObject(1, fileId);
+                statement.setInt(2, seq);
+                statement.setString(3, chunk.hash());
+                statement.setLong(4, chunk.offset());
+                statement.setInt(5, chunk.size());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private record LegacyFile(UUID id, String storageKey, String sha256, long size) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.aleos.model;
+
+/**
+ * Enum representing how account activation tokens are issued.
+ *
+ * - SIGNED: The token is signed and carries its own claims, nothing is written for it.
+ * - STORED: The token is the ID of a verification token row.
+ */
+public enum ActivationTokenMode {
+    SIGNED,
+    STORED
+}
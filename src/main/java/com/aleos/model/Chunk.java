@@ -0,0 +1,51 @@
+package com.aleos.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * Entity representing a chunk of content in the content-addressed chunk store.
+ * This entity is mapped to the "chunk" table in the database.
+ *
+ * A chunk is shared by every file, of any user, that contains the same bytes. The
+ * refCount column counts the {@link FileChunk} rows pointing to it; a chunk whose
+ * count drops to zero is removed from the database and from disk.
+ *
+ * Fields:
+ * - hash (String): Hex encoded SHA-256 digest of the chunk content, used as its identifier.
+ * - size (Integer): The chunk size in bytes.
+ * - refCount (Long): The number of file positions referencing the chunk.
+ * - createdAt (Instant): The timestamp when the chunk was first stored.
+ */
+@Entity
+@Table(name = "chunk")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class Chunk {
+
+    @Id
+    @Column(length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String hash;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer size;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long refCount;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+}
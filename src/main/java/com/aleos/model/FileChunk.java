@@ -0,0 +1,51 @@
+package com.aleos.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.UUID;
+
+/**
+ * Entity representing the position of a chunk within a stored file.
+ * This entity is mapped to the "file_chunk" table in the database.
+ *
+ * Fields:
+ * - fileId (UUID): The identifier of the file.
+ * - seq (Integer): The 0-based sequence number of the chunk within the file.
+ * - chunkHash (String): The digest of the chunk content.
+ * - chunkOffset (Long): The position of the first byte of the chunk within the file.
+ * - size (Integer): The chunk size in bytes.
+ */
+@Entity
+@Table(name = "file_chunk")
+@IdClass(FileChunkId.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class FileChunk {
+
+    @Id
+    @Column(name = "file_id")
+    private UUID fileId;
+
+    @Id
+    private Integer seq;
+
+    @NotNull
+    @Column(nullable = false, length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String chunkHash;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long chunkOffset;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer size;
+}
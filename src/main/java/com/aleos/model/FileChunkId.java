@@ -0,0 +1,22 @@
+package com.aleos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Composite identifier of a {@link FileChunk}: the owning file and the chunk's sequence number within it.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+public class FileChunkId implements Serializable {
+
+    private UUID fileId;
+    private Integer seq;
+}
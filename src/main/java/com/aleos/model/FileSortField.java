@@ -0,0 +1,18 @@
+package com.aleos.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Represents the attributes a file listing can be sorted by.
+ * The property is the name of the corresponding {@link StoredFile} attribute.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum FileSortField {
+    NAME("name"),
+    SIZE("size"),
+    CREATED_AT("createdAt");
+
+    private final String property;
+}
@@ -0,0 +1,86 @@
+package com.aleos.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity representing a folder of a user, which holds stored files and other folders.
+ * This entity is mapped to the "folder" table in the database.
+ *
+ * The position of a folder in the tree is kept as a materialized path of the ids of its
+ * ancestors, so the subtree of a folder is found by a path prefix. Its size and file count
+ * cover the whole subtree; they are maintained by the database operations of
+ * {@link com.aleos.repository.FolderTreeRepository} and are read-only here.
+ *
+ * Fields:
+ * - id (UUID): The unique identifier for the folder, generated using UUID strategy.
+ * - owner (User): The user who owns the folder. Cannot be null.
+ * - parentId (UUID): The identifier of the parent folder, null for a top-level folder.
+ * - name (String): The name of the folder, unique among its siblings.
+ * - path (String): The ids of the ancestors, '/' for a top-level folder and '/<root id>/.../<parent id>/' below.
+ * - depth (Integer): The number of ancestors.
+ * - size (Long): The total size in bytes of all files in the subtree.
+ * - fileCount (Long): The number of files in the subtree.
+ * - createdAt (Instant): The timestamp when the folder was created.
+ */
+@Entity
+@Table(name = "folder")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class Folder {
+
+    public static final String ROOT_PATH = "/";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @NotNull
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @Column(name = "parent_id")
+    private UUID parentId;
+
+    @NotNull
+    @Size(max = 255)
+    @Column(nullable = false)
+    private String name;
+
+    @NotNull
+    @Column(nullable = false, length = 2400)
+    private String path;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer depth;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Long size = 0L;
+
+    @Column(name = "file_count", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Long fileCount = 0L;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+
+    /**
+     * @return the path prefix shared by all descendants of this folder
+     */
+    public String subtreePath() {
+        return path + id + "/";
+    }
+}
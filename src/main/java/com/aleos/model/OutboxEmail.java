@@ -0,0 +1,79 @@
+package com.aleos.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Entity representing an email waiting to be delivered.
+ * This entity is mapped to the "email_outbox" table in the database.
+ *
+ * Emails are written in the same transaction as the change that produces them and delivered
+ * later by a background worker, so a rolled back change never sends an email and a committed
+ * one never loses it.
+ *
+ * Fields:
+ * - id (Long): The unique identifier of the email, generated by the database.
+ * - recipient (String): The address the email is sent to.
+ * - sender (String): The address the email is sent from.
+ * - subject (String): The subject of the email.
+ * - body (String): The HTML content of the email.
+ * - status (OutboxEmailStatus): The delivery state of the email. Defaults to PENDING.
+ * - attempts (Integer): The number of delivery attempts made so far. Defaults to 0.
+ * - nextAttemptAt (Instant): The earliest time of the next delivery attempt.
+ * - lastError (String): The reason the last delivery attempt failed, if any.
+ * - createdAt (Instant): The timestamp when the email was written.
+ */
+@Entity
+@Table(name = "email_outbox")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class OutboxEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(nullable = false)
+    private String recipient;
+
+    @NotNull
+    @Column(nullable = false)
+    private String sender;
+
+    @NotNull
+    @Column(nullable = false)
+    private String subject;
+
+    @NotNull
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private OutboxEmailStatus status = OutboxEmailStatus.PENDING;
+
+    @NotNull
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @NotNull
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
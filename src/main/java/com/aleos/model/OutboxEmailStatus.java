@@ -0,0 +1,10 @@
+package com.aleos.model;
+
+/**
+ * Represents the delivery states of an email waiting in the outbox.
+ * Delivered emails are removed from the outbox, so there is no state for them.
+ */
+public enum OutboxEmailStatus {
+    PENDING,
+    FAILED
+}
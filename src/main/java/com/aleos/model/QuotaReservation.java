@@ -0,0 +1,51 @@
+package com.aleos.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity representing storage space reserved for an upload session that is still open.
+ * This entity is mapped to the "quota_reservation" table in the database.
+ *
+ * The table is a write-behind copy of the durable reservations held by the in-memory
+ * quota ledger, used to restore them after a restart. The id is the id of the upload session.
+ *
+ * Fields:
+ * - id (UUID): The id of the reservation, equal to the id of its upload session.
+ * - userId (Integer): The id of the user the space is reserved for.
+ * - bytes (Long): The number of reserved bytes.
+ * - files (Integer): The number of reserved files.
+ * - createdAt (Instant): The timestamp when the reservation was written.
+ */
+@Entity
+@Table(name = "quota_reservation")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class QuotaReservation {
+
+    @Id
+    private UUID id;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer userId;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long bytes;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer files;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,73 @@
+package com.aleos.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity representing the metadata of a file uploaded by a user.
+ * This entity is mapped to the "stored_file" table in the database.
+ *
+ * The file content lives in the chunk store; the chunks making up the file
+ * are listed, in order, by its {@link FileChunk} rows.
+ *
+ * Fields:
+ * - id (UUID): The unique identifier for the file, generated using UUID strategy.
+ * - owner (User): The user who uploaded the file. Cannot be null.
+ * - folderId (UUID): The identifier of the folder holding the file, null for files outside of any folder.
+ * - name (String): The original file name as provided by the client.
+ * - contentType (String): The media type reported by the client.
+ * - size (Long): The file size in bytes.
+ * - sha256 (String): Hex encoded SHA-256 digest of the content.
+ * - createdAt (Instant): The timestamp when the upload was completed.
+ */
+@Entity
+@Table(name = "stored_file")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class StoredFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @NotNull
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @Column(name = "folder_id")
+    private UUID folderId;
+
+    @NotNull
+    @Size(max = 255)
+    @Column(nullable = false)
+    private String name;
+
+    @NotNull
+    @Column(nullable = false)
+    private String contentType;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long size;
+
+    @NotNull
+    @Column(nullable = false, length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String sha256;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+}
@@ -0,0 +1,57 @@
+package com.aleos.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity representing a part of an {@link UploadSession} that has been fully received.
+ * This entity is mapped to the "upload_part" table in the database.
+ *
+ * A row is only written after the part content has been flushed to disk, so the set
+ * of rows of a session is exactly the set of parts a client does not need to resend.
+ *
+ * Fields:
+ * - sessionId (UUID): The identifier of the owning upload session.
+ * - partNumber (Integer): The 1-based number of the part within the session.
+ * - size (Long): The number of bytes received for the part.
+ * - sha256 (String): Hex encoded SHA-256 digest of the part content.
+ * - createdAt (Instant): The timestamp when the part was received.
+ */
+@Entity
+@Table(name = "upload_part")
+@IdClass(UploadPartId.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class UploadPart {
+
+    @Id
+    @Column(name = "session_id")
+    private UUID sessionId;
+
+    @Id
+    @Column(name = "part_number")
+    private Integer partNumber;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long size;
+
+    @NotNull
+    @Column(nullable = false, length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String sha256;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+}
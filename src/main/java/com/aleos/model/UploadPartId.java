@@ -0,0 +1,22 @@
+package com.aleos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Composite identifier of an {@link UploadPart}: the owning session and the part number.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+public class UploadPartId implements Serializable {
+
+    private UUID sessionId;
+    private Integer partNumber;
+}
@@ -0,0 +1,109 @@
+package com.aleos.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity representing a resumable, multipart upload of a single file.
+ * This entity is mapped to the "upload_session" table in the database.
+ *
+ * The file is split into partCount parts of partSize bytes each (the last one
+ * may be shorter). Parts can be uploaded in any order and in parallel; each
+ * received part is tracked as an {@link UploadPart}.
+ *
+ * Fields:
+ * - id (UUID): The unique identifier for the session, generated using UUID strategy.
+ * - owner (User): The user who opened the session. Cannot be null.
+ * - folderId (UUID): The identifier of the folder the file is stored in, null for none.
+ * - fileName (String): The name of the file being uploaded.
+ * - contentType (String): The media type of the file being uploaded.
+ * - totalSize (Long): The size of the complete file in bytes.
+ * - partSize (Long): The size of every part except possibly the last one.
+ * - partCount (Integer): The number of parts the file is split into.
+ * - status (UploadSessionStatus): The current state of the session.
+ * - createdAt (Instant): The timestamp when the session was opened.
+ * - updatedAt (Instant): The timestamp of the last state change.
+ */
+@Entity
+@Table(name = "upload_session")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class UploadSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @NotNull
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @Column(name = "folder_id")
+    private UUID folderId;
+
+    @NotNull
+    @Size(max = 255)
+    @Column(nullable = false)
+    private String fileName;
+
+    @NotNull
+    @Column(nullable = false)
+    private String contentType;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long totalSize;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long partSize;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer partCount;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private UploadSessionStatus status = UploadSessionStatus.OPEN;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+
+    @NotNull
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private Instant updatedAt = Instant.now();
+
+    /**
+     * Returns the number of bytes the given part is expected to contain.
+     *
+     * @param partNumber the 1-based number of the part
+     * @return the expected size of the part in bytes
+     */
+    public long expectedPartSize(int partNumber) {
+        return Math.min(partSize, totalSize - partOffset(partNumber));
+    }
+
+    /**
+     * Returns the position of the given part within the complete file.
+     *
+     * @param partNumber the 1-based number of the part
+     * @return the byte offset of the first byte of the part
+     */
+    public long partOffset(int partNumber) {
+        return (partNumber - 1) * partSize;
+    }
+}
@@ -0,0 +1,12 @@
+package com.aleos.model;
+
+/**
+ * Represents the lifecycle states of a resumable upload session.
+ * A session is COMMITTING while its staging file is being stored; it returns to OPEN if that fails.
+ */
+public enum UploadSessionStatus {
+    OPEN,
+    COMMITTING,
+    COMMITTED,
+    ABORTED
+}
@@ -0,0 +1,10 @@
+package com.aleos.model;
+
+/**
+ * Represents the system-wide usage figures kept in the "usage_total" table.
+ */
+public enum UsageMetric {
+    FILES,
+    BYTES,
+    ACTIVE_USERS
+}
@@ -0,0 +1,22 @@
+package com.aleos.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Represents the time ranges the storage usage chart can display,
+ * together with the rollup resolution each range is read from.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum UsageRange {
+    DAY(Duration.ofDays(1), UsageResolution.HOURLY),
+    WEEK(Duration.ofDays(7), UsageResolution.HOURLY),
+    MONTH(Duration.ofDays(30), UsageResolution.DAILY),
+    YEAR(Duration.ofDays(365), UsageResolution.DAILY);
+
+    private final Duration duration;
+    private final UsageResolution resolution;
+}
@@ -0,0 +1,32 @@
+package com.aleos.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Represents the granularities at which the storage usage history is rolled up.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum UsageResolution {
+    HOURLY(ChronoUnit.HOURS),
+    DAILY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    public Duration getBucketSize() {
+        return unit.getDuration();
+    }
+
+    /**
+     * @param instant a point in time
+     * @return the start of the UTC bucket containing it
+     */
+    public Instant bucketOf(Instant instant) {
+        return instant.truncatedTo(unit);
+    }
+}
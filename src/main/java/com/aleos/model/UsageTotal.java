@@ -0,0 +1,39 @@
+package com.aleos.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Entity representing a system-wide usage figure.
+ * This entity is mapped to the "usage_total" table in the database.
+ *
+ * Fields:
+ * - metric (UsageMetric): The figure the row holds, used as the identifier.
+ * - amount (Long): The current value of the figure.
+ * - updatedAt (Instant): The timestamp of the last flush that changed the row.
+ */
+@Entity
+@Table(name = "usage_total")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class UsageTotal {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30)
+    private UsageMetric metric;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long amount;
+
+    @NotNull
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
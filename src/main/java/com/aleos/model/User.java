@@ -5,9 +5,13 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.proxy.HibernateProxy;
 
+import java.time.Instant;
 import java.util.Objects;
 
 /**
@@ -22,6 +26,11 @@ import java.util.Objects;
  * The equals and hashCode methods are overridden to ensure equality
  * based on the email field, which is marked as the natural ID of the entity.
  *
+ * Users are kept in the second-level cache, and so is the resolution of an email to a user id,
+ * because nearly every authenticated request reads the same few rows again. The natural ID is
+ * immutable, so the email-to-id mapping never goes stale; changes of other fields made through
+ * JPA replace the cached entry when their transaction commits.
+ *
  * Fields:
  * - id (Integer): The unique identifier for the user.
  * - firstname (String): The user's first name. Must be between 3 and 100 characters.
@@ -30,15 +39,22 @@ import java.util.Objects;
  * - password (String): The user's password.
  * - role (Role): The user's role within the system. Must not be null.
  * - active (Boolean): Indicates whether the user is active. Defaults to false.
+ * - createdAt (Instant): The timestamp when the user signed up.
  */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.NATURAL_ID_CACHE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
 
+    public static final String CACHE_REGION = "users";
+    public static final String NATURAL_ID_CACHE_REGION = "users-by-email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -71,6 +87,10 @@ public class User {
     @Column(nullable = false)
     private Boolean active = false;
 
+    @NotNull
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt = Instant.now();
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,45 @@
+package com.aleos.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Entity representing the storage usage of a single user.
+ * This entity is mapped to the "user_usage" table in the database.
+ *
+ * The row is not computed from the user's files on read; it is maintained incrementally
+ * by the usage counters and rebuilt from the files on startup.
+ *
+ * Fields:
+ * - userId (Integer): The id of the user, used as the identifier.
+ * - fileCount (Long): The number of files the user owns.
+ * - bytesUsed (Long): The total size of the user's files in bytes.
+ * - updatedAt (Instant): The timestamp of the last flush that changed the row.
+ */
+@Entity
+@Table(name = "user_usage")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class UserUsage {
+
+    @Id
+    private Integer userId;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long fileCount;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long bytesUsed;
+
+    @NotNull
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
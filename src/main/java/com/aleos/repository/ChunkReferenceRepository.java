@@ -0,0 +1,31 @@
+package com.aleos.repository;
+
+import com.aleos.storage.ChunkRef;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reference counting operations on chunks, executed as plain JDBC batches.
+ * Must be called within a transaction.
+ *
+ * Methods:
+ * - addReferences: Registers the chunks of a newly ingested file, inserting unknown chunks.
+ * - addReferencesOf: Adds one reference to every chunk position of an existing file.
+ * - releaseReferencesOf: Removes the references held by a file and returns the chunks left unreferenced,
+ *   whose rows are kept until they are deleted with deleteUnreferenced.
+ * - addUnreferenced: Inserts rows without references for chunks that have none yet, so they can be deleted.
+ * - deleteUnreferenced: Deletes the given chunks if they are still unreferenced and returns those deleted.
+ */
+public interface ChunkReferenceRepository {
+
+    void addReferences(List<ChunkRef> chunks);
+
+    void addReferencesOf(UUID fileId);
+
+    List<String> releaseReferencesOf(UUID fileId);
+
+    void addUnreferenced(List<ChunkRef> chunks);
+
+    List<String> deleteUnreferenced(List<String> hashes);
+}
@@ -0,0 +1,121 @@
+package com.aleos.repository;
+
+import com.aleos.storage.ChunkRef;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link ChunkReferenceRepository}.
+ * <p>
+ * Chunk rows are always locked in hash order, so concurrent uploads and deletions
+ * that share chunks cannot deadlock on each other.
+ */
+@RequiredArgsConstructor
+public class ChunkReferenceRepositoryImpl implements ChunkReferenceRepository {
+
+    private static final String UPSERT_REFERENCES = """
+            INSERT INTO chunk (hash, size, ref_count, created_at)
+            VALUES (?, ?, ?, now())
+            ON CONFLICT (hash) DO UPDATE SET ref_count = chunk.ref_count + EXCLUDED.ref_count
+            """;
+
+    private static final String LOCK_CHUNKS_OF_FILE = """
+            SELECT hash FROM chunk
+            WHERE hash IN (SELECT chunk_hash FROM file_chunk WHERE file_id = ?)
+            ORDER BY hash
+            FOR UPDATE
+            """;
+
+    private static final String ADD_REFERENCES_OF_FILE = """
+            UPDATE chunk c
+            SET ref_count = c.ref_count + f.refs
+            FROM (SELECT chunk_hash, count(*) AS refs FROM file_chunk WHERE file_id = ? GROUP BY chunk_hash) f
+            WHERE c.hash = f.chunk_hash
+            """;
+
+    private static final String RELEASE_REFERENCES_OF_FILE = """
+            UPDATE chunk c
+            SET ref_count = c.ref_count - f.refs
+            FROM (SELECT chunk_hash, count(*) AS refs FROM file_chunk WHERE file_id = ? GROUP BY chunk_hash) f
+            WHERE c.hash = f.chunk_hash
+            RETURNING c.hash, c.ref_count
+            """;
+
+    private static final String INSERT_UNREFERENCED = """
+            INSERT INTO chunk (hash, size, ref_count, created_at)
+            VALUES (?, ?, 0, now())
+            ON CONFLICT (hash) DO NOTHING
+            """;
+
+    private static final String DELETE_UNREFERENCED = "DELETE FROM chunk WHERE hash = ? AND ref_count = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addReferences(List<ChunkRef> chunks) {
+        Map<String, int[]> references = new TreeMap<>();
+        for (ChunkRef chunk : chunks) {
+            references.computeIfAbsent(chunk.hash(), hash -> new int[]{chunk.size(), 0})[1]++;
+        }
+
+        List<Object[]> batch = new ArrayList<>(references.size());
+        references.forEach((hash, sizeAndCount) -> batch.add(new Object[]{hash, sizeAndCount[0], sizeAndCount[1]}));
+        jdbcTemplate.batchUpdate(UPSERT_REFERENCES, batch);
+    }
+
+    @Override
+    public void addReferencesOf(UUID fileId) {
+        lockChunksOf(fileId);
+        jdbcTemplate.update(ADD_REFERENCES_OF_FILE, fileId);
+    }
+
+    @Override
+    public List<String> releaseReferencesOf(UUID fileId) {
+        lockChunksOf(fileId);
+        return jdbcTemplate.query(RELEASE_REFERENCES_OF_FILE,
+                        (rs, rowNum) -> rs.getLong("ref_count") == 0 ? rs.getString("hash") : null,
+                        fileId)
+                .stream()
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+    }
+
+    @Override
+    public void addUnreferenced(List<ChunkRef> chunks) {
+        Map<String, Integer> sizes = new TreeMap<>();
+        for (ChunkRef chunk : chunks) {
+            sizes.putIfAbsent(chunk.hash(), chunk.size());
+        }
+
+        List<Object[]> batch = new ArrayList<>(sizes.size());
+        sizes.forEach((hash, size) -> batch.add(new Object[]{hash, size}));
+        jdbcTemplate.batchUpdate(INSERT_UNREFERENCED, batch);
+    }
+
+    @Override
+    public List<String> deleteUnreferenced(List<String> hashes) {
+        int[] deleted = jdbcTemplate.batchUpdate(DELETE_UNREFERENCED, hashes.stream()
+                .map(hash -> new Object[]{hash})
+                .toList());
+
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < deleted.length; i++) {
+            if (deleted[i] > 0) {
+                result.add(hashes.get(i));
+            }
+        }
+        return result;
+    }
+
+    private void lockChunksOf(UUID fileId) {
+        jdbcTemplate.queryForList(LOCK_CHUNKS_OF_FILE, String.class, fileId);
+    }
+}
@@ -0,0 +1,12 @@
+package com.aleos.repository;
+
+import com.aleos.model.Chunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * ChunkRepository is an interface for managing Chunk entities in the database.
+ * It extends JpaRepository, providing standard CRUD operations for Chunk entities identified by their hash,
+ * and {@link ChunkReferenceRepository} for batched reference counting.
+ */
+public interface ChunkRepository extends JpaRepository<Chunk, String>, ChunkReferenceRepository {
+}
@@ -0,0 +1,26 @@
+package com.aleos.repository;
+
+import com.aleos.storage.ChunkRef;
+import com.aleos.storage.IngestedFile;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Batched inserts of file chunk positions, executed as plain JDBC.
+ * Must be called within a transaction.
+ *
+ * Methods:
+ * - insertChunks: Records the chunk list of a newly ingested file.
+ * - insertChunksOf: Records the chunk lists of many newly ingested files in a single batch.
+ * - copyChunks: Records for a new file the same chunk list as an existing one.
+ */
+public interface FileChunkBatchRepository {
+
+    void insertChunks(UUID fileId, List<ChunkRef> chunks);
+
+    void insertChunksOf(Collection<IngestedFile> files);
+
+    void copyChunks(UUID sourceFileId, UUID targetFileId);
+}
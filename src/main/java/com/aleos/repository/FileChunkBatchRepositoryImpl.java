@@ -0,0 +1,58 @@
+package com.aleos.repository;
+
+import com.aleos.storage.ChunkRef;
+import com.aleos.storage.IngestedFile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link FileChunkBatchRepository}.
+ */
+@RequiredArgsConstructor
+public class FileChunkBatchRepositoryImpl implements FileChunkBatchRepository {
+
+    private static final String INSERT_CHUNK = """
+            INSERT INTO file_chunk (file_id, seq, chunk_hash, chunk_offset, size)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String COPY_CHUNKS = """
+            INSERT INTO file_chunk (file_id, seq, chunk_hash, chunk_offset, size)
+            SELECT ?, seq, chunk_hash, chunk_offset, size FROM file_chunk WHERE file_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertChunks(UUID fileId, List<ChunkRef> chunks) {
+        List<Object[]> batch = new ArrayList<>(chunks.size());
+        addChunks(batch, fileId, chunks);
+        jdbcTemplate.batchUpdate(INSERT_CHUNK, batch);
+    }
+
+    @Override
+    public void insertChunksOf(Collection<IngestedFile> files) {
+        List<Object[]> batch = new ArrayList<>();
+        for (IngestedFile file : files) {
+            addChunks(batch, file.id(), file.content().chunks());
+        }
+        jdbcTemplate.batchUpdate(INSERT_CHUNK, batch);
+    }
+
+    @Override
+    public void copyChunks(UUID sourceFileId, UUID targetFileId) {
+        jdbcTemplate.update(COPY_CHUNKS, targetFileId, sourceFileId);
+    }
+
+    private static void addChunks(List<Object[]> batch, UUID fileId, List<ChunkRef> chunks) {
+        for (int seq = 0; seq < chunks.size(); seq++) {
+            ChunkRef chunk = chunks.get(seq);
+            batch.add(new Object[]{fileId, seq, chunk.hash(), chunk.offset(), chunk.size()});
+        }
+    }
+}
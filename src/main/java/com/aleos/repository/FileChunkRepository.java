@@ -0,0 +1,25 @@
+package com.aleos.repository;
+
+import com.aleos.model.FileChunk;
+import com.aleos.model.FileChunkId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * FileChunkRepository is an interface for managing FileChunk entities in the database.
+ * It extends JpaRepository, providing standard CRUD operations,
+ * and {@link FileChunkBatchRepository} for batched inserts.
+ *
+ * Methods:
+ * - findByFileIdOrderBySeq: Retrieves the chunks of a file in order.
+ * - findByFileIdInOrderByFileIdAscSeqAsc: Retrieves the chunks of several files, grouped by file and in order.
+ */
+public interface FileChunkRepository extends JpaRepository<FileChunk, FileChunkId>, FileChunkBatchRepository {
+
+    List<FileChunk> findByFileIdOrderBySeq(UUID fileId);
+
+    List<FileChunk> findByFileIdInOrderByFileIdAscSeqAsc(Collection<UUID> fileIds);
+}
@@ -0,0 +1,38 @@
+package com.aleos.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The position and totals of a folder as currently stored, read past the persistence context.
+ */
+public record FolderNode(
+        UUID id,
+        String path,
+        int depth,
+        long size,
+        long fileCount
+) {
+
+    /**
+     * @return the path prefix shared by all descendants of the folder
+     */
+    public String subtreePath() {
+        return path + id + "/";
+    }
+
+    /**
+     * @return the ids of the ancestors of the folder from the top down, followed by its own id
+     */
+    public List<UUID> lineage() {
+        List<UUID> lineage = new ArrayList<>(depth + 1);
+        for (String id : path.split("/")) {
+            if (!id.isEmpty()) {
+                lineage.add(UUID.fromString(id));
+            }
+        }
+        lineage.add(id);
+        return lineage;
+    }
+}
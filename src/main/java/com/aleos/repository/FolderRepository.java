@@ -0,0 +1,45 @@
+package com.aleos.repository;
+
+import com.aleos.model.Folder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * FolderRepository is an interface for managing Folder entities in the database.
+ * It extends JpaRepository, providing standard CRUD operations for Folder entities identified by a UUID,
+ * and {@link FolderTreeRepository} for the operations that move folders and maintain their totals.
+ *
+ * Methods:
+ * - findByIdAndOwnerId: Retrieves a folder by its id, provided it belongs to the given user.
+ * - findByOwnerIdAndParentIdOrderByName: Retrieves the child folders of a folder, or the top-level folders
+ *   of the user if the parent id is null.
+ * - findByOwnerIdAndParentIdAndName: Retrieves the folder of the given name under the given parent.
+ * - existsByOwnerIdAndParentIdAndName: Checks whether a folder of the given name exists under the given parent.
+ * - findSubtreePage: Retrieves up to limit descendants of a folder following the given position, in the
+ *   order of the path index. The first page starts after an empty path.
+ */
+public interface FolderRepository extends JpaRepository<Folder, UUID>, FolderTreeRepository {
+
+    Optional<Folder> findByIdAndOwnerId(UUID id, Integer ownerId);
+
+    List<Folder> findByOwnerIdAndParentIdOrderByName(Integer ownerId, UUID parentId);
+
+    Optional<Folder> findByOwnerIdAndParentIdAndName(Integer ownerId, UUID parentId, String name);
+
+    boolean existsByOwnerIdAndParentIdAndName(Integer ownerId, UUID parentId, String name);
+
+    @Query("""
+            SELECT new com.aleos.repository.FolderSummary(
+                f.id, f.parentId, f.name, f.depth, f.size, f.fileCount, f.createdAt)
+            FROM Folder f
+            WHERE f.path LIKE CONCAT(:subtreePath, '%')
+            AND (f.path, f.id) > (:afterPath, :afterId)
+            ORDER BY f.path, f.id
+            """)
+    List<FolderSummary> findSubtreePage(String subtreePath, String afterPath, UUID afterId, Limit limit);
+}
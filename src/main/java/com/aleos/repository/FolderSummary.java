@@ -0,0 +1,18 @@
+package com.aleos.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A projection of Folder holding the columns shown in folder listings, without the path.
+ */
+public record FolderSummary(
+        UUID id,
+        UUID parentId,
+        String name,
+        Integer depth,
+        Long size,
+        Long fileCount,
+        Instant createdAt
+) {
+}
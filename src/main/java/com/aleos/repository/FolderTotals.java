@@ -0,0 +1,17 @@
+package com.aleos.repository;
+
+/**
+ * An amount to add to the totals of a folder.
+ *
+ * @param size      the bytes to add to the size
+ * @param fileCount the number of files to add to the file count
+ */
+public record FolderTotals(long size, long fileCount) {
+
+    /**
+     * @return the sum of both amounts
+     */
+    public FolderTotals plus(FolderTotals other) {
+        return new FolderTotals(size + other.size, fileCount + other.fileCount);
+    }
+}
@@ -0,0 +1,41 @@
+package com.aleos.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Operations on the folder tree that touch many rows at once, executed as plain JDBC statements.
+ * Must be called within a transaction.
+ *
+ * Methods:
+ * - findNode: Reads the current path and totals of a folder of the given user.
+ * - lock: Locks the given folders together with the subtree under the given path.
+ * - addToTotals: Adds to the size and file count of the given folders, either the same amount to each
+ *   or a separate amount per folder.
+ * - findMaxDepth: Returns the depth of the deepest folder under the given path, if any.
+ * - move: Gives a folder a new parent and rewrites the paths and depths of its descendants.
+ * - deleteTree: Deletes a folder together with its subtree.
+ */
+public interface FolderTreeRepository {
+
+    Optional<FolderNode> findNode(UUID id, Integer ownerId);
+
+    void lock(List<UUID> folderIds, String subtreePath);
+
+    void addToTotals(List<UUID> folderIds, long bytes, long files);
+
+    void addToTotals(Map<UUID, FolderTotals> totals);
+
+    Optional<Integer> findMaxDepth(String subtreePath);
+
+    /**
+     * @param folder   the folder to move, as read under lock
+     * @param parentId the id of the new parent, or null to make it a top-level folder
+     * @param path     the new path of the folder
+     */
+    void move(FolderNode folder, UUID parentId, String path);
+
+    int deleteTree(FolderNode folder);
+}
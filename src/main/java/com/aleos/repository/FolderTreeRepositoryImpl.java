@@ -0,0 +1,105 @@
+package com.aleos.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC implementation of {@link FolderTreeRepository}.
+ * <p>
+ * Folder rows are always locked in id order: the totals of a folder and its ancestors are updated
+ * one row at a time sorted by id, and a move locks every row it will change in a single statement
+ * ordered by id, so uploads, deletions and moves in the same tree cannot deadlock on each other.
+ * Ids are sorted by their text form, which matches the byte order PostgreSQL sorts UUIDs in.
+ */
+@RequiredArgsConstructor
+public class FolderTreeRepositoryImpl implements FolderTreeRepository {
+
+    private static final String FIND_NODE = """
+            SELECT id, path, depth, size, file_count FROM folder WHERE id = ? AND owner_id = ?
+            """;
+
+    private static final String LOCK = """
+            SELECT count(*) FROM (
+                SELECT id FROM folder
+                WHERE id = ANY(?::uuid[]) OR path LIKE ? || '%'
+                ORDER BY id
+                FOR UPDATE
+            ) locked
+            """;
+
+    private static final String ADD_TO_TOTALS = """
+            UPDATE folder SET size = size + ?, file_count = file_count + ? WHERE id = ?
+            """;
+
+    private static final String FIND_MAX_DEPTH = "SELECT max(depth) FROM folder WHERE path LIKE ? || '%'";
+
+    private static final String MOVE_FOLDER = "UPDATE folder SET parent_id = ?, path = ?, depth = ? WHERE id = ?";
+
+    private static final String MOVE_DESCENDANTS = """
+            UPDATE folder SET path = ? || substr(path, ?), depth = depth + ?
+            WHERE path LIKE ? || '%'
+            """;
+
+    private static final String DELETE_TREE = "DELETE FROM folder WHERE id = ? OR path LIKE ? || '%'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<FolderNode> findNode(UUID id, Integer ownerId) {
+        return jdbcTemplate.query(FIND_NODE, (rs, rowNum) -> new FolderNode(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("path"),
+                        rs.getInt("depth"),
+                        rs.getLong("size"),
+                        rs.getLong("file_count")),
+                id, ownerId).stream().findFirst();
+    }
+
+    @Override
+    public void lock(List<UUID> folderIds, String subtreePath) {
+        String ids = folderIds.stream().map(UUID::toString).collect(Collectors.joining(",", "{", "}"));
+        jdbcTemplate.queryForObject(LOCK, Long.class, ids, subtreePath);
+    }
+
+    @Override
+    public void addToTotals(List<UUID> folderIds, long bytes, long files) {
+        jdbcTemplate.batchUpdate(ADD_TO_TOTALS, folderIds.stream()
+                .sorted(Comparator.comparing(UUID::toString))
+                .map(id -> new Object[]{bytes, files, id})
+                .toList());
+    }
+
+    @Override
+    public void addToTotals(Map<UUID, FolderTotals> totals) {
+        jdbcTemplate.batchUpdate(ADD_TO_TOTALS, totals.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(UUID::toString)))
+                .map(entry -> new Object[]{entry.getValue().size(), entry.getValue().fileCount(), entry.getKey()})
+                .toList());
+    }
+
+    @Override
+    public Optional<Integer> findMaxDepth(String subtreePath) {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(FIND_MAX_DEPTH, Integer.class, subtreePath));
+    }
+
+    @Override
+    public void move(FolderNode folder, UUID parentId, String path) {
+        int depth = (int) path.chars().filter(c -> c == '/').count() - 1;
+        String newSubtreePath = path + folder.id() + "/";
+        jdbcTemplate.update(MOVE_FOLDER, parentId, path, depth, folder.id());
+        jdbcTemplate.update(MOVE_DESCENDANTS,
+                newSubtreePath, folder.subtreePath().length() + 1, depth - folder.depth(), folder.subtreePath());
+    }
+
+    @Override
+    public int deleteTree(FolderNode folder) {
+        return jdbcTemplate.update(DELETE_TREE, folder.id(), folder.subtreePath());
+    }
+}
@@ -0,0 +1,28 @@
+package com.aleos.repository;
+
+import com.aleos.model.OutboxEmail;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Batched delivery bookkeeping of the email outbox, executed as plain JDBC.
+ * Must be called within a transaction.
+ *
+ * Methods:
+ * - claim: Leases up to the given number of due emails, skipping emails locked by other workers.
+ * - deleteAllById: Removes delivered emails, ignoring unknown ids.
+ * - retryAll: Records failed attempts and schedules the next ones.
+ * - failAll: Records failed attempts and stops retrying the emails.
+ */
+public interface OutboxEmailDeliveryRepository {
+
+    List<OutboxEmail> claim(int limit, Instant now, Instant leaseUntil);
+
+    void deleteAllById(Collection<Long> ids);
+
+    void retryAll(Collection<OutboxEmail> emails);
+
+    void failAll(Collection<OutboxEmail> emails);
+}
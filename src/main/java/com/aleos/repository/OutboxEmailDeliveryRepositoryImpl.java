@@ -0,0 +1,94 @@
+package com.aleos.repository;
+
+import com.aleos.model.OutboxEmail;
+import com.aleos.model.OutboxEmailStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link OutboxEmailDeliveryRepository}.
+ * <p>
+ * Claiming pushes the next attempt of the claimed emails past the lease and counts the attempt
+ * in the same statement, so the row locks are held only for that statement instead of for the
+ * whole SMTP exchange. Concurrent workers skip the locked rows instead of waiting for them, and
+ * emails of a worker that dies mid-batch become due again once their lease expires.
+ */
+@RequiredArgsConstructor
+public class OutboxEmailDeliveryRepositoryImpl implements OutboxEmailDeliveryRepository {
+
+    private static final String CLAIM = """
+            UPDATE email_outbox SET next_attempt_at = ?, attempts = attempts + 1
+            WHERE id IN (
+                SELECT id FROM email_outbox
+                WHERE status = 'PENDING' AND next_attempt_at <= ?
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id, recipient, sender, subject, body, attempts, created_at
+            """;
+
+    private static final String DELETE_EMAIL = "DELETE FROM email_outbox WHERE id = ?";
+
+    private static final String SETTLE_EMAIL = """
+            UPDATE email_outbox SET status = ?, next_attempt_at = ?, last_error = ?
+            WHERE id = ?
+            """;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final RowMapper<OutboxEmail> CLAIMED_EMAIL = (rs, rowNum) -> OutboxEmail.builder()
+            .id(rs.getLong("id"))
+            .recipient(rs.getString("recipient"))
+            .sender(rs.getString("sender"))
+            .subject(rs.getString("subject"))
+            .body(rs.getString("body"))
+            .attempts(rs.getInt("attempts"))
+            .createdAt(rs.getTimestamp("created_at").toInstant())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<OutboxEmail> claim(int limit, Instant now, Instant leaseUntil) {
+        return jdbcTemplate.query(CLAIM, CLAIMED_EMAIL, Timestamp.from(leaseUntil), Timestamp.from(now), limit);
+    }
+
+    @Override
+    public void deleteAllById(Collection<Long> ids) {
+        jdbcTemplate.batchUpdate(DELETE_EMAIL, ids.stream()
+                .map(id -> new Object[]{id})
+                .toList());
+    }
+
+    @Override
+    public void retryAll(Collection<OutboxEmail> emails) {
+        settle(emails, OutboxEmailStatus.PENDING);
+    }
+
+    @Override
+    public void failAll(Collection<OutboxEmail> emails) {
+        settle(emails, OutboxEmailStatus.FAILED);
+    }
+
+    private void settle(Collection<OutboxEmail> emails, OutboxEmailStatus status) {
+        jdbcTemplate.batchUpdate(SETTLE_EMAIL, emails.stream()
+                .map(email -> new Object[]{
+                        status.name(),
+                        Timestamp.from(email.getNextAttemptAt()),
+                        truncate(email.getLastError()),
+                        email.getId()
+                })
+                .toList());
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,12 @@
+package com.aleos.repository;
+
+import com.aleos.model.OutboxEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * OutboxEmailRepository is an interface for managing OutboxEmail entities in the database.
+ * It extends JpaRepository, providing standard CRUD operations for OutboxEmail entities identified by a Long,
+ * and {@link OutboxEmailDeliveryRepository} for claiming and settling emails in batches.
+ */
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long>, OutboxEmailDeliveryRepository {
+}
@@ -0,0 +1,21 @@
+package com.aleos.repository;
+
+import com.aleos.model.QuotaReservation;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Batched writes of quota reservations, executed as plain JDBC.
+ * Must be called within a transaction.
+ *
+ * Methods:
+ * - upsertAll: Inserts the given reservations or updates the amounts of existing ones.
+ * - deleteAllById: Removes the reservations with the given ids, ignoring unknown ids.
+ */
+public interface QuotaReservationBatchRepository {
+
+    void upsertAll(Collection<QuotaReservation> reservations);
+
+    void deleteAllById(Collection<UUID> ids);
+}
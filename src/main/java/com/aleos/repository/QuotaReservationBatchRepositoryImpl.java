@@ -0,0 +1,49 @@
+package com.aleos.repository;
+
+import com.aleos.model.QuotaReservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link QuotaReservationBatchRepository}.
+ * Reservations of users deleted in the meantime are skipped rather than failing the batch.
+ */
+@RequiredArgsConstructor
+public class QuotaReservationBatchRepositoryImpl implements QuotaReservationBatchRepository {
+
+    private static final String UPSERT_RESERVATION = """
+            INSERT INTO quota_reservation (id, user_id, bytes, files, created_at)
+            SELECT ?, id, ?, ?, ? FROM users WHERE id = ?
+            ON CONFLICT (id) DO UPDATE SET
+                bytes = EXCLUDED.bytes,
+                files = EXCLUDED.files
+            """;
+
+    private static final String DELETE_RESERVATION = "DELETE FROM quota_reservation WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsertAll(Collection<QuotaReservation> reservations) {
+        jdbcTemplate.batchUpdate(UPSERT_RESERVATION, reservations.stream()
+                .map(reservation -> new Object[]{
+                        reservation.getId(),
+                        reservation.getBytes(),
+                        reservation.getFiles(),
+                        Timestamp.from(reservation.getCreatedAt()),
+                        reservation.getUserId()
+                })
+                .toList());
+    }
+
+    @Override
+    public void deleteAllById(Collection<UUID> ids) {
+        jdbcTemplate.batchUpdate(DELETE_RESERVATION, ids.stream()
+                .map(id -> new Object[]{id})
+                .toList());
+    }
+}
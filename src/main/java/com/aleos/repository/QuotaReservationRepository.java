@@ -0,0 +1,31 @@
+package com.aleos.repository;
+
+import com.aleos.model.QuotaReservation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.UUID;
+
+/**
+ * QuotaReservationRepository is an interface for managing QuotaReservation entities in the database.
+ * It extends JpaRepository, providing standard CRUD operations for QuotaReservation entities identified by a UUID,
+ * and {@link QuotaReservationBatchRepository} for writing ledger changes in batches.
+ *
+ * Methods:
+ * - deleteWithoutOpenSession: Removes reservations whose upload session is neither open nor committing.
+ *   Declared to touch only the reservation table, so no cache region is evicted.
+ */
+public interface QuotaReservationRepository extends JpaRepository<QuotaReservation, UUID>, QuotaReservationBatchRepository {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "quota_reservation"))
+    @Query(value = """
+            DELETE FROM quota_reservation r
+            WHERE NOT EXISTS (SELECT 1 FROM upload_session s WHERE s.id = r.id AND s.status IN ('OPEN', 'COMMITTING'))
+            """, nativeQuery = true)
+    int deleteWithoutOpenSession();
+}
@@ -0,0 +1,18 @@
+package com.aleos.repository;
+
+import com.aleos.storage.IngestedFile;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Batched inserts of file metadata, executed as plain JDBC.
+ * Must be called within a transaction.
+ *
+ * Methods:
+ * - insertFiles: Records many newly ingested files of one user in a single batch.
+ */
+public interface StoredFileBatchRepository {
+
+    void insertFiles(Integer ownerId, Collection<IngestedFile> files, Instant createdAt);
+}
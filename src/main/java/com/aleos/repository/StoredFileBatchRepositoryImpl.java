@@ -0,0 +1,41 @@
+package com.aleos.repository;
+
+import com.aleos.storage.IngestedFile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * JDBC implementation of {@link StoredFileBatchRepository}.
+ * The ids are assigned by the caller, so the rows need no round trip to learn them.
+ */
+@RequiredArgsConstructor
+public class StoredFileBatchRepositoryImpl implements StoredFileBatchRepository {
+
+    private static final String INSERT_FILE = """
+            INSERT INTO stored_file (id, owner_id, folder_id, name, content_type, size, sha256, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertFiles(Integer ownerId, Collection<IngestedFile> files, Instant createdAt) {
+        Timestamp timestamp = Timestamp.from(createdAt);
+        jdbcTemplate.batchUpdate(INSERT_FILE, files.stream()
+                .map(file -> new Object[]{
+                        file.id(),
+                        ownerId,
+                        file.folderId(),
+                        file.name(),
+                        file.contentType(),
+                        file.content().size(),
+                        file.content().sha256(),
+                        timestamp
+                })
+                .toList());
+    }
+}
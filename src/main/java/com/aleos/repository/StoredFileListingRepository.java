@@ -0,0 +1,31 @@
+package com.aleos.repository;
+
+import com.aleos.model.FileSortField;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset pagination over the files of a user.
+ * <p>
+ * Instead of skipping rows with an offset, every page starts right after the sort key and
+ * id of the last row of the previous page, so fetching any page costs the same index range
+ * scan no matter how deep into the listing it is.
+ *
+ * Methods:
+ * - findPage: Retrieves up to limit files of the owner following the given position in the given order.
+ */
+public interface StoredFileListingRepository {
+
+    /**
+     * @param ownerId   the id of the user whose files are listed
+     * @param field     the attribute to sort by
+     * @param direction the sort direction, also applied to the id that breaks ties
+     * @param afterKey  the sort key of the last row of the previous page, or null for the first page
+     * @param afterId   the id of the last row of the previous page, or null for the first page
+     * @param limit     the maximum number of rows to return
+     */
+    List<StoredFileSummary> findPage(Integer ownerId, FileSortField field, Sort.Direction direction,
+                                     Object afterKey, UUID afterId, int limit);
+}
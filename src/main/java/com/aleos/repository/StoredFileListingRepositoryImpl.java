@@ -0,0 +1,53 @@
+package com.aleos.repository;
+
+import com.aleos.model.FileSortField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JPQL implementation of {@link StoredFileListingRepository}.
+ * <p>
+ * The position is compared as a row value, {@code (key, id) > (:key, :id)}, which PostgreSQL
+ * turns into a single index range condition on the matching covering index.
+ */
+public class StoredFileListingRepositoryImpl implements StoredFileListingRepository {
+
+    private static final String SELECT_SUMMARY = """
+            SELECT new com.aleos.repository.StoredFileSummary(f.id, f.name, f.contentType, f.size, f.createdAt)
+            FROM StoredFile f
+            WHERE f.owner.id = :ownerId
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<StoredFileSummary> findPage(Integer ownerId, FileSortField field, Sort.Direction direction,
+                                            Object afterKey, UUID afterId, int limit) {
+        String property = "f." + field.getProperty();
+        String order = direction.isAscending() ? "ASC" : "DESC";
+
+        StringBuilder jpql = new StringBuilder(SELECT_SUMMARY);
+        if (afterId != null) {
+            jpql.append("AND (").append(property).append(", f.id) ")
+                    .append(direction.isAscending() ? '>' : '<')
+                    .append(" (:afterKey, :afterId)\n");
+        }
+        jpql.append("ORDER BY ").append(property).append(' ').append(order).append(", f.id ").append(order);
+
+        TypedQuery<StoredFileSummary> query = entityManager.createQuery(jpql.toString(), StoredFileSummary.class)
+                .setParameter("ownerId", ownerId)
+                .setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterKey", afterKey)
+                    .setParameter("afterId", afterId);
+        }
+
+        return query.getResultList();
+    }
+}
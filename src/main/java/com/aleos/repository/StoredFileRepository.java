@@ -0,0 +1,67 @@
+package com.aleos.repository;
+
+import com.aleos.model.StoredFile;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * StoredFileRepository is an interface for managing StoredFile entities in the database.
+ * It extends JpaRepository, providing standard CRUD operations for StoredFile entities identified by a UUID,
+ * {@link StoredFileListingRepository} for keyset-paginated listings
+ * and {@link StoredFileBatchRepository} for batched inserts.
+ *
+ * Methods:
+ * - findByIdAndOwnerId: Retrieves a file by its id, provided it belongs to the given user.
+ * - findForUpdateByIdAndOwnerId: Retrieves a file of the given user and locks it, so the folder it is
+ *   counted in cannot change until the transaction ends.
+ * - findFirstBySha256AndSize: Retrieves any file with the given content, locking it against concurrent deletion.
+ * - findByOwnerIdAndIdInOrderByNameAscIdAsc: Retrieves those of the given files that belong to the given user, by name.
+ * - findFolderPage: Retrieves up to limit files of a folder following the given name and id, in the order of
+ *   the folder index. The first page starts after an empty name.
+ * - streamRecent: Streams the most recently uploaded files of a user, newest first, from the created_at
+ *   listing index; the stream must be consumed and closed within a transaction.
+ */
+public interface StoredFileRepository extends JpaRepository<StoredFile, UUID>, StoredFileListingRepository,
+        StoredFileBatchRepository {
+
+    Optional<StoredFile> findByIdAndOwnerId(UUID id, Integer ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<StoredFile> findForUpdateByIdAndOwnerId(UUID id, Integer ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<StoredFile> findFirstBySha256AndSize(String sha256, Long size);
+
+    List<StoredFile> findByOwnerIdAndIdInOrderByNameAscIdAsc(Integer ownerId, Collection<UUID> ids);
+
+    @Query("""
+            SELECT f
+            FROM StoredFile f
+            WHERE f.owner.id = :ownerId
+            AND f.folderId = :folderId
+            AND (f.name, f.id) > (:afterName, :afterId)
+            ORDER BY f.name, f.id
+            """)
+    List<StoredFile> findFolderPage(Integer ownerId, UUID folderId, String afterName, UUID afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query("""
+            SELECT new com.aleos.repository.StoredFileSummary(f.id, f.name, f.contentType, f.size, f.createdAt)
+            FROM StoredFile f
+            WHERE f.owner.id = :ownerId
+            ORDER BY f.createdAt DESC, f.id DESC
+            """)
+    Stream<StoredFileSummary> streamRecent(Integer ownerId, Limit limit);
+}
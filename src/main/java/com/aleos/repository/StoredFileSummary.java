@@ -0,0 +1,17 @@
+package com.aleos.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A projection of StoredFile holding only the columns shown in file listings,
+ * all of which are covered by the listing indexes.
+ */
+public record StoredFileSummary(
+        UUID id,
+        String name,
+        String contentType,
+        Long size,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,25 @@
+package com.aleos.repository;
+
+import com.aleos.model.UploadPart;
+import com.aleos.model.UploadPartId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * UploadPartRepository is an interface for managing UploadPart entities in the database.
+ * It extends JpaRepository, providing standard CRUD operations.
+ *
+ * Methods:
+ * - findPartNumbersBySessionId: Retrieves the numbers of all received parts of a session in ascending order.
+ * - countBySessionId: Counts the received parts of a session.
+ */
+public interface UploadPartRepository extends JpaRepository<UploadPart, UploadPartId> {
+
+    @Query("select p.partNumber from UploadPart p where p.sessionId = :sessionId order by p.partNumber")
+    List<Integer> findPartNumbersBySessionId(UUID sessionId);
+
+    long countBySessionId(UUID sessionId);
+}
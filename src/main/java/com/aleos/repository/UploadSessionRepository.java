@@ -0,0 +1,72 @@
+package com.aleos.repository;
+
+import com.aleos.model.UploadSession;
+import com.aleos.model.UploadSessionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * UploadSessionRepository is an interface for managing UploadSession entities in the database.
+ * It extends JpaRepository, providing standard CRUD operations.
+ *
+ * Methods:
+ * - findByIdAndOwnerId: Retrieves a session by its id, provided it belongs to the given user.
+ * - transition: Moves a session from one state to another, provided it is still in the first one,
+ *   and returns whether it did. Runs in a transaction of its own unless called within one.
+ * - lockIdleBatch: Locks up to the given number of open or committing sessions without a state change
+ *   or a received part since the given time, skipping sessions locked by another transaction, and
+ *   returns their ids.
+ * - abortAll: Marks those of the given sessions as aborted that are still open or committing.
+ * - findClosedIds: Retrieves those of the given sessions that are neither open nor committing.
+ */
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    Optional<UploadSession> findByIdAndOwnerId(UUID id, Integer ownerId);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE UploadSession s
+            SET s.status = :to, s.updatedAt = :now
+            WHERE s.id = :id AND s.status = :from
+            """)
+    int transition(UUID id, UploadSessionStatus from, UploadSessionStatus to, Instant now);
+
+    @Query(value = """
+            SELECT s.id FROM upload_session s
+            WHERE s.status IN ('OPEN', 'COMMITTING')
+              AND s.updated_at < :cutoff
+              AND NOT EXISTS (
+                  SELECT 1 FROM upload_part p
+                  WHERE p.session_id = s.id AND p.created_at >= :cutoff
+              )
+            ORDER BY s.updated_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<UUID> lockIdleBatch(Instant cutoff, int limit);
+
+    @Modifying
+    @Query("""
+            UPDATE UploadSession s
+            SET s.status = com.aleos.model.UploadSessionStatus.ABORTED, s.updatedAt = :now
+            WHERE s.id IN :ids
+              AND s.status IN (com.aleos.model.UploadSessionStatus.OPEN, com.aleos.model.UploadSessionStatus.COMMITTING)
+            """)
+    int abortAll(Collection<UUID> ids, Instant now);
+
+    @Query("""
+            SELECT s.id FROM UploadSession s
+            WHERE s.id IN :ids
+              AND s.status NOT IN (com.aleos.model.UploadSessionStatus.OPEN, com.aleos.model.UploadSessionStatus.COMMITTING)
+            """)
+    List<UUID> findClosedIds(Collection<UUID> ids);
+}
@@ -0,0 +1,24 @@
+package com.aleos.repository;
+
+import com.aleos.model.UsageMetric;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched updates of the usage counter tables, executed as plain JDBC.
+ * Must be called within a transaction.
+ *
+ * Methods:
+ * - addUserUsage: Adds the given changes to the usage rows of their users, creating missing rows.
+ * - addTotals: Adds the given changes to the system-wide usage figures.
+ * - reconcile: Recomputes every counter from the files and users tables.
+ */
+public interface UsageCounterBatchRepository {
+
+    void addUserUsage(List<UsageDelta> deltas);
+
+    void addTotals(Map<UsageMetric, Long> deltas);
+
+    void reconcile();
+}
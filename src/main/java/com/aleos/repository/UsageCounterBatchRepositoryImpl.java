@@ -0,0 +1,79 @@
+package com.aleos.repository;
+
+import com.aleos.model.UsageMetric;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of {@link UsageCounterBatchRepository}.
+ * <p>
+ * User rows are written in user id order so concurrent flushes lock them in the same order.
+ * Changes for users deleted since they were recorded are skipped rather than failing the batch.
+ */
+@RequiredArgsConstructor
+public class UsageCounterBatchRepositoryImpl implements UsageCounterBatchRepository {
+
+    private static final String UPSERT_USER_USAGE = """
+            INSERT INTO user_usage (user_id, file_count, bytes_used, updated_at)
+            SELECT id, ?, ?, now() FROM users WHERE id = ?
+            ON CONFLICT (user_id) DO UPDATE SET
+                file_count = user_usage.file_count + EXCLUDED.file_count,
+                bytes_used = user_usage.bytes_used + EXCLUDED.bytes_used,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String UPSERT_TOTAL = """
+            INSERT INTO usage_total (metric, amount, updated_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (metric) DO UPDATE SET
+                amount = usage_total.amount + EXCLUDED.amount,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String RECONCILE_USER_USAGE = """
+            INSERT INTO user_usage (user_id, file_count, bytes_used, updated_at)
+            SELECT u.id, count(f.id), coalesce(sum(f.size), 0), now()
+            FROM users u LEFT JOIN stored_file f ON f.owner_id = u.id
+            GROUP BY u.id
+            ON CONFLICT (user_id) DO UPDATE SET
+                file_count = EXCLUDED.file_count,
+                bytes_used = EXCLUDED.bytes_used,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String RECONCILE_TOTALS = """
+            INSERT INTO usage_total (metric, amount, updated_at)
+            VALUES ('FILES', (SELECT count(*) FROM stored_file), now()),
+                   ('BYTES', (SELECT coalesce(sum(size), 0) FROM stored_file), now()),
+                   ('ACTIVE_USERS', (SELECT count(*) FROM users WHERE active), now())
+            ON CONFLICT (metric) DO UPDATE SET
+                amount = EXCLUDED.amount,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addUserUsage(List<UsageDelta> deltas) {
+        jdbcTemplate.batchUpdate(UPSERT_USER_USAGE, deltas.stream()
+                .sorted((a, b) -> Integer.compare(a.userId(), b.userId()))
+                .map(delta -> new Object[]{delta.files(), delta.bytes(), delta.userId()})
+                .toList());
+    }
+
+    @Override
+    public void addTotals(Map<UsageMetric, Long> deltas) {
+        jdbcTemplate.batchUpdate(UPSERT_TOTAL, deltas.entrySet().stream()
+                .map(delta -> new Object[]{delta.getKey().name(), delta.getValue()})
+                .toList());
+    }
+
+    @Override
+    public void reconcile() {
+        jdbcTemplate.update(RECONCILE_USER_USAGE);
+        jdbcTemplate.update(RECONCILE_TOTALS);
+    }
+}
@@ -0,0 +1,11 @@
+package com.aleos.repository;
+
+/**
+ * A change of the usage of a single user accumulated since the last flush.
+ */
+public record UsageDelta(
+        Integer userId,
+        long files,
+        long bytes
+) {
+}
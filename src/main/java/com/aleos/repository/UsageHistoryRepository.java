@@ -0,0 +1,29 @@
+package com.aleos.repository;
+
+import com.aleos.model.UsageResolution;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Hourly and daily rollups of the storage usage of every user, executed as plain JDBC.
+ * The write methods must be called within a transaction.
+ *
+ * Methods:
+ * - recordLevels: Copies the current usage of the given users into the buckets containing the given instant.
+ * - findLevels: Retrieves the rollup rows of a user within a time range, in bucket order.
+ * - findLevelBefore: Retrieves the newest rollup row of a user that starts before the given instant.
+ * - deleteLevelsBefore: Removes rollup rows older than the given instant and returns their number.
+ */
+public interface UsageHistoryRepository {
+
+    void recordLevels(Collection<Integer> userIds, Instant at);
+
+    List<UsageLevel> findLevels(UsageResolution resolution, Integer userId, Instant from, Instant to);
+
+    Optional<UsageLevel> findLevelBefore(UsageResolution resolution, Integer userId, Instant before);
+
+    int deleteLevelsBefore(UsageResolution resolution, Instant before);
+}
@@ -0,0 +1,90 @@
+package com.aleos.repository;
+
+import com.aleos.model.UsageResolution;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC implementation of {@link UsageHistoryRepository}.
+ * <p>
+ * Each rollup row holds a level, not a delta, so writing a bucket is an idempotent upsert
+ * and a chart point is read from a single row instead of summing up history.
+ */
+@RequiredArgsConstructor
+public class UsageHistoryRepositoryImpl implements UsageHistoryRepository {
+
+    private static final String UPSERT_LEVEL = """
+            INSERT INTO %s (user_id, bucket_start, file_count, bytes_used)
+            SELECT user_id, ?, file_count, bytes_used FROM user_usage WHERE user_id = ?
+            ON CONFLICT (user_id, bucket_start) DO UPDATE SET
+                file_count = EXCLUDED.file_count,
+                bytes_used = EXCLUDED.bytes_used
+            """;
+
+    private static final String SELECT_LEVELS = """
+            SELECT bucket_start, file_count, bytes_used FROM %s
+            WHERE user_id = ? AND bucket_start >= ? AND bucket_start < ?
+            ORDER BY bucket_start
+            """;
+
+    private static final String SELECT_LEVEL_BEFORE = """
+            SELECT bucket_start, file_count, bytes_used FROM %s
+            WHERE user_id = ? AND bucket_start < ?
+            ORDER BY bucket_start DESC
+            LIMIT 1
+            """;
+
+    private static final String DELETE_LEVELS_BEFORE = "DELETE FROM %s WHERE bucket_start < ?";
+
+    private static final RowMapper<UsageLevel> USAGE_LEVEL_MAPPER = (rs, rowNum) -> new UsageLevel(
+            rs.getTimestamp("bucket_start").toInstant(),
+            rs.getLong("file_count"),
+            rs.getLong("bytes_used")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void recordLevels(Collection<Integer> userIds, Instant at) {
+        for (UsageResolution resolution : UsageResolution.values()) {
+            Timestamp bucket = Timestamp.from(resolution.bucketOf(at));
+            jdbcTemplate.batchUpdate(UPSERT_LEVEL.formatted(table(resolution)), userIds.stream()
+                    .sorted()
+                    .map(userId -> new Object[]{bucket, userId})
+                    .toList());
+        }
+    }
+
+    @Override
+    public List<UsageLevel> findLevels(UsageResolution resolution, Integer userId, Instant from, Instant to) {
+        return jdbcTemplate.query(SELECT_LEVELS.formatted(table(resolution)), USAGE_LEVEL_MAPPER,
+                userId, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    @Override
+    public Optional<UsageLevel> findLevelBefore(UsageResolution resolution, Integer userId, Instant before) {
+        return jdbcTemplate.query(SELECT_LEVEL_BEFORE.formatted(table(resolution)), USAGE_LEVEL_MAPPER,
+                        userId, Timestamp.from(before))
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public int deleteLevelsBefore(UsageResolution resolution, Instant before) {
+        return jdbcTemplate.update(DELETE_LEVELS_BEFORE.formatted(table(resolution)), Timestamp.from(before));
+    }
+
+    private static String table(UsageResolution resolution) {
+        return switch (resolution) {
+            case HOURLY -> "usage_hourly";
+            case DAILY -> "usage_daily";
+        };
+    }
+}
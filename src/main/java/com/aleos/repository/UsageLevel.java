@@ -0,0 +1,13 @@
+package com.aleos.repository;
+
+import java.time.Instant;
+
+/**
+ * The storage usage of a user as of the last change within a rollup bucket.
+ */
+public record UsageLevel(
+        Instant bucketStart,
+        long fileCount,
+        long bytesUsed
+) {
+}
@@ -0,0 +1,12 @@
+package com.aleos.repository;
+
+import com.aleos.model.UsageMetric;
+import com.aleos.model.UsageTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * UsageTotalRepository is an interface for managing UsageTotal entities in the database.
+ * It extends JpaRepository, providing standard CRUD operations for UsageTotal entities identified by their metric.
+ */
+public interface UsageTotalRepository extends JpaRepository<UsageTotal, UsageMetric> {
+}
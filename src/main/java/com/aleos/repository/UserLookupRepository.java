@@ -0,0 +1,22 @@
+package com.aleos.repository;
+
+import com.aleos.model.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Lookups of users by their natural ID, served from the second-level cache when possible.
+ *
+ * Methods:
+ * - findByEmail: Retrieves a user by their email address.
+ * - findCurrentByEmail: Retrieves a user by their email address as currently stored, bypassing the
+ *   cached entity, which may be stale when another node changed the user, and refreshing it.
+ */
+public interface UserLookupRepository {
+
+    Optional<User> findByEmail(String email);
+
+    @Transactional(readOnly = true)
+    Optional<User> findCurrentByEmail(String email);
+}
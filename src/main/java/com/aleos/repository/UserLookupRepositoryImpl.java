@@ -0,0 +1,44 @@
+package com.aleos.repository;
+
+import com.aleos.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+/**
+ * Hibernate implementation of {@link UserLookupRepository}.
+ * <p>
+ * A derived query would always run SQL, since query results are not cached. Loading by natural ID
+ * first resolves the email to an id through the natural-id cache and then the entity through the
+ * entity cache, so a repeated lookup does not touch the database at all.
+ * <p>
+ * The cache is local to each node. A current lookup skips reading it, loads the user from the
+ * database and puts the fresh state into the local cache.
+ */
+public class UserLookupRepositoryImpl implements UserLookupRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+
+    @Override
+    public Optional<User> findCurrentByEmail(String email) {
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.REFRESH);
+        try {
+            return session.bySimpleNaturalId(User.class).loadOptional(email);
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+    }
+}
@@ -1,18 +1,55 @@
 package com.aleos.repository;
 
 import com.aleos.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.stream.Stream;
 
 /**
  * UserRepository is an interface for managing User entities in the database.
- * It extends JpaRepository, providing standard CRUD operations.
+ * It extends JpaRepository, providing standard CRUD operations,
+ * and {@link UserLookupRepository} for cached lookups by email address.
+ *
+ * The native bulk delete declares the tables it touches; without that, Hibernate would clear
+ * the entire second-level cache after every batch instead of only the user regions.
  *
  * Methods:
- * - findByEmail: Retrieves a user by their email address.
+ * - streamAllEmails: Streams the emails of all users, fetched from the database in large
+ *   batches; the stream must be consumed and closed within a transaction.
+ * - deleteAbandonedBatch: Removes up to the given number of never activated users who signed up
+ *   before the given time and have no stored verification token created since, together with
+ *   their tokens.
  */
-public interface UserRepository extends JpaRepository<User, Integer> {
+public interface UserRepository extends JpaRepository<User, Integer>, UserLookupRepository {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
 
-    Optional<User> findByEmail(String email);
+    @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "verification_token")
+    })
+    @Query(value = """
+            DELETE FROM users
+            WHERE id IN (
+                SELECT u.id FROM users u
+                WHERE NOT u.active
+                  AND u.created_at < :cutoff
+                  AND NOT EXISTS (
+                      SELECT 1 FROM verification_token n
+                      WHERE n.user_id = u.id AND n.created_at >= :cutoff
+                  )
+                ORDER BY u.created_at
+                LIMIT :limit
+            )
+            """, nativeQuery = true)
+    int deleteAbandonedBatch(Instant cutoff, int limit);
 }
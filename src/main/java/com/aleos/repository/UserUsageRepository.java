@@ -0,0 +1,14 @@
+package com.aleos.repository;
+
+import com.aleos.model.UserUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * UserUsageRepository is an interface for managing UserUsage entities in the database.
+ * It extends JpaRepository, providing standard CRUD operations for UserUsage entities identified by the user id,
+ * {@link UsageCounterBatchRepository} for applying accumulated counter changes
+ * and {@link UsageHistoryRepository} for the hourly and daily usage rollups.
+ */
+public interface UserUsageRepository extends JpaRepository<UserUsage, Integer>,
+        UsageCounterBatchRepository, UsageHistoryRepository {
+}
@@ -1,8 +1,15 @@
 package com.aleos.repository;
 
 import com.aleos.model.VerificationToken;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -10,7 +17,26 @@ import java.util.UUID;
  * It extends JpaRepository, providing standard CRUD operations for VerificationToken entities identified by a UUID.
  *
  * Methods:
- * - Extends all standard JpaRepository methods including save, findById, findAll, and delete.
+ * - findByIdAndCreatedAtAfter: Retrieves a token by its id if it was created after the given time.
+ * - deleteExpiredBatch: Removes up to the given number of tokens created before the given time
+ *   whose user has been activated. Tokens of inactive users are removed together with the user.
+ *   Its query space is limited to the token table so it leaves the cached users alone.
  */
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, UUID> {
+
+    Optional<VerificationToken> findByIdAndCreatedAtAfter(UUID id, Instant createdAfter);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "verification_token"))
+    @Query(value = """
+            DELETE FROM verification_token
+            WHERE id IN (
+                SELECT t.id FROM verification_token t
+                WHERE t.created_at < :cutoff
+                  AND EXISTS (SELECT 1 FROM users u WHERE u.id = t.user_id AND u.active)
+                ORDER BY t.created_at
+                LIMIT :limit
+            )
+            """, nativeQuery = true)
+    int deleteExpiredBatch(Instant cutoff, int limit);
 }
@@ -0,0 +1,92 @@
+package com.aleos.service;
+
+import com.aleos.repository.UserRepository;
+import com.aleos.repository.VerificationTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.function.IntSupplier;
+
+/**
+ * Service removing registration leftovers that can never be used again.
+ * <p>
+ * Verification tokens expire after the token lifetime, and an account that has not been
+ * activated by then can only be activated with a new token. The purge removes the expired
+ * tokens of activated users and, once a grace period has passed as well, the accounts that
+ * were never activated together with their tokens, so sign-up waves that are never confirmed
+ * do not keep growing the users table and its email index.
+ * <p>
+ * Once accounts have been deleted, the email filter is rebuilt so their emails stop costing a lookup.
+ * <p>
+ * Rows are deleted in bounded batches, each in a transaction of its own, so the purge never
+ * holds many locks or a long transaction that would keep vacuum from reclaiming dead rows.
+ * <p>
+ * Dependencies:
+ * - UserRepository: Deletes abandoned accounts.
+ * - VerificationTokenRepository: Deletes expired tokens.
+ * - PlatformTransactionManager: Runs every batch in its own transaction.
+ * - EmailAvailabilityService: Rebuilds the email filter after accounts were deleted.
+ */
+@Service
+@Slf4j
+public class AccountPurgeService {
+
+    private final UserRepository userRepository;
+    private final VerificationTokenRepository verificationTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailAvailabilityService emailAvailabilityService;
+
+    @Value("${registration.token.live.time}")
+    private long tokenLiveTime;
+
+    @Value("${registration.purge.account-grace-period}")
+    private long accountGracePeriod;
+
+    @Value("${registration.purge.batch-size}")
+    private int batchSize;
+
+    public AccountPurgeService(UserRepository userRepository,
+                               VerificationTokenRepository verificationTokenRepository,
+                               PlatformTransactionManager transactionManager,
+                               EmailAvailabilityService emailAvailabilityService) {
+        this.userRepository = userRepository;
+        this.verificationTokenRepository = verificationTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.emailAvailabilityService = emailAvailabilityService;
+    }
+
+    /**
+     * Deletes abandoned accounts and expired tokens, batch by batch, until none are left.
+     */
+    @Scheduled(cron = "${registration.purge.cron}")
+    public void purge() {
+        Instant now = Instant.now();
+        Instant tokenCutoff = now.minusSeconds(tokenLiveTime);
+        Instant accountCutoff = tokenCutoff.minusSeconds(accountGracePeriod);
+
+        long accounts = deleteInBatches(() -> userRepository.deleteAbandonedBatch(accountCutoff, batchSize));
+        long tokens = deleteInBatches(() -> verificationTokenRepository.deleteExpiredBatch(tokenCutoff, batchSize));
+
+        if (accounts > 0 || tokens > 0) {
+            log.info("Purged {} abandoned accounts and {} expired verification tokens", accounts, tokens);
+        }
+        if (accounts > 0) {
+            emailAvailabilityService.rebuild();
+        }
+    }
+
+    private long deleteInBatches(IntSupplier batch) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> batch.getAsInt());
+            total += deleted;
+        } while (deleted > 0);
+        return total;
+    }
+}
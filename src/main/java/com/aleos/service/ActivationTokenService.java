@@ -0,0 +1,91 @@
+package com.aleos.service;
+
+import com.aleos.model.User;
+import com.aleos.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Service issuing and verifying signed account activation tokens, which need no table.
+ * <p>
+ * A token reads {@code <key id>.<user id>.<issue time>.<signature>}. The signature is an
+ * HMAC-SHA256 over the other parts and over the email, password hash and activation flag of
+ * the account. Since activating flips the flag, a token stops verifying once it has been used,
+ * and so it does after any change of the email or password.
+ * <p>
+ * The keys form a {@link SigningKeyRing}, so a key is rotated by putting a new key in front and
+ * dropping the old one once its tokens have expired.
+ * <p>
+ * Dependencies:
+ * - UserRepository: Loads the account a token was issued for.
+ */
+@Service
+public class ActivationTokenService {
+
+    private static final long CLOCK_SKEW_SECONDS = 60;
+    private static final Pattern TOKEN = Pattern.compile(
+            "(" + SigningKeyRing.KEY_ID.pattern() + ")\\.(\\d{1,9})\\.(\\d{1,12})\\.(" + SigningKeyRing.SIGNATURE.pattern() + ")");
+
+    private final UserRepository userRepository;
+    private final SigningKeyRing keyRing;
+
+    @Value("${registration.token.live.time}")
+    private long tokenLiveTime;
+
+    public ActivationTokenService(UserRepository userRepository,
+                                  @Value("${registration.token.signing-keys}") String[] signingKeys) {
+        this.userRepository = userRepository;
+        this.keyRing = new SigningKeyRing(signingKeys);
+    }
+
+    /**
+     * @return true if a key to sign new tokens is configured
+     */
+    public boolean canIssue() {
+        return keyRing.canSign();
+    }
+
+    /**
+     * Issues an activation token for the given account.
+     *
+     * @param user the account to activate
+     * @return the token
+     * @throws IllegalStateException if no signing key is configured
+     */
+    public String issue(User user) {
+        String claims = keyRing.signingKeyId() + "." + user.getId() + "." + Instant.now().getEpochSecond();
+        return claims + "." + keyRing.sign(signedData(claims, user));
+    }
+
+    /**
+     * Resolves the account a token was issued for, provided the token is genuine, has not expired
+     * and the account has not changed since.
+     *
+     * @param token the token from the activation link
+     * @return the account, or empty if the token is not valid
+     */
+    public Optional<User> verify(String token) {
+        Matcher matcher = TOKEN.matcher(token);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        long issuedAt = Long.parseLong(matcher.group(3));
+        long now = Instant.now().getEpochSecond();
+        if (issuedAt > now + CLOCK_SKEW_SECONDS || now - issuedAt > tokenLiveTime) {
+            return Optional.empty();
+        }
+
+        String claims = token.substring(0, matcher.start(4) - 1);
+        return userRepository.findById(Integer.valueOf(matcher.group(2)))
+                .filter(user -> keyRing.verify(matcher.group(1), signedData(claims, user), matcher.group(4)));
+    }
+
+    private static String signedData(String claims, User user) {
+        return claims + '\0' + user.getEmail() + '\0' + user.getPassword() + '\0' + user.getActive();
+    }
+}
@@ -0,0 +1,338 @@
+package com.aleos.service;
+
+import com.aleos.dto.ArchiveImportDto;
+import com.aleos.exception.ArchiveException;
+import com.aleos.exception.FileStorageException;
+import com.aleos.exception.FolderConflictException;
+import com.aleos.exception.QuotaExceededException;
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.model.Folder;
+import com.aleos.storage.ArchiveReader;
+import com.aleos.storage.ChunkRef;
+import com.aleos.storage.ChunkStore;
+import com.aleos.storage.IngestedContent;
+import com.aleos.storage.IngestedFile;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service extracting an uploaded ZIP or TAR archive into the folder tree of a user while the
+ * upload is still streaming in.
+ * <p>
+ * The request thread reads the archive entry by entry, creates the folders along the way and
+ * reads every small entry into memory. Chunking, hashing and writing its content then happen on
+ * a fixed pool of ingest workers, so several entries are processed while the next ones arrive.
+ * Entries larger than the inline limit are streamed into the chunk store by the request thread
+ * itself. The pool queue is bounded, and a full queue makes the request thread ingest the entry
+ * itself, which keeps the memory held by pending entries bounded.
+ * <p>
+ * The files are registered in batches, each with one transaction and one JDBC batch per table.
+ * While a batch is being registered, the workers go on with the entries behind it. Every entry
+ * reserves its quota as its content is read. If the extraction fails, the batches registered so
+ * far are kept and the reservations of the rest are released. Entries whose ingest has not started
+ * are dropped, and the chunks written for the others are discarded unless another file uses them,
+ * as are the chunks of an entry whose ingest fails partway.
+ * <p>
+ * Dependencies:
+ * - ChunkStore: Stores the deduplicated file content on disk.
+ * - FileCatalogService: Registers the files in batches.
+ * - FolderService: Creates the folders of the archive and checks the target folder.
+ * - QuotaLedger: Enforces the storage quota of the owner.
+ * - ChunkReclaimService: Discards the chunks of entries that were not registered.
+ */
+@Service
+@Slf4j
+public class ArchiveImportService {
+
+    private final ChunkStore chunkStore;
+    private final FileCatalogService fileCatalogService;
+    private final FolderService folderService;
+    private final QuotaLedger quotaLedger;
+    private final ChunkReclaimService chunkReclaimService;
+    private final ThreadPoolExecutor ingestPool;
+    private final int inlineLimit;
+    private final int batchSize;
+
+    public ArchiveImportService(ChunkStore chunkStore,
+                                FileCatalogService fileCatalogService,
+                                FolderService folderService,
+                                QuotaLedger quotaLedger,
+                                ChunkReclaimService chunkReclaimService,
+                                @Value("${archive.import.workers}") int workers,
+                                @Value("${archive.import.queue-capacity}") int queueCapacity,
+                                @Value("${archive.import.inline-limit}") int inlineLimit,
+                                @Value("${archive.import.batch-size}") int batchSize) {
+        this.chunkStore = chunkStore;
+        this.fileCatalogService = fileCatalogService;
+        this.folderService = folderService;
+        this.quotaLedger = quotaLedger;
+        this.chunkReclaimService = chunkReclaimService;
+        this.inlineLimit = inlineLimit;
+        this.batchSize = batchSize;
+
+        // Ingesting is CPU-bound hashing, so the workers are platform threads, one per core by default
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.ingestPool = new ThreadPoolExecutor(
+                threads, threads,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("ingest-"),
+                (task, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Ingest pool is shut down");
+                    }
+                    task.run();
+                }
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ingestPool.shutdownNow();
+    }
+
+    /**
+     * Extracts an archive into a folder of the given user, recreating the directories of the
+     * archive as folders. Folders that exist already are reused.
+     *
+     * @param ownerId  the id of the user uploading the archive
+     * @param folderId the id of the folder to extract into, or null for the top level
+     * @param content  the ZIP or TAR archive, optionally gzip-compressed
+     * @return the number of folders created and of files extracted
+     * @throws ArchiveException          if the archive cannot be read or holds an unacceptable entry
+     * @throws FileStorageException      if the content cannot be written
+     * @throws QuotaExceededException    if the files do not fit the quota of the owner
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     * @throws FolderConflictException   if the folders of the archive would be nested too deep
+     */
+    public ArchiveImportDto extract(Integer ownerId, UUID folderId, InputStream content) {
+        if (folderId != null) {
+            // Fail before the first byte of the archive is read
+            folderService.find(ownerId, folderId);
+        }
+
+        Extraction extraction = new Extraction(ownerId, folderId);
+        try (ArchiveReader reader = ArchiveReader.open(content)) {
+            Optional<ArchiveReader.Entry> entry;
+            while ((entry = reader.next()).isPresent()) {
+                extraction.add(entry.get(), reader);
+            }
+            extraction.flush(extraction.pending.size());
+        } catch (IOException e) {
+            extraction.abort();
+            throw new ArchiveException("Failed to read archive: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            extraction.abort();
+            throw e;
+        }
+        return new ArchiveImportDto(extraction.folders, extraction.files, extraction.size);
+    }
+
+    /**
+     * An extracted file waiting for its content to be ingested and its metadata to be registered.
+     */
+    private record Pending(
+            UUID folderId,
+            String name,
+            String contentType,
+            QuotaLedger.Reservation reservation,
+            Future<IngestedContent> content
+    ) {
+    }
+
+    /**
+     * The state of one extraction: the folders resolved so far by their path within the archive
+     * and the files not registered yet, oldest first.
+     */
+    private final class Extraction {
+
+        private final Integer ownerId;
+        private final UUID rootId;
+        private final Map<String, UUID> folderIds = new HashMap<>();
+        private final Deque<Pending> pending = new ArrayDeque<>();
+
+        private int folders;
+        private int files;
+        private long size;
+
+        private Extraction(Integer ownerId, UUID rootId) {
+            this.ownerId = ownerId;
+            this.rootId = rootId;
+        }
+
+        private void add(ArchiveReader.Entry entry, ArchiveReader reader) throws IOException {
+            if (entry.directory()) {
+                folder(entry.path());
+                return;
+            }
+
+            UUID folderId = folder(entry.parent());
+            QuotaLedger.Reservation reservation = quotaLedger.reserve(ownerId, 0);
+            Future<IngestedContent> content;
+            try {
+                content = ingest(entry.name(), quotaLedger.meter(reservation, reader.content()));
+            } catch (IOException | RuntimeException e) {
+                quotaLedger.release(reservation);
+                throw e;
+            }
+            pending.add(new Pending(folderId, entry.name(), contentType(entry.name()), reservation, content));
+
+            // Register the oldest batch once the next one is on its way, so the workers never wait for the database
+            while (pending.size() >= 2 * batchSize) {
+                flush(batchSize);
+            }
+        }
+
+        private Future<IngestedContent> ingest(String name, InputStream source) throws IOException {
+            byte[] head = source.readNBytes(inlineLimit + 1);
+            if (head.length <= inlineLimit) {
+                return ingestPool.submit(() -> ingestOrDiscard(new ByteArrayInputStream(head)));
+            }
+
+            try {
+                return CompletableFuture.completedFuture(
+                        ingestOrDiscard(new SequenceInputStream(new ByteArrayInputStream(head), source)));
+            } catch (IOException e) {
+                throw new FileStorageException("Failed to store file: " + name, e);
+            }
+        }
+
+        /**
+         * Ingests the content of an entry. If that fails partway, e.g. because the quota of the owner
+         * ran out while a large entry streamed in, the chunks stored so far are discarded, since the
+         * entry never reaches the pending files whose chunks an abort discards.
+         */
+        private IngestedContent ingestOrDiscard(InputStream content) throws IOException {
+            List<ChunkRef> stored = new ArrayList<>();
+            try {
+                return chunkStore.ingest(Channels.newChannel(content), stored);
+            } catch (IOException | RuntimeException e) {
+                discard(stored);
+                throw e;
+            }
+        }
+
+        private void flush(int count) {
+            List<Pending> batch = pending.stream().limit(count).toList();
+            List<IngestedFile> ingested = new ArrayList<>(batch.size());
+            for (Pending file : batch) {
+                ingested.add(new IngestedFile(
+                        UUID.randomUUID(), file.folderId(), file.name(), file.contentType(), await(file)));
+            }
+
+            fileCatalogService.registerAll(ownerId, ingested);
+            for (int i = 0; i < batch.size(); i++) {
+                pending.poll();
+                quotaLedger.confirm(batch.get(i).reservation(), ingested.get(i).content().size());
+                size += ingested.get(i).content().size();
+            }
+            files += batch.size();
+        }
+
+        private void abort() {
+            List<ChunkRef> written = new ArrayList<>();
+            for (Pending file : pending) {
+                quotaLedger.release(file.reservation());
+                // An ingest that has started may have written chunks, so it is waited for to learn them
+                if (!(file.content() instanceof Runnable task) || !ingestPool.remove(task)) {
+                    written(file).ifPresent(content -> written.addAll(content.chunks()));
+                }
+            }
+            pending.clear();
+
+            discard(written);
+        }
+
+        private void discard(List<ChunkRef> chunks) {
+            try {
+                chunkReclaimService.discard(chunks);
+            } catch (RuntimeException e) {
+                log.warn("Failed to discard {} chunks of a failed extraction", chunks.size(), e);
+            }
+        }
+
+        private Optional<IngestedContent> written(Pending file) {
+            try {
+                return Optional.of(file.content().get());
+            } catch (ExecutionException | CancellationException e) {
+                return Optional.empty();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+        }
+
+        private UUID folder(List<String> path) {
+            if (path.isEmpty()) {
+                return rootId;
+            }
+            String key = String.join("/", path);
+            UUID id = folderIds.get(key);
+            if (id == null) {
+                id = findOrCreate(folder(path.subList(0, path.size() - 1)), path.getLast());
+                folderIds.put(key, id);
+            }
+            return id;
+        }
+
+        private UUID findOrCreate(UUID parentId, String name) {
+            Optional<Folder> existing = folderService.child(ownerId, parentId, name);
+            if (existing.isPresent()) {
+                return existing.get().getId();
+            }
+            try {
+                UUID id = folderService.create(ownerId, parentId, name).getId();
+                folders++;
+                return id;
+            } catch (FolderConflictException e) {
+                // Created concurrently, unless the folder would be nested too deep
+                return folderService.child(ownerId, parentId, name).map(Folder::getId).orElseThrow(() -> e);
+            }
+        }
+
+        private IngestedContent await(Pending file) {
+            try {
+                return file.content().get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new FileStorageException("Failed to store file: " + file.name(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FileStorageException("Interrupted while storing file: " + file.name(), e);
+            }
+        }
+    }
+
+    private static String contentType(String name) {
+        return MediaTypeFactory.getMediaType(name).map(MediaType::toString).orElse(null);
+    }
+}
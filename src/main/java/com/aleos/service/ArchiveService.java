@@ -0,0 +1,176 @@
+package com.aleos.service;
+
+import com.aleos.dto.FolderDto;
+import com.aleos.dto.FolderPageDto;
+import com.aleos.exception.ArchiveException;
+import com.aleos.exception.InvalidCursorException;
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.model.Folder;
+import com.aleos.storage.ArchiveContent;
+import com.aleos.storage.ArchiveEntry;
+import com.aleos.storage.FileManifest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service resolving what goes into the archive download of a folder or of a selection of files.
+ * <p>
+ * A folder archive holds the whole subtree, laid out by folder name. The folder tree is read up
+ * front, one subtree page at a time, while the files are read lazily folder by folder, in pages of
+ * the folder index, as the archive is being written. Each page is a short transaction of its own,
+ * so no connection is held while the client downloads.
+ * <p>
+ * Entry names never contain a separator or a relative segment, so extracting an archive cannot
+ * write outside of its target directory.
+ * <p>
+ * Dependencies:
+ * - FolderService: Resolves the folder and walks its subtree.
+ * - FileContentService: Loads the manifests of the files.
+ */
+@Service
+@RequiredArgsConstructor
+public class ArchiveService {
+
+    public static final int MAX_SELECTION = 1000;
+
+    private static final String SELECTION_NAME = "files";
+    private static final int PAGE_SIZE = 200;
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final FolderService folderService;
+    private final FileContentService fileContentService;
+
+    /**
+     * Resolves the archive of a folder of the given user and its whole subtree.
+     *
+     * @param ownerId  the id of the user who owns the folder
+     * @param folderId the id of the folder
+     * @return the archive named after the folder, with one directory per descendant folder
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     * @throws InvalidCursorException    if a folder of the subtree is moved out of it while it is read
+     */
+    public ArchiveContent folder(Integer ownerId, UUID folderId) {
+        Folder root = folderService.find(ownerId, folderId);
+
+        Map<UUID, String> directories = new LinkedHashMap<>();
+        directories.put(root.getId(), "");
+        String cursor = null;
+        do {
+            FolderPageDto page = folderService.subtree(ownerId, folderId, cursor, FolderService.MAX_PAGE_SIZE);
+            for (FolderDto folder : page.items()) {
+                // Subtree pages follow the path index, so a parent always comes before its children
+                String parent = directories.get(folder.parentId());
+                if (parent != null) {
+                    directories.put(folder.id(), parent + safeName(folder.name()) + "/");
+                }
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        return new ArchiveContent(
+                safeName(root.getName()),
+                directories.values().stream().filter(path -> !path.isEmpty()).toList(),
+                new FolderEntries(ownerId, directories)
+        );
+    }
+
+    /**
+     * Resolves the archive of a selection of files of the given user, all at the top level.
+     *
+     * @param ownerId the id of the user who owns the files
+     * @param fileIds the ids of the files
+     * @return the archive of the files, ordered by name
+     * @throws ArchiveException          if the selection is empty or larger than {@link #MAX_SELECTION}
+     * @throws ResourceNotFoundException if a file does not exist or belongs to another user
+     */
+    public ArchiveContent selection(Integer ownerId, List<UUID> fileIds) {
+        Set<UUID> ids = new LinkedHashSet<>(fileIds);
+        if (ids.isEmpty() || ids.size() > MAX_SELECTION) {
+            throw new ArchiveException("Select between 1 and %d files".formatted(MAX_SELECTION));
+        }
+
+        List<FileManifest> manifests = fileContentService.findManifests(ownerId, ids);
+        if (manifests.size() < ids.size()) {
+            manifests.forEach(manifest -> ids.remove(manifest.id()));
+            throw new ResourceNotFoundException("File not found: " + ids.iterator().next());
+        }
+
+        return new ArchiveContent(
+                SELECTION_NAME,
+                List.of(),
+                manifests.stream().map(manifest -> new ArchiveEntry(safeName(manifest.name()), manifest)).iterator()
+        );
+    }
+
+    private static String safeName(String name) {
+        if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+            return "_";
+        }
+        return name.replace('/', '_').replace('\\', '_');
+    }
+
+    /**
+     * Walks the folders of an archive in order and pages through the files directly inside each of them.
+     */
+    private final class FolderEntries implements Iterator<ArchiveEntry> {
+
+        private final Integer ownerId;
+        private final Iterator<Map.Entry<UUID, String>> folders;
+        private final Deque<ArchiveEntry> page = new ArrayDeque<>(PAGE_SIZE);
+
+        private Map.Entry<UUID, String> folder;
+        private String afterName;
+        private UUID afterId;
+
+        private FolderEntries(Integer ownerId, Map<UUID, String> directories) {
+            this.ownerId = ownerId;
+            this.folders = directories.entrySet().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (page.isEmpty()) {
+                if (folder == null) {
+                    if (!folders.hasNext()) {
+                        return false;
+                    }
+                    folder = folders.next();
+                    afterName = "";
+                    afterId = MIN_ID;
+                }
+
+                List<FileManifest> manifests = fileContentService.findFolderPage(
+                        ownerId, folder.getKey(), afterName, afterId, PAGE_SIZE);
+                for (FileManifest manifest : manifests) {
+                    page.add(new ArchiveEntry(folder.getValue() + safeName(manifest.name()), manifest));
+                }
+                if (manifests.size() < PAGE_SIZE) {
+                    folder = null;
+                } else {
+                    afterName = manifests.getLast().name();
+                    afterId = manifests.getLast().id();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public ArchiveEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.poll();
+        }
+    }
+}
@@ -3,19 +3,23 @@ package com.aleos.service;
 import com.aleos.dto.SignUpPayload;
 import com.aleos.exception.AuthenticationServiceException;
 import com.aleos.mapper.UserMapper;
+import com.aleos.model.ActivationTokenMode;
 import com.aleos.model.Role;
 import com.aleos.model.User;
 import com.aleos.model.VerificationToken;
 import com.aleos.repository.UserRepository;
 import com.aleos.repository.VerificationTokenRepository;
+import jakarta.annotation.PostConstruct;
 import jakarta.mail.MessagingException;
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
 import static com.aleos.model.Role.ROLE_USER;
@@ -24,14 +28,21 @@ import static com.aleos.model.Role.ROLE_USER;
  * Service responsible for user authentication and management operations.
  * This service handles user sign-up, email verification, and activation token generation.
  * <p>
+ * Activation tokens are either signed, carrying everything needed to verify them, or stored
+ * as verification token rows. Activation accepts both kinds regardless of the configured mode,
+ * so links sent before a switch keep working.
+ * <p>
  * Dependencies:
  * - EmailService: Handles email sending for user verification.
  * - UserRepository: Manages user entities in the database.
  * - VerificationTokenRepository: Manages verification token entities in the database.
  * - UserMapper: Maps between SignUpPayload DTO and User entity.
+ * - UsageCounterService: Counts activated accounts.
+ * - EmailAvailabilityService: Learns the emails of new accounts.
+ * - ActivationTokenService: Issues and verifies signed activation tokens.
+ * - PlatformTransactionManager: Runs the persistence of a sign-up once its password is hashed.
  */
 @Service
-@RequiredArgsConstructor
 public class AuthenticationService {
 
     private static final Role DEFAULT_ROLE = ROLE_USER;
@@ -39,13 +50,49 @@ public class AuthenticationService {
     private final UserRepository userRepository;
     private final VerificationTokenRepository verificationTokenRepository;
     private final UserMapper mapper;
+    private final UsageCounterService usageCounterService;
+    private final EmailAvailabilityService emailAvailabilityService;
+    private final ActivationTokenService activationTokenService;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${registration.token.live.time}")
     public Long tokenLiveTime;
 
+    @Value("${registration.token.mode}")
+    private ActivationTokenMode tokenMode;
+
+    public AuthenticationService(EmailService emailService,
+                                 UserRepository userRepository,
+                                 VerificationTokenRepository verificationTokenRepository,
+                                 UserMapper mapper,
+                                 UsageCounterService usageCounterService,
+                                 EmailAvailabilityService emailAvailabilityService,
+                                 ActivationTokenService activationTokenService,
+                                 PlatformTransactionManager transactionManager) {
+        this.emailService = emailService;
+        this.userRepository = userRepository;
+        this.verificationTokenRepository = verificationTokenRepository;
+        this.mapper = mapper;
+        this.usageCounterService = usageCounterService;
+        this.emailAvailabilityService = emailAvailabilityService;
+        this.activationTokenService = activationTokenService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void checkTokenMode() {
+        if (tokenMode == ActivationTokenMode.SIGNED && !activationTokenService.canIssue()) {
+            throw new IllegalStateException("Signed activation tokens require registration.token.signing-keys");
+        }
+    }
+
     /**
      * Signs up a new user by creating the user in the database, generating an activation token,
-     * and sending a confirmation email to the user's email address.
+     * and queuing a confirmation email to the user's email address. The email is written to the
+     * outbox in the same transaction and delivered once it has committed.
+     * <p>
+     * The password is hashed before the transaction begins: hashing may wait for the bounded
+     * hashing executor, and no database connection is held while it does.
      *
      * @param signUpPayload   data transfer object containing user signup information
      * @param emailSubject    the subject of the confirmation email
@@ -53,7 +100,6 @@ public class AuthenticationService {
      * @param confirmationUrl the URL to confirm the user's email, including a placeholder for the token
      * @param encoder         the password encoder used to hash the user's password
      */
-    @Transactional
     public void signUp(SignUpPayload signUpPayload,
                        String emailSubject,
                        String emailSender,
@@ -64,48 +110,87 @@ public class AuthenticationService {
         newUser.setPassword(encoder.encode(newUser.getPassword()));
         newUser.setRole(DEFAULT_ROLE);
 
-        User user = userRepository.save(newUser);
-
-        VerificationToken token = generateActivationToken(user);
-        verificationTokenRepository.save(token);
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.save(newUser);
+            emailAvailabilityService.register(user.getEmail());
 
-        emailService.send(
-                user.getEmail(),
-                emailSubject,
-                emailSender,
-                confirmationUrl.formatted(token.getId())
-        );
+            emailService.enqueue(
+                    user.getEmail(),
+                    emailSubject,
+                    emailSender,
+                    confirmationUrl.formatted(generateActivationToken(user))
+            );
+        });
     }
 
     /**
-     * Processes the verification of a token by its ID. This method validates
-     * the token's existence and whether it is still valid based on its creation time
-     * and a predefined token lifetime. If valid, it completes the verification
-     * process; otherwise, it throws an exception.
+     * Processes the verification of an activation token. A stored token is looked up by its ID,
+     * a signed token is checked against its signature and the current state of the account.
+     * Either must still be valid based on its creation time and a predefined token lifetime.
+     * If valid, it completes the verification process; otherwise, it throws an exception.
      *
-     * @param verificationTokenId the UUID of the verification token to be processed
+     * @param token the activation token to be processed
      * @return the email address associated with the verified token
      * @throws AuthenticationServiceException if the token is invalid or does not exist
      */
     @Transactional
-    public String processVerification(UUID verificationTokenId) {
-        return verificationTokenRepository.findById(verificationTokenId)
-                .filter(token -> Instant.now().isBefore(token.getCreatedAt().plusSeconds(tokenLiveTime)))
-                .map(this::completeVerificationProcess)
-                .orElseThrow(() -> new AuthenticationServiceException("Invalid verification token: " + verificationTokenId));
+    public String processVerification(String token) {
+        Optional<String> email = parseUuid(token)
+                .map(id -> verificationTokenRepository.findByIdAndCreatedAtAfter(id, Instant.now().minusSeconds(tokenLiveTime))
+                        .map(this::completeVerificationProcess))
+                .orElseGet(() -> activationTokenService.verify(token)
+                        .map(user -> activate(user).getEmail()));
+
+        return email.orElseThrow(() -> new AuthenticationServiceException("Invalid verification token: " + token));
+    }
+
+    /**
+     * Replaces the stored password hash of a user.
+     *
+     * @param userId          the id of the user
+     * @param encodedPassword the new password hash
+     * @return the updated user
+     * @throws AuthenticationServiceException if the user does not exist
+     */
+    @Transactional
+    public User updatePassword(Integer userId, String encodedPassword) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new AuthenticationServiceException("User not found: " + userId));
+        user.setPassword(encodedPassword);
+        return user;
     }
 
     private String completeVerificationProcess(VerificationToken token) {
-        token.getUser().setActive(true);
         token.setVerifiedAt(Instant.now());
+        return activate(token.getUser()).getEmail();
+    }
 
-        return token.getUser().getEmail();
+    private User activate(User user) {
+        if (!user.getActive()) {
+            usageCounterService.userActivated();
+        }
+        // A managed change, so the cached copy of the user is replaced when the transaction commits
+        user.setActive(true);
+        return user;
     }
 
-    private VerificationToken generateActivationToken(User user) {
-        return VerificationToken.builder()
+    private String generateActivationToken(User user) {
+        if (tokenMode == ActivationTokenMode.SIGNED) {
+            return activationTokenService.issue(user);
+        }
+
+        VerificationToken token = VerificationToken.builder()
                 .user(user)
                 .createdAt(Instant.now())
                 .build();
+        return verificationTokenRepository.save(token).getId().toString();
+    }
+
+    private static Optional<UUID> parseUuid(String token) {
+        try {
+            return Optional.of(UUID.fromString(token));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 }
@@ -0,0 +1,66 @@
+package com.aleos.service;
+
+import com.aleos.repository.ChunkRepository;
+import com.aleos.storage.ChunkRef;
+import com.aleos.storage.ChunkStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service removing chunks that no file references anymore, from the database and from disk.
+ * <p>
+ * Releasing the last reference to a chunk leaves its row behind with a reference count of zero.
+ * Only once that release has committed is the chunk reclaimed, in a transaction of its own: the
+ * row is deleted if it is still unreferenced, which locks it, and the chunk file is removed while
+ * the lock is held. An upload referencing the same chunk meanwhile either bumps the count first,
+ * so the chunk is kept, or waits for the lock and then finds the chunk missing.
+ * <p>
+ * Chunks written for files that were never registered, e.g. by an aborted extraction, have no
+ * row or a row of other files. They are discarded the same way once a row without references has
+ * been inserted for each chunk that has none, so a chunk another file references is kept.
+ * <p>
+ * If reclaiming fails, the unreferenced row stays behind and the chunk stays on disk; no content
+ * a file still needs is ever removed.
+ * <p>
+ * Dependencies:
+ * - ChunkRepository: Deletes the chunk rows that are still unreferenced.
+ * - ChunkStore: Removes the chunk files.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChunkReclaimService {
+
+    private final ChunkRepository chunkRepository;
+    private final ChunkStore chunkStore;
+
+    /**
+     * Deletes the given chunks that are still unreferenced, together with their files.
+     * Always runs in a new transaction, so it can be called once another one has committed.
+     *
+     * @param hashes the digests of the chunks left unreferenced, in hash order
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void reclaim(List<String> hashes) {
+        chunkRepository.deleteUnreferenced(hashes).forEach(chunkStore::delete);
+    }
+
+    /**
+     * Deletes the given chunks of content that was written but never registered, unless a file
+     * references them.
+     *
+     * @param chunks the chunks of the unregistered content, in any order and possibly repeated
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void discard(List<ChunkRef> chunks) {
+        if (chunks.isEmpty()) {
+            return;
+        }
+        chunkRepository.addUnreferenced(chunks);
+        chunkRepository.deleteUnreferenced(chunks.stream().map(ChunkRef::hash).distinct().sorted().toList())
+                .forEach(chunkStore::delete);
+    }
+}
@@ -0,0 +1,175 @@
+package com.aleos.service;
+
+import com.aleos.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Service answering whether an email is still free to sign up with.
+ * <p>
+ * The emails of all accounts are kept in a Bloom filter. An email the filter has never seen is
+ * certainly free and is answered without touching the database, which is the common case while
+ * someone types a new address. Only a possible hit, either a registered email or a false positive,
+ * is confirmed by a lookup, which in turn is mostly served by the natural-id cache.
+ * <p>
+ * The filter is built from the users table on startup and every sign-up adds its email right away.
+ * It cannot forget an email, so it is rebuilt after accounts have been purged; meanwhile purged
+ * emails only cost a lookup. Until the first build completes every check goes to the database.
+ * The unique constraint on the email remains the authority; the filter only saves work. Each node
+ * keeps its own filter, so an email that signed up through another node can be reported as free.
+ * <p>
+ * Dependencies:
+ * - UserRepository: Reads all emails to build the filter and confirms possible hits.
+ * - PlatformTransactionManager: Streams the emails inside a read-only transaction.
+ */
+@Service
+@Slf4j
+public class EmailAvailabilityService {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${registration.email-filter.expected-emails}")
+    private long expectedEmails;
+
+    @Value("${registration.email-filter.false-positive-rate}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+
+    public EmailAvailabilityService(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Checks whether no account uses the given email.
+     *
+     * @param email the email to check
+     * @return true if the email can be used to sign up
+     */
+    public boolean isAvailable(String email) {
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(normalize(email))) {
+            return true;
+        }
+        return userRepository.findByEmail(email).isEmpty();
+    }
+
+    /**
+     * Records the email of a new account.
+     *
+     * @param email the email of the new account
+     */
+    public void register(String email) {
+        String key = normalize(email);
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(key);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(key);
+        }
+    }
+
+    /**
+     * Builds a new filter from the emails of all accounts and replaces the current one.
+     * Emails registered while the build runs are added to both filters.
+     */
+    public synchronized void rebuild() {
+        BloomFilter next = new BloomFilter(expectedEmails, falsePositiveRate);
+        building = next;
+        try {
+            long count = readOnlyTransaction.execute(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    return emails.map(EmailAvailabilityService::normalize).peek(next::put).count();
+                }
+            });
+            filter = next;
+            log.info("Built the email filter from {} accounts ({} KiB)", count, next.sizeInBytes() / 1024);
+        } finally {
+            building = null;
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A Bloom filter of strings over a lock-free bit array. The bit positions of an element are
+     * derived from two 64-bit hashes as {@code h1 + i * h2}.
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+
+        private BloomFilter(long expectedElements, double falsePositiveRate) {
+            long n = Math.max(1, expectedElements);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray(Math.toIntExact((m + 63) / 64));
+            this.bits = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        }
+
+        private void put(String element) {
+            long h1 = hash(element);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value = words.get(word);
+                while ((value & mask) == 0 && !words.weakCompareAndSetVolatile(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+        }
+
+        private boolean mightContain(String element) {
+            long h1 = hash(element);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long sizeInBytes() {
+            return bits / 8;
+        }
+
+        // FNV-1a over the UTF-8 bytes, finished with a mixer to spread the low bits
+        private static long hash(String element) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : element.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        // The finalizer of SplitMix64
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
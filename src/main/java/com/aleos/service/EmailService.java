@@ -1,66 +1,239 @@
 package com.aleos.service;
 
-import com.aleos.exception.AuthenticationServiceException;
+import com.aleos.model.OutboxEmail;
+import com.aleos.repository.OutboxEmailRepository;
+import jakarta.annotation.PostConstruct;
 import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
 import jakarta.mail.internet.MimeMessage;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Service responsible for sending emails asynchronously.
+ * Service responsible for sending emails through a transactional outbox.
  * <p>
- * This service uses JavaMailSender to create and send MimeMessage emails.
- * It provides a method to send an email with the specified recipient, subject, sender, and content.
+ * Callers only write the email to the outbox, as part of their own transaction, so no request
+ * waits for an SMTP server while it holds a database connection, and an email is sent if and
+ * only if the change that produced it commits.
  * <p>
- * Annotations:
- * - @Service: Indicates that this class is a Spring service component.
- * - @RequiredArgsConstructor: Generates a constructor with required arguments.
- * - @Async: Indicates that the send method should be executed asynchronously.
+ * A scheduled worker claims due emails in batches and hands each batch to the mail sender in a
+ * single call, which delivers all of its messages over one SMTP connection. Delivered emails are
+ * removed from the outbox; failed ones are retried with exponential backoff until the maximum
+ * number of attempts is reached, after which they are kept as failed. Delivery is at least once:
+ * an email whose result could not be recorded is sent again after its lease expires.
+ * <p>
+ * A batch must be settled before its lease expires, or another node claims and sends it again.
+ * Every step of an SMTP exchange is bounded by the SMTP timeout, so the lease is raised to the
+ * longest a batch can take when every step of it times out: a fixed number of steps to open the
+ * connection plus a fixed number per message.
+ * <p>
+ * Dependencies:
+ * - OutboxEmailRepository: Stores queued emails and claims and settles them in batches.
+ * - JavaMailSender: Creates and sends the MIME messages.
+ * - PlatformTransactionManager: Runs claiming and settling in short transactions of their own.
  */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class EmailService {
 
+    private final OutboxEmailRepository outboxEmailRepository;
     private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${mail.outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${mail.outbox.lease}")
+    private long leaseMillis;
+
+    @Value("${mail.smtp.timeout}")
+    private long smtpTimeoutMillis;
+
+    @Value("${mail.outbox.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.retry-backoff}")
+    private long retryBackoffMillis;
+
+    @Value("${mail.outbox.max-retry-backoff}")
+    private long maxRetryBackoffMillis;
+
+    /**
+     * SMTP steps bounded by the timeout: connect, greeting, EHLO, STARTTLS, EHLO, AUTH (two replies) and QUIT.
+     */
+    private static final int CONNECTION_STEPS = 8;
 
     /**
-     * Sends an email asynchronously using the provided recipient, subject, sender, and content.
+     * SMTP steps bounded by the timeout per message: MAIL FROM, RCPT TO, DATA, the content and its final reply.
+     */
+    private static final int MESSAGE_STEPS = 5;
+
+    public EmailService(OutboxEmailRepository outboxEmailRepository,
+                        JavaMailSender mailSender,
+                        PlatformTransactionManager transactionManager) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void checkLease() {
+        long batchMillis = (CONNECTION_STEPS + (long) MESSAGE_STEPS * batchSize) * smtpTimeoutMillis;
+        if (leaseMillis < batchMillis) {
+            log.info("Raising the email outbox lease from {} ms to {} ms, the longest a batch of {} can take",
+                    leaseMillis, batchMillis, batchSize);
+            leaseMillis = batchMillis;
+        }
+    }
+
+    /**
+     * Queues an email for delivery. When called within a transaction, the email is only
+     * delivered if that transaction commits.
      *
-     * @param to            the recipient's email address
-     * @param subject       the subject of the email
-     * @param from          the sender's email address
-     * @param emailContent  the content of the email
-     * @throws AuthenticationServiceException if there is an issue creating or sending the email
+     * @param to           the recipient's email address
+     * @param subject      the subject of the email
+     * @param from         the sender's email address
+     * @param emailContent the HTML content of the email
+     */
+    @Transactional
+    public void enqueue(String to, String subject, String from, String emailContent) {
+        Instant now = Instant.now();
+        outboxEmailRepository.save(OutboxEmail.builder()
+                .recipient(to)
+                .sender(from)
+                .subject(subject)
+                .body(emailContent)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    /**
+     * Delivers the emails that are due, batch by batch, until the outbox has no more due emails.
      */
-    @Async
-    public void send(
-            String to,
-            String subject,
-            String from,
-            String emailContent
-    ) {
-
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(
-                    mimeMessage,
-                    MimeMessageHelper.MULTIPART_MODE_MIXED,
-                    StandardCharsets.UTF_8.name()
-            );
-
-            helper.setTo(to);
-            helper.setFrom(from);
-            helper.setSubject(subject);
-            helper.setText(emailContent, true);
-
-            mailSender.send(mimeMessage);
-        } catch (MessagingException e) {
-            throw new AuthenticationServiceException("The user was created, but confirmation url was not sent", e);
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval}", initialDelayString = "${mail.outbox.poll-interval}")
+    public void deliver() {
+        List<OutboxEmail> batch;
+        do {
+            Instant now = Instant.now();
+            batch = transactionTemplate.execute(status ->
+                    outboxEmailRepository.claim(batchSize, now, now.plusMillis(leaseMillis)));
+            if (batch != null && !batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch != null && batch.size() == batchSize);
+    }
+
+    private void deliver(List<OutboxEmail> batch) {
+        List<Long> delivered = new ArrayList<>();
+        List<OutboxEmail> retried = new ArrayList<>();
+        List<OutboxEmail> failed = new ArrayList<>();
+
+        Map<MimeMessage, OutboxEmail> messages = new LinkedHashMap<>();
+        for (OutboxEmail email : batch) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException e) {
+                // A message that cannot even be built will not get any better on retry
+                settleFailure(email, e, true, retried, failed);
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            Map<Object, Exception> failures;
+            try {
+                mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+                failures = Map.of();
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages().isEmpty() ? allFailed(messages, e) : e.getFailedMessages();
+            } catch (MailException e) {
+                failures = allFailed(messages, e);
+            }
+
+            for (Map.Entry<MimeMessage, OutboxEmail> entry : messages.entrySet()) {
+                Exception failure = failures.get(entry.getKey());
+                if (failure == null) {
+                    delivered.add(entry.getValue().getId());
+                } else {
+                    settleFailure(entry.getValue(), failure, isPermanent(failure), retried, failed);
+                }
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxEmailRepository.deleteAllById(delivered);
+            outboxEmailRepository.retryAll(retried);
+            outboxEmailRepository.failAll(failed);
+        });
+
+        if (!retried.isEmpty() || !failed.isEmpty()) {
+            log.warn("Delivered {} of {} emails, {} will be retried, {} failed permanently",
+                    delivered.size(), batch.size(), retried.size(), failed.size());
+        }
+    }
+
+    private MimeMessage toMimeMessage(OutboxEmail email) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(
+                mimeMessage,
+                MimeMessageHelper.MULTIPART_MODE_MIXED,
+                StandardCharsets.UTF_8.name()
+        );
+
+        helper.setTo(email.getRecipient());
+        helper.setFrom(email.getSender());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), true);
+
+        return mimeMessage;
+    }
+
+    private void settleFailure(OutboxEmail email, Exception failure, boolean permanent,
+                               List<OutboxEmail> retried, List<OutboxEmail> failed) {
+        email.setLastError(String.valueOf(failure.getMessage()));
+        if (permanent || email.getAttempts() >= maxAttempts) {
+            email.setNextAttemptAt(Instant.now());
+            failed.add(email);
+            log.error("Giving up on email {} to {} after {} attempts", email.getId(), email.getRecipient(),
+                    email.getAttempts(), failure);
+        } else {
+            email.setNextAttemptAt(Instant.now().plus(backoff(email.getAttempts())));
+            retried.add(email);
         }
     }
+
+    private Duration backoff(int attempts) {
+        int exponent = Math.min(attempts - 1, 30);
+        long delay = retryBackoffMillis << exponent;
+        return Duration.ofMillis(delay <= 0 ? maxRetryBackoffMillis : Math.min(delay, maxRetryBackoffMillis));
+    }
+
+    private static boolean isPermanent(Exception failure) {
+        return failure instanceof SendFailedException sendFailed
+                && sendFailed.getInvalidAddresses() != null
+                && sendFailed.getInvalidAddresses().length > 0;
+    }
+
+    private static Map<Object, Exception> allFailed(Map<MimeMessage, OutboxEmail> messages, Exception failure) {
+        Map<Object, Exception> failures = new LinkedHashMap<>();
+        messages.keySet().forEach(message -> failures.put(message, failure));
+        return failures;
+    }
 }
@@ -0,0 +1,263 @@
+package com.aleos.service;
+
+import com.aleos.exception.FileStorageException;
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.model.StoredFile;
+import com.aleos.repository.ChunkRepository;
+import com.aleos.repository.FileChunkRepository;
+import com.aleos.repository.FolderTotals;
+import com.aleos.repository.StoredFileRepository;
+import com.aleos.repository.UserRepository;
+import com.aleos.storage.ChunkRef;
+import com.aleos.storage.ChunkStore;
+import com.aleos.storage.IngestedContent;
+import com.aleos.storage.IngestedFile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service responsible for the database side of stored files: file metadata, the chunk
+ * list of every file and the reference counts of the chunks.
+ * <p>
+ * Content is written to the {@link ChunkStore} before a file is registered, outside of any
+ * transaction. Registration then increments the chunk reference counts, which locks the
+ * chunk rows, and checks that every chunk is still on disk: a chunk whose last reference was
+ * deleted concurrently is reclaimed by {@link ChunkReclaimService} while holding the same lock,
+ * so a chunk that is missing at this point is reported instead of being silently referenced.
+ * <p>
+ * Deleting a file only releases its references. The chunk files are removed once the deletion
+ * has committed, so a deletion that rolls back never loses content.
+ * <p>
+ * Dependencies:
+ * - StoredFileRepository: Manages file metadata in the database.
+ * - FileChunkRepository: Manages the chunk list of every file.
+ * - ChunkRepository: Manages chunk reference counts.
+ * - UserRepository: Resolves the owner reference of a new file.
+ * - ChunkStore: Checks that chunk content is on disk.
+ * - ChunkReclaimService: Removes the chunks left unreferenced by a deleted file.
+ * - UsageCounterService: Keeps the usage counters in step with added and deleted files.
+ * - FolderService: Keeps the totals of the folders holding files in step with added, moved and deleted files.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileCatalogService {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final StoredFileRepository storedFileRepository;
+    private final FileChunkRepository fileChunkRepository;
+    private final ChunkRepository chunkRepository;
+    private final UserRepository userRepository;
+    private final ChunkStore chunkStore;
+    private final ChunkReclaimService chunkReclaimService;
+    private final UsageCounterService usageCounterService;
+    private final FolderService folderService;
+
+    /**
+     * Records a file whose content has just been written to the chunk store.
+     *
+     * @param ownerId     the id of the user who uploaded the file
+     * @param folderId    the id of the folder to put the file in, or null for none
+     * @param filename    the original name of the file
+     * @param contentType the media type of the file, may be null
+     * @param content     the digest, size and chunk list of the content
+     * @return the persisted file metadata
+     * @throws FileStorageException      if a chunk of the file was removed concurrently
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     */
+    @Transactional
+    public StoredFile register(Integer ownerId, UUID folderId, String filename, String contentType,
+                               IngestedContent content) {
+        StoredFile storedFile = storedFileRepository.saveAndFlush(
+                newFile(ownerId, folderId, filename, contentType, content.sha256(), content.size())
+        );
+
+        chunkRepository.addReferences(content.chunks());
+        fileChunkRepository.insertChunks(storedFile.getId(), content.chunks());
+
+        for (ChunkRef chunk : content.chunks()) {
+            if (!chunkStore.contains(chunk.hash())) {
+                throw new FileStorageException("Chunk %s of file %s was removed concurrently, retry the upload"
+                        .formatted(chunk.hash(), filename));
+            }
+        }
+
+        if (folderId != null) {
+            folderService.fileAdded(ownerId, folderId, content.size());
+        }
+        usageCounterService.fileAdded(ownerId, content.size());
+        return storedFile;
+    }
+
+    /**
+     * Records many files whose content has just been written to the chunk store, with one JDBC batch
+     * per table. The chunk references of all files are upserted together, so every chunk row is
+     * locked once and in hash order.
+     *
+     * @param ownerId the id of the user who uploaded the files
+     * @param files   the files, with their ids assigned
+     * @throws FileStorageException      if a chunk of a file was removed concurrently
+     * @throws ResourceNotFoundException if a folder does not exist or belongs to another user
+     */
+    @Transactional
+    public void registerAll(Integer ownerId, List<IngestedFile> files) {
+        if (files.isEmpty()) {
+            return;
+        }
+
+        List<IngestedFile> normalized = files.stream()
+                .map(file -> file.contentType() != null ? file : new IngestedFile(
+                        file.id(), file.folderId(), file.name(), DEFAULT_CONTENT_TYPE, file.content()))
+                .toList();
+        storedFileRepository.insertFiles(ownerId, normalized, Instant.now());
+
+        List<ChunkRef> chunks = normalized.stream().flatMap(file -> file.content().chunks().stream()).toList();
+        chunkRepository.addReferences(chunks);
+        fileChunkRepository.insertChunksOf(normalized);
+
+        for (String hash : chunks.stream().map(ChunkRef::hash).distinct().toList()) {
+            if (!chunkStore.contains(hash)) {
+                throw new FileStorageException("Chunk %s was removed concurrently, retry the upload".formatted(hash));
+            }
+        }
+
+        Map<UUID, FolderTotals> added = new HashMap<>();
+        long size = 0;
+        for (IngestedFile file : normalized) {
+            size += file.content().size();
+            if (file.folderId() != null) {
+                added.merge(file.folderId(), new FolderTotals(file.content().size(), 1), FolderTotals::plus);
+            }
+        }
+        folderService.filesAdded(ownerId, added);
+        usageCounterService.filesAdded(ownerId, normalized.size(), size);
+    }
+
+    /**
+     * Records a new file for the given user that shares the content of an already stored file
+     * with the same digest and size, without any content being transferred.
+     *
+     * @param ownerId     the id of the user who uploads the file
+     * @param folderId    the id of the folder to put the file in, or null for none
+     * @param filename    the name of the new file
+     * @param contentType the media type of the new file, may be null
+     * @param sha256      hex encoded SHA-256 digest of the content
+     * @param size        the content size in bytes
+     * @return the persisted file metadata, or empty if no file with that content is stored
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     */
+    @Transactional
+    public Optional<StoredFile> registerCopy(Integer ownerId, UUID folderId, String filename, String contentType,
+                                             String sha256, long size) {
+        return storedFileRepository.findFirstBySha256AndSize(sha256, size)
+                .map(source -> {
+                    StoredFile copy = storedFileRepository.saveAndFlush(
+                            newFile(ownerId, folderId, filename, contentType, sha256, size)
+                    );
+                    fileChunkRepository.copyChunks(source.getId(), copy.getId());
+                    chunkRepository.addReferencesOf(copy.getId());
+                    if (folderId != null) {
+                        folderService.fileAdded(ownerId, folderId, size);
+                    }
+                    usageCounterService.fileAdded(ownerId, size);
+                    return copy;
+                });
+    }
+
+    /**
+     * Deletes a file of the given user. The chunks no other file references anymore are removed
+     * once the deletion has committed.
+     *
+     * @param ownerId the id of the user who owns the file
+     * @param fileId  the id of the file
+     * @return the metadata of the deleted file
+     * @throws ResourceNotFoundException if the file does not exist or belongs to another user
+     */
+    @Transactional
+    public StoredFile delete(Integer ownerId, UUID fileId) {
+        StoredFile storedFile = storedFileRepository.findForUpdateByIdAndOwnerId(fileId, ownerId)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found: " + fileId));
+
+        List<String> unreferenced = chunkRepository.releaseReferencesOf(fileId);
+        storedFileRepository.delete(storedFile);
+        storedFileRepository.flush();
+
+        if (!unreferenced.isEmpty()) {
+            reclaimAfterCommit(unreferenced);
+        }
+        if (storedFile.getFolderId() != null) {
+            folderService.fileRemoved(ownerId, storedFile.getFolderId(), storedFile.getSize());
+        }
+        usageCounterService.fileRemoved(ownerId, storedFile.getSize());
+
+        return storedFile;
+    }
+
+    /**
+     * Moves a file of the given user into another folder, adjusting the totals of both folders
+     * and their ancestors.
+     *
+     * @param ownerId  the id of the user who owns the file
+     * @param fileId   the id of the file
+     * @param folderId the id of the folder to move the file into, or null for none
+     * @return the metadata of the moved file
+     * @throws ResourceNotFoundException if the file or the folder does not exist or belongs to another user
+     */
+    @Transactional
+    public StoredFile move(Integer ownerId, UUID fileId, UUID folderId) {
+        StoredFile storedFile = storedFileRepository.findForUpdateByIdAndOwnerId(fileId, ownerId)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found: " + fileId));
+        if (Objects.equals(storedFile.getFolderId(), folderId)) {
+            return storedFile;
+        }
+
+        if (storedFile.getFolderId() != null) {
+            folderService.fileRemoved(ownerId, storedFile.getFolderId(), storedFile.getSize());
+        }
+        if (folderId != null) {
+            folderService.fileAdded(ownerId, folderId, storedFile.getSize());
+        }
+        storedFile.setFolderId(folderId);
+        return storedFile;
+    }
+
+    private void reclaimAfterCommit(List<String> hashes) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    chunkReclaimService.reclaim(hashes);
+                } catch (RuntimeException e) {
+                    // The file is gone either way; its chunks stay on disk as unreferenced rows
+                    log.warn("Failed to reclaim {} unreferenced chunks", hashes.size(), e);
+                }
+            }
+        });
+    }
+
+    private StoredFile newFile(Integer ownerId, UUID folderId, String filename, String contentType,
+                               String sha256, long size) {
+        return StoredFile.builder()
+                .owner(userRepository.getReferenceById(ownerId))
+                .folderId(folderId)
+                .name(filename)
+                .contentType(contentType != null ? contentType : DEFAULT_CONTENT_TYPE)
+                .size(size)
+                .sha256(sha256)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.aleos.service;
+
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.model.FileChunk;
+import com.aleos.model.StoredFile;
+import com.aleos.repository.FileChunkRepository;
+import com.aleos.repository.StoredFileRepository;
+import com.aleos.storage.ChunkRef;
+import com.aleos.storage.FileManifest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service responsible for resolving stored files into the manifests used to serve their content.
+ * <p>
+ * Dependencies:
+ * - StoredFileRepository: Provides file metadata.
+ * - FileChunkRepository: Provides the chunk list of a file.
+ */
+@Service
+@RequiredArgsConstructor
+public class FileContentService {
+
+    private final StoredFileRepository storedFileRepository;
+    private final FileChunkRepository fileChunkRepository;
+
+    /**
+     * Loads the manifest of a file of the given user.
+     *
+     * @param ownerId the id of the user who owns the file
+     * @param fileId  the id of the file
+     * @return the file metadata together with its chunk list
+     * @throws ResourceNotFoundException if the file does not exist or belongs to another user
+     */
+    @Transactional(readOnly = true)
+    public FileManifest findManifest(Integer ownerId, UUID fileId) {
+        return storedFileRepository.findByIdAndOwnerId(fileId, ownerId)
+                .map(this::toManifest)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found: " + fileId));
+    }
+
+    /**
+     * Loads the manifest of a file regardless of its owner, e.g. to serve a share link.
+     *
+     * @param fileId the id of the file
+     * @return the file metadata together with its chunk list, or empty if the file does not exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<FileManifest> findManifest(UUID fileId) {
+        return storedFileRepository.findById(fileId).map(this::toManifest);
+    }
+
+    /**
+     * Loads the manifests of several files of the given user, with one query for all their chunks.
+     *
+     * @param ownerId the id of the user who owns the files
+     * @param fileIds the ids of the files
+     * @return the manifests of those files that exist and belong to the user, ordered by name
+     */
+    @Transactional(readOnly = true)
+    public List<FileManifest> findManifests(Integer ownerId, Collection<UUID> fileIds) {
+        return toManifests(storedFileRepository.findByOwnerIdAndIdInOrderByNameAscIdAsc(ownerId, fileIds));
+    }
+
+    /**
+     * Loads the manifests of one page of the files directly inside a folder, ordered by name.
+     *
+     * @param ownerId   the id of the user who owns the folder
+     * @param folderId  the id of the folder
+     * @param afterName the name of the last file of the previous page, or an empty string for the first page
+     * @param afterId   the id of the last file of the previous page
+     * @param limit     the maximum number of files to return
+     * @return the manifests of the page
+     */
+    @Transactional(readOnly = true)
+    public List<FileManifest> findFolderPage(Integer ownerId, UUID folderId, String afterName, UUID afterId, int limit) {
+        return toManifests(storedFileRepository.findFolderPage(ownerId, folderId, afterName, afterId, Limit.of(limit)));
+    }
+
+    private List<FileManifest> toManifests(List<StoredFile> storedFiles) {
+        if (storedFiles.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, List<ChunkRef>> chunks = fileChunkRepository.findByFileIdInOrderByFileIdAscSeqAsc(
+                        storedFiles.stream().map(StoredFile::getId).toList()).stream()
+                .collect(Collectors.groupingBy(FileChunk::getFileId,
+                        Collectors.mapping(FileContentService::toChunkRef, Collectors.toList())));
+
+        return storedFiles.stream()
+                .map(storedFile -> toManifest(storedFile, chunks.getOrDefault(storedFile.getId(), List.of())))
+                .toList();
+    }
+
+    private FileManifest toManifest(StoredFile storedFile) {
+        List<ChunkRef> chunks = fileChunkRepository.findByFileIdOrderBySeq(storedFile.getId()).stream()
+                .map(FileContentService::toChunkRef)
+                .toList();
+        return toManifest(storedFile, chunks);
+    }
+
+    private static FileManifest toManifest(StoredFile storedFile, List<ChunkRef> chunks) {
+        return new FileManifest(
+                storedFile.getId(),
+                storedFile.getName(),
+                storedFile.getContentType(),
+                storedFile.getSize(),
+                storedFile.getSha256(),
+                storedFile.getCreatedAt(),
+                chunks
+        );
+    }
+
+    private static ChunkRef toChunkRef(FileChunk chunk) {
+        return new ChunkRef(chunk.getChunkHash(), chunk.getChunkOffset(), chunk.getSize());
+    }
+}
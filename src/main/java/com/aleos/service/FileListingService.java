@@ -0,0 +1,145 @@
+package com.aleos.service;
+
+import com.aleos.dto.FilePageDto;
+import com.aleos.dto.FileSummaryDto;
+import com.aleos.exception.InvalidCursorException;
+import com.aleos.mapper.StoredFileMapper;
+import com.aleos.model.FileSortField;
+import com.aleos.repository.StoredFileRepository;
+import com.aleos.repository.StoredFileSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Service responsible for listing the files of a user page by page.
+ * <p>
+ * Pages are addressed by an opaque cursor encoding the sort order together with the sort key
+ * and id of the last file of the previous page. Unlike page numbers, a cursor stays stable
+ * while files are added or deleted and costs the same to resolve at any depth.
+ * <p>
+ * The most recent files can also be streamed, for views that render long listings row by row
+ * while they are read instead of loading them first.
+ * <p>
+ * Dependencies:
+ * - StoredFileRepository: Runs the keyset queries against the listing indexes.
+ * - StoredFileMapper: Maps listing projections to DTOs.
+ */
+@Service
+@RequiredArgsConstructor
+public class FileListingService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String SEPARATOR = ":";
+
+    private final StoredFileRepository storedFileRepository;
+    private final StoredFileMapper storedFileMapper;
+
+    /**
+     * Retrieves one page of the files of the given user.
+     *
+     * @param ownerId   the id of the user whose files are listed
+     * @param field     the attribute to sort by
+     * @param direction the sort direction
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param size      the requested page size, capped at {@link #MAX_PAGE_SIZE}
+     * @return the files of the page and the cursor of the next page
+     * @throws InvalidCursorException if the cursor is malformed or belongs to another sort order
+     */
+    @Transactional(readOnly = true)
+    public FilePageDto list(Integer ownerId, FileSortField field, Sort.Direction direction, String cursor, int size) {
+        int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        Object afterKey = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decode(cursor, field, direction);
+            afterId = parseId(position[2]);
+            afterKey = parseKey(field, position[3]);
+        }
+
+        // One extra row tells whether there is a next page without a count query
+        List<StoredFileSummary> rows = storedFileRepository.findPage(
+                ownerId, field, direction, afterKey, afterId, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<StoredFileSummary> page = hasNext ? rows.subList(0, limit) : rows;
+
+        return new FilePageDto(
+                page.stream().map(storedFileMapper::toDto).toList(),
+                hasNext ? encode(field, direction, page.getLast()) : null
+        );
+    }
+
+    /**
+     * Streams the most recently uploaded files of the given user, newest first.
+     * <p>
+     * Rows are fetched from a database cursor as the stream is consumed, so the caller must
+     * already be inside a transaction and must close the stream before that transaction ends.
+     *
+     * @param ownerId the id of the user whose files are listed
+     * @param limit   the maximum number of files to stream
+     * @return the files, newest first
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<FileSummaryDto> streamRecent(Integer ownerId, int limit) {
+        return storedFileRepository.streamRecent(ownerId, Limit.of(limit)).map(storedFileMapper::toDto);
+    }
+
+    private static String encode(FileSortField field, Sort.Direction direction, StoredFileSummary last) {
+        String key = switch (field) {
+            case NAME -> last.name();
+            case SIZE -> last.size().toString();
+            case CREATED_AT -> last.createdAt().toString();
+        };
+        String position = String.join(SEPARATOR, field.name(), direction.name(), last.id().toString(), key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor, FileSortField field, Sort.Direction direction) {
+        String[] position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+        if (position.length != 4) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (!position[0].equals(field.name()) || !position[1].equals(direction.name())) {
+            throw new InvalidCursorException("Cursor was issued for a different sort order");
+        }
+        return position;
+    }
+
+    private static UUID parseId(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+    }
+
+    private static Object parseKey(FileSortField field, String key) {
+        try {
+            return switch (field) {
+                case NAME -> key;
+                case SIZE -> Long.valueOf(key);
+                case CREATED_AT -> Instant.parse(key);
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.aleos.service;
+
+import com.aleos.exception.FileStorageException;
+import com.aleos.exception.QuotaExceededException;
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.exception.UploadSessionException;
+import com.aleos.model.StoredFile;
+import com.aleos.storage.ChunkRef;
+import com.aleos.storage.ChunkStore;
+import com.aleos.storage.IngestedContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service responsible for persisting uploaded file content and its metadata.
+ * <p>
+ * The content is streamed from the request into the {@link ChunkStore}, which splits it
+ * into content-defined chunks and stores each distinct chunk once, through a single
+ * fixed-size buffer, so the memory used by an upload does not depend on the size of the
+ * file. Files whose content is already known can be added without any transfer at all.
+ * <p>
+ * Every upload reserves its space in the {@link QuotaLedger} before the content is read
+ * and confirms the reservation once the file is registered, or releases it on failure.
+ * The chunks stored for an upload that fails, while its content is read or when it is
+ * registered, are discarded unless another file references them.
+ * <p>
+ * Multipart upload sessions write their parts at fixed offsets into a staging
+ * file under the storage root, which is ingested into the chunk store on commit.
+ * <p>
+ * Dependencies:
+ * - ChunkStore: Stores the deduplicated file content on disk.
+ * - FileCatalogService: Records file metadata and chunk references in the database.
+ * - QuotaLedger: Enforces the storage quota of the owner.
+ * - ShareLinkService: Forgets the cached manifests of deleted files.
+ * - FolderService: Checks the target folder of an upload before its content is transferred.
+ * - ChunkReclaimService: Discards the chunks of failed uploads.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileStorageService {
+
+    private static final int TRANSFER_BUFFER_SIZE = 256 * 1024;
+    private static final String STAGING_DIRECTORY = "staging";
+
+    private final ChunkStore chunkStore;
+    private final FileCatalogService fileCatalogService;
+    private final QuotaLedger quotaLedger;
+    private final ShareLinkService shareLinkService;
+    private final FolderService folderService;
+    private final ChunkReclaimService chunkReclaimService;
+
+    @Value("${storage.root}")
+    private Path storageRoot;
+
+    /**
+     * Streams the given content to the chunk store and records the file metadata for the owner.
+     *
+     * @param ownerId     the id of the user uploading the file
+     * @param folderId    the id of the folder to put the file in, or null for none
+     * @param filename    the original name of the file
+     * @param contentType the media type reported by the client, may be null
+     * @param size        the content length announced by the client, or -1 if unknown
+     * @param content     the raw file content
+     * @return the persisted file metadata
+     * @throws FileStorageException      if the content cannot be written
+     * @throws QuotaExceededException    if the file does not fit the quota of the owner
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     */
+    public StoredFile store(Integer ownerId, UUID folderId, String filename, String contentType, long size,
+                            InputStream content) {
+        if (folderId != null) {
+            // Checked up front, so a wrong folder does not cost a whole transfer
+            folderService.find(ownerId, folderId);
+        }
+        QuotaLedger.Reservation reservation = quotaLedger.reserve(ownerId, Math.max(size, 0));
+        List<ChunkRef> stored = new ArrayList<>();
+        try {
+            InputStream source = size < 0 ? quotaLedger.meter(reservation, content) : content;
+            IngestedContent ingested;
+            try {
+                ingested = chunkStore.ingest(Channels.newChannel(source), stored);
+            } catch (IOException e) {
+                throw new FileStorageException("Failed to store file: " + filename, e);
+            }
+
+            StoredFile storedFile = fileCatalogService.register(ownerId, folderId, filename, contentType, ingested);
+            quotaLedger.confirm(reservation, storedFile.getSize());
+            return storedFile;
+        } catch (RuntimeException e) {
+            quotaLedger.release(reservation);
+            discard(stored, filename);
+            throw e;
+        }
+    }
+
+    /**
+     * Completes an upload without a content transfer if a file with the same digest and size
+     * is already stored, by any user.
+     *
+     * @param ownerId     the id of the user uploading the file
+     * @param folderId    the id of the folder to put the file in, or null for none
+     * @param filename    the name of the file
+     * @param contentType the media type of the file, may be null
+     * @param sha256      hex encoded SHA-256 digest of the content
+     * @param size        the content size in bytes
+     * @return the persisted file metadata, or empty if the content has to be uploaded
+     * @throws QuotaExceededException    if the file does not fit the quota of the owner
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     */
+    public Optional<StoredFile> storeDuplicate(Integer ownerId, UUID folderId, String filename, String contentType,
+                                               String sha256, long size) {
+        QuotaLedger.Reservation reservation = quotaLedger.reserve(ownerId, size);
+        Optional<StoredFile> storedFile;
+        try {
+            storedFile = fileCatalogService.registerCopy(ownerId, folderId, filename, contentType, sha256, size);
+        } catch (RuntimeException e) {
+            quotaLedger.release(reservation);
+            throw e;
+        }
+
+        storedFile.ifPresentOrElse(
+                file -> quotaLedger.confirm(reservation, file.getSize()),
+                () -> quotaLedger.release(reservation)
+        );
+        return storedFile;
+    }
+
+    /**
+     * Deletes a file of the given user. Its content is removed from disk once no other file shares it.
+     *
+     * @param ownerId the id of the user who owns the file
+     * @param fileId  the id of the file
+     * @return the metadata of the deleted file
+     */
+    public StoredFile delete(Integer ownerId, UUID fileId) {
+        StoredFile storedFile = fileCatalogService.delete(ownerId, fileId);
+        quotaLedger.fileRemoved(ownerId, storedFile.getSize());
+        shareLinkService.evict(fileId);
+        return storedFile;
+    }
+
+    /**
+     * Returns the staging file that collects the parts of the given upload session.
+     *
+     * @param sessionId the id of the upload session
+     * @return the path of the staging file, which may not exist yet
+     */
+    public Path stagingFile(UUID sessionId) {
+        return storageRoot.resolve(STAGING_DIRECTORY).resolve(sessionId.toString());
+    }
+
+    /**
+     * Streams the given content into a staging file at the given position. Several parts
+     * of the same staging file may be written concurrently as long as their ranges do not overlap.
+     *
+     * @param staging      the staging file to write to
+     * @param position     the position of the first byte of the part
+     * @param expectedSize the exact number of bytes the part must contain
+     * @param content      the raw part content
+     * @return hex encoded SHA-256 digest of the written part
+     * @throws FileStorageException   if the content cannot be written
+     * @throws UploadSessionException if the size of the content does not match the expected size
+     */
+    public String writePart(Path staging, long position, long expectedSize, InputStream content) {
+        MessageDigest digest = sha256();
+        try {
+            Files.createDirectories(staging.getParent());
+            try (FileChannel sink = FileChannel.open(staging, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                long size = transfer(Channels.newChannel(content), sink, position, expectedSize, digest);
+                if (size != expectedSize || content.read() != -1) {
+                    throw new UploadSessionException(
+                            "Part size mismatch: expected %d bytes, received %s".formatted(
+                                    expectedSize, size < expectedSize ? size : "more"));
+                }
+                sink.force(false);
+            }
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to write part to: " + staging.getFileName(), e);
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Ingests a completely written staging file into the chunk store as a file owned by the
+     * given user, and removes the staging file.
+     *
+     * @param ownerId     the id of the user who uploaded the file
+     * @param folderId    the id of the folder to put the file in, or null for none
+     * @param filename    the original name of the file
+     * @param contentType the media type of the file, may be null
+     * @param staging     the staging file holding the complete content
+     * @return the persisted file metadata
+     * @throws FileStorageException if the staging file cannot be read
+     */
+    public StoredFile storeStaged(Integer ownerId, UUID folderId, String filename, String contentType, Path staging) {
+        List<ChunkRef> stored = new ArrayList<>();
+        StoredFile storedFile;
+        try {
+            IngestedContent ingested;
+            try (FileChannel source = FileChannel.open(staging, StandardOpenOption.READ)) {
+                ingested = chunkStore.ingest(source, stored);
+            } catch (IOException e) {
+                throw new FileStorageException("Failed to store file: " + filename, e);
+            }
+            storedFile = fileCatalogService.register(ownerId, folderId, filename, contentType, ingested);
+        } catch (RuntimeException e) {
+            discard(stored, filename);
+            throw e;
+        }
+        deleteQuietly(staging);
+
+        return storedFile;
+    }
+
+    /**
+     * Removes a staging file, e.g. when its upload session is aborted.
+     *
+     * @param staging the staging file to remove
+     */
+    public void discardStaged(Path staging) {
+        deleteQuietly(staging);
+    }
+
+    /**
+     * Copies at most limit bytes from the source into the sink starting at the given position,
+     * updating the digest with every byte written. Stops early when the source is exhausted.
+     */
+    private long transfer(ReadableByteChannel source, FileChannel sink, long position, long limit,
+                          MessageDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSFER_BUFFER_SIZE);
+        long size = 0;
+
+        while (size < limit) {
+            buffer.limit((int) Math.min(buffer.capacity(), limit - size));
+            if (source.read(buffer) == -1) {
+                break;
+            }
+            buffer.flip();
+            buffer.mark();
+            digest.update(buffer);
+            buffer.reset();
+            while (buffer.hasRemaining()) {
+                size += sink.write(buffer, position + size);
+            }
+            buffer.clear();
+        }
+
+        return size;
+    }
+
+    /**
+     * Discards the chunks stored for a failed upload. A failure to do so is only logged, so it
+     * does not hide the failure of the upload.
+     */
+    private void discard(List<ChunkRef> chunks, String filename) {
+        try {
+            chunkReclaimService.discard(chunks);
+        } catch (RuntimeException e) {
+            log.warn("Failed to discard {} chunks of failed upload: {}", chunks.size(), filename, e);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete file: {}", path, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+}
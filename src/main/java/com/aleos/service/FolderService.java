@@ -0,0 +1,371 @@
+package com.aleos.service;
+
+import com.aleos.dto.FolderPageDto;
+import com.aleos.exception.FolderConflictException;
+import com.aleos.exception.InvalidCursorException;
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.mapper.FolderMapper;
+import com.aleos.model.Folder;
+import com.aleos.repository.FolderNode;
+import com.aleos.repository.FolderRepository;
+import com.aleos.repository.FolderSummary;
+import com.aleos.repository.FolderTotals;
+import com.aleos.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service responsible for the folder tree of a user and the totals kept for every folder.
+ * <p>
+ * Every folder stores the ids of its ancestors as a path, so its subtree is a single range of the
+ * path index: listing it, moving it and reading its totals never walk the tree level by level.
+ * The size and file count of a folder cover its whole subtree and are updated incrementally,
+ * along the path of the folder holding the file, whenever a file is added, removed or moved.
+ * <p>
+ * A move locks every row it changes first, which also waits for uploads into the subtree in
+ * flight. An upload whose folder was moved while it waited notices the changed path and moves
+ * its contribution over to the new ancestors.
+ * <p>
+ * Dependencies:
+ * - FolderRepository: Manages folders and runs the tree operations.
+ * - UserRepository: Resolves the owner reference of a new folder.
+ * - FolderMapper: Maps listing projections to DTOs.
+ */
+@Service
+@RequiredArgsConstructor
+public class FolderService {
+
+    public static final int MAX_DEPTH = 64;
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final FolderRepository folderRepository;
+    private final UserRepository userRepository;
+    private final FolderMapper folderMapper;
+
+    /**
+     * Retrieves a folder of the given user.
+     *
+     * @param ownerId  the id of the user who owns the folder
+     * @param folderId the id of the folder
+     * @return the folder
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     */
+    @Transactional(readOnly = true)
+    public Folder find(Integer ownerId, UUID folderId) {
+        return folderRepository.findByIdAndOwnerId(folderId, ownerId)
+                .orElseThrow(() -> notFound(folderId));
+    }
+
+    /**
+     * Retrieves the folders directly under the given folder, ordered by name.
+     *
+     * @param ownerId  the id of the user who owns the folders
+     * @param parentId the id of the parent folder, or null for the top-level folders
+     * @return the child folders
+     * @throws ResourceNotFoundException if the parent folder does not exist or belongs to another user
+     */
+    @Transactional(readOnly = true)
+    public List<Folder> children(Integer ownerId, UUID parentId) {
+        if (parentId != null) {
+            findNode(ownerId, parentId);
+        }
+        return folderRepository.findByOwnerIdAndParentIdOrderByName(ownerId, parentId);
+    }
+
+    /**
+     * Retrieves the folder of the given name directly under the given folder.
+     *
+     * @param ownerId  the id of the user who owns the folders
+     * @param parentId the id of the parent folder, or null for the top level
+     * @param name     the name of the folder
+     * @return the folder, or empty if there is none of that name
+     */
+    @Transactional(readOnly = true)
+    public Optional<Folder> child(Integer ownerId, UUID parentId, String name) {
+        return folderRepository.findByOwnerIdAndParentIdAndName(ownerId, parentId, name);
+    }
+
+    /**
+     * Retrieves one page of all folders below the given folder, at any depth. Ancestors come
+     * before their descendants, siblings in no particular order.
+     *
+     * @param ownerId  the id of the user who owns the folder
+     * @param folderId the id of the folder whose subtree is listed
+     * @param cursor   the cursor returned with the previous page, or null for the first page
+     * @param size     the requested page size, capped at {@link #MAX_PAGE_SIZE}
+     * @return the folders of the page and the cursor of the next page
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     * @throws InvalidCursorException    if the cursor is malformed or its folder has left the subtree
+     */
+    @Transactional(readOnly = true)
+    public FolderPageDto subtree(Integer ownerId, UUID folderId, String cursor, int size) {
+        FolderNode root = findNode(ownerId, folderId);
+        int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+
+        String afterPath = "";
+        UUID afterId = MIN_ID;
+        if (cursor != null && !cursor.isBlank()) {
+            FolderNode after = folderRepository.findNode(parseCursor(cursor), ownerId)
+                    .filter(node -> node.path().startsWith(root.subtreePath()))
+                    .orElseThrow(() -> new InvalidCursorException("Cursor does not point into the subtree"));
+            afterPath = after.path();
+            afterId = after.id();
+        }
+
+        List<FolderSummary> rows = folderRepository.findSubtreePage(
+                root.subtreePath(), afterPath, afterId, Limit.of(limit + 1));
+        boolean hasNext = rows.size() > limit;
+        List<FolderSummary> page = hasNext ? rows.subList(0, limit) : rows;
+
+        return new FolderPageDto(
+                page.stream().map(folderMapper::toDto).toList(),
+                hasNext ? page.getLast().id().toString() : null
+        );
+    }
+
+    /**
+     * Creates an empty folder.
+     *
+     * @param ownerId  the id of the user who creates the folder
+     * @param parentId the id of the parent folder, or null for a top-level folder
+     * @param name     the name of the folder
+     * @return the persisted folder
+     * @throws ResourceNotFoundException if the parent folder does not exist or belongs to another user
+     * @throws FolderConflictException   if the parent already holds a folder of that name or is nested too deep
+     */
+    @Transactional
+    public Folder create(Integer ownerId, UUID parentId, String name) {
+        String path = Folder.ROOT_PATH;
+        int depth = 0;
+        if (parentId != null) {
+            FolderNode parent = findNode(ownerId, parentId);
+            path = parent.subtreePath();
+            depth = parent.depth() + 1;
+        }
+        if (depth >= MAX_DEPTH) {
+            throw new FolderConflictException("Folders cannot be nested more than %d levels deep".formatted(MAX_DEPTH));
+        }
+        requireUniqueName(ownerId, parentId, name);
+
+        Folder folder = Folder.builder()
+                .owner(userRepository.getReferenceById(ownerId))
+                .parentId(parentId)
+                .name(name)
+                .path(path)
+                .depth(depth)
+                .createdAt(Instant.now())
+                .build();
+        try {
+            return folderRepository.saveAndFlush(folder);
+        } catch (DataIntegrityViolationException e) {
+            throw new FolderConflictException("A folder named '%s' already exists here".formatted(name), e);
+        }
+    }
+
+    /**
+     * Moves a folder with everything in it under another folder. The totals of the old and the
+     * new ancestors are adjusted by the totals of the folder.
+     *
+     * @param ownerId  the id of the user who owns both folders
+     * @param folderId the id of the folder to move
+     * @param parentId the id of the new parent folder, or null to make it a top-level folder
+     * @return the moved folder, read after the move
+     * @throws ResourceNotFoundException if either folder does not exist or belongs to another user
+     * @throws FolderConflictException   if the new parent lies in the subtree of the folder, already holds a
+     *                                   folder of the same name, the tree would get too deep, or either
+     *                                   folder was moved concurrently
+     */
+    @Transactional
+    public Folder move(Integer ownerId, UUID folderId, UUID parentId) {
+        FolderNode folder = findNode(ownerId, folderId);
+        FolderNode parent = parentId != null ? findNode(ownerId, parentId) : null;
+
+        Set<UUID> affected = new LinkedHashSet<>(folder.lineage());
+        if (parent != null) {
+            affected.addAll(parent.lineage());
+        }
+        folderRepository.lock(List.copyOf(affected), folder.subtreePath());
+
+        // Read again under lock; a concurrent move would have made the locked rows the wrong ones
+        FolderNode lockedFolder = findNode(ownerId, folderId);
+        FolderNode lockedParent = parentId != null ? findNode(ownerId, parentId) : null;
+        if (!lockedFolder.path().equals(folder.path())
+                || (parent != null && !lockedParent.path().equals(parent.path()))) {
+            throw new FolderConflictException("The folder tree was changed concurrently, retry the move");
+        }
+        folder = lockedFolder;
+        parent = lockedParent;
+
+        if (parent != null && (parent.id().equals(folder.id()) || parent.path().startsWith(folder.subtreePath()))) {
+            throw new FolderConflictException("A folder cannot be moved into itself or one of its subfolders");
+        }
+        String path = parent != null ? parent.subtreePath() : Folder.ROOT_PATH;
+        if (path.equals(folder.path())) {
+            return find(ownerId, folderId);
+        }
+
+        int depth = parent != null ? parent.depth() + 1 : 0;
+        int deepest = folderRepository.findMaxDepth(folder.subtreePath()).orElse(folder.depth());
+        if (depth + deepest - folder.depth() >= MAX_DEPTH) {
+            throw new FolderConflictException("Folders cannot be nested more than %d levels deep".formatted(MAX_DEPTH));
+        }
+
+        List<UUID> oldAncestors = ancestors(folder);
+        List<UUID> newAncestors = parent != null ? parent.lineage() : List.of();
+        folderRepository.addToTotals(difference(oldAncestors, newAncestors), -folder.size(), -folder.fileCount());
+        folderRepository.addToTotals(difference(newAncestors, oldAncestors), folder.size(), folder.fileCount());
+        try {
+            folderRepository.move(folder, parentId, path);
+        } catch (DataIntegrityViolationException e) {
+            throw new FolderConflictException("A folder of the same name already exists there", e);
+        }
+        return find(ownerId, folderId);
+    }
+
+    /**
+     * Deletes a folder together with all folders below it, provided none of them holds a file.
+     *
+     * @param ownerId  the id of the user who owns the folder
+     * @param folderId the id of the folder
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     * @throws FolderConflictException   if the folder or one of its subfolders holds files
+     */
+    @Transactional
+    public void delete(Integer ownerId, UUID folderId) {
+        FolderNode folder = findNode(ownerId, folderId);
+        folderRepository.lock(List.of(folderId), folder.subtreePath());
+        folder = findNode(ownerId, folderId);
+        if (folder.fileCount() > 0) {
+            throw new FolderConflictException("Folder is not empty: " + folderId);
+        }
+        try {
+            folderRepository.deleteTree(folder);
+        } catch (DataIntegrityViolationException e) {
+            throw new FolderConflictException("Folder is not empty: " + folderId, e);
+        }
+    }
+
+    /**
+     * Counts a new file in the totals of its folder and all ancestors. Must run in the
+     * transaction that records the file.
+     *
+     * @param ownerId  the id of the user who owns the file
+     * @param folderId the id of the folder holding the file
+     * @param size     the size of the file in bytes
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void fileAdded(Integer ownerId, UUID folderId, long size) {
+        addToTotals(ownerId, folderId, size, 1);
+    }
+
+    /**
+     * Counts many new files, spread over several folders, in the totals of their folders and all
+     * ancestors. The amounts are summed per folder first, so every affected row is updated once,
+     * in id order. Must run in the transaction that records the files.
+     *
+     * @param ownerId the id of the user who owns the files
+     * @param added   the size and number of the new files by the id of the folder holding them
+     * @throws ResourceNotFoundException if a folder does not exist or belongs to another user
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void filesAdded(Integer ownerId, Map<UUID, FolderTotals> added) {
+        Map<UUID, FolderNode> folders = new HashMap<>();
+        Map<UUID, FolderTotals> totals = new HashMap<>();
+        added.forEach((folderId, amount) -> {
+            FolderNode folder = findNode(ownerId, folderId);
+            folders.put(folderId, folder);
+            folder.lineage().forEach(id -> totals.merge(id, amount, FolderTotals::plus));
+        });
+        folderRepository.addToTotals(totals);
+
+        // As for a single file, move the amounts of folders that were moved meanwhile to their new ancestors
+        added.forEach((folderId, amount) -> {
+            FolderNode folder = folders.get(folderId);
+            FolderNode current = findNode(ownerId, folderId);
+            while (!current.path().equals(folder.path())) {
+                folderRepository.addToTotals(folder.lineage(), -amount.size(), -amount.fileCount());
+                folderRepository.addToTotals(current.lineage(), amount.size(), amount.fileCount());
+                folder = current;
+                current = findNode(ownerId, folderId);
+            }
+        });
+    }
+
+    /**
+     * Removes a file from the totals of its folder and all ancestors. Must run in the
+     * transaction that removes the file.
+     *
+     * @param ownerId  the id of the user who owns the file
+     * @param folderId the id of the folder that held the file
+     * @param size     the size of the file in bytes
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void fileRemoved(Integer ownerId, UUID folderId, long size) {
+        addToTotals(ownerId, folderId, -size, -1);
+    }
+
+    private void addToTotals(Integer ownerId, UUID folderId, long bytes, long files) {
+        FolderNode folder = findNode(ownerId, folderId);
+        folderRepository.addToTotals(folder.lineage(), bytes, files);
+
+        // The rows are locked now; if the folder was moved meanwhile, the wrong ancestors were counted
+        FolderNode current = findNode(ownerId, folderId);
+        while (!current.path().equals(folder.path())) {
+            folderRepository.addToTotals(folder.lineage(), -bytes, -files);
+            folderRepository.addToTotals(current.lineage(), bytes, files);
+            folder = current;
+            current = findNode(ownerId, folderId);
+        }
+    }
+
+    private void requireUniqueName(Integer ownerId, UUID parentId, String name) {
+        if (folderRepository.existsByOwnerIdAndParentIdAndName(ownerId, parentId, name)) {
+            throw new FolderConflictException("A folder named '%s' already exists here".formatted(name));
+        }
+    }
+
+    private FolderNode findNode(Integer ownerId, UUID folderId) {
+        return folderRepository.findNode(folderId, ownerId).orElseThrow(() -> notFound(folderId));
+    }
+
+    private static List<UUID> ancestors(FolderNode folder) {
+        List<UUID> lineage = folder.lineage();
+        return lineage.subList(0, lineage.size() - 1);
+    }
+
+    private static List<UUID> difference(List<UUID> ids, List<UUID> excluded) {
+        List<UUID> result = new ArrayList<>(ids);
+        result.removeAll(excluded);
+        return result;
+    }
+
+    private static UUID parseCursor(String cursor) {
+        try {
+            return UUID.fromString(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+    }
+
+    private static ResourceNotFoundException notFound(UUID folderId) {
+        return new ResourceNotFoundException("Folder not found: " + folderId);
+    }
+}
@@ -0,0 +1,476 @@
+package com.aleos.service;
+
+import com.aleos.dto.UsageSummaryDto;
+import com.aleos.exception.QuotaExceededException;
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.model.QuotaReservation;
+import com.aleos.model.Role;
+import com.aleos.model.User;
+import com.aleos.repository.QuotaReservationRepository;
+import com.aleos.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory ledger enforcing the per-role storage quotas (bytes and number of files).
+ * <p>
+ * Every upload reserves its space before any content is written and confirms or releases
+ * the reservation when it finishes. The balance of an account, its used and its reserved
+ * space, is a single immutable value swapped with compare-and-set, so concurrent uploads
+ * of one account can never together overshoot its quota and no lock is taken on the
+ * upload path. Uploads of unknown size grow their reservation while the content streams in.
+ * <p>
+ * An account is loaded from the usage counters the first time it is needed and evicted
+ * once it has been idle for a while, which also picks up role changes. Reservations of
+ * upload sessions outlive a single request and are therefore written behind to the
+ * "quota_reservation" table by a periodic batch, never on the upload path, and restored
+ * from it on startup.
+ * <p>
+ * The ledger is local to each node. Uploads of one user running on different nodes at the same
+ * time do not see each other's reservations and can together overshoot the quota.
+ * <p>
+ * Dependencies:
+ * - UserRepository: Resolves the role of an account.
+ * - UsageCounterService: Provides the used space of an account when it is loaded.
+ * - QuotaReservationRepository: Stores the reservations of upload sessions.
+ * - PlatformTransactionManager: Runs every write-behind batch in its own transaction.
+ */
+@Service
+@Slf4j
+public class QuotaLedger {
+
+    private final UserRepository userRepository;
+    private final UsageCounterService usageCounterService;
+    private final QuotaReservationRepository quotaReservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Role, Quota> quotas = new EnumMap<>(Role.class);
+
+    private final ConcurrentHashMap<Integer, Account> accounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Reservation> durableReservations = new ConcurrentHashMap<>();
+
+    /**
+     * Durable reservations changed since the last write-behind batch. The batch writes their
+     * state as of the time it runs, so the order of the queue does not matter.
+     */
+    private final ConcurrentLinkedQueue<Reservation> changedReservations = new ConcurrentLinkedQueue<>();
+
+    @Value("${quota.account-idle-timeout}")
+    private long accountIdleTimeout;
+
+    public QuotaLedger(UserRepository userRepository,
+                       UsageCounterService usageCounterService,
+                       QuotaReservationRepository quotaReservationRepository,
+                       PlatformTransactionManager transactionManager,
+                       Environment env) {
+        this.userRepository = userRepository;
+        this.usageCounterService = usageCounterService;
+        this.quotaReservationRepository = quotaReservationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (Role role : Role.values()) {
+            String prefix = "quota." + role.name().toLowerCase().replace('_', '-');
+            quotas.put(role, new Quota(
+                    env.getRequiredProperty(prefix + ".max-bytes", Long.class),
+                    env.getRequiredProperty(prefix + ".max-files", Long.class)
+            ));
+        }
+    }
+
+    /**
+     * Reserves space for one file for the duration of a single request.
+     *
+     * @param userId the id of the user storing the file
+     * @param bytes  the expected file size, 0 if unknown
+     * @return the reservation to confirm or release
+     * @throws QuotaExceededException if the file does not fit the quota of the user
+     */
+    public Reservation reserve(Integer userId, long bytes) {
+        return reserve(UUID.randomUUID(), userId, bytes, false);
+    }
+
+    /**
+     * Reserves space for one file for the lifetime of an upload session.
+     * The reservation survives restarts and can be settled by the id of the session.
+     *
+     * @param sessionId the id of the upload session
+     * @param userId    the id of the user storing the file
+     * @param bytes     the size of the file
+     * @return the reservation
+     * @throws QuotaExceededException if the file does not fit the quota of the user
+     */
+    public Reservation reserveDurable(UUID sessionId, Integer userId, long bytes) {
+        Reservation reservation = reserve(sessionId, userId, bytes, true);
+        durableReservations.put(sessionId, reservation);
+        changedReservations.offer(reservation);
+        return reservation;
+    }
+
+    /**
+     * Wraps a stream of unknown length so that the reservation grows with every byte read.
+     *
+     * @param reservation the reservation of the upload
+     * @param content     the upload content
+     * @return a stream failing with {@link QuotaExceededException} once the quota is exhausted
+     */
+    public InputStream meter(Reservation reservation, InputStream content) {
+        return new FilterInputStream(content) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) {
+                    grow(reservation, 1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    grow(reservation, read);
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Turns a reservation into used space once the file has been stored.
+     *
+     * @param reservation the reservation of the upload
+     * @param bytes       the actual size of the stored file
+     */
+    public void confirm(Reservation reservation, long bytes) {
+        if (!reservation.settled.compareAndSet(false, true)) {
+            return;
+        }
+        reservation.account.update(balance -> balance.settle(reservation, bytes, reservation.files));
+        settled(reservation);
+    }
+
+    /**
+     * Turns the reservation of an upload session into used space once the file has been stored.
+     * If the reservation was lost, e.g. by a crash before it was written, the space is added anyway.
+     *
+     * @param sessionId the id of the upload session
+     * @param userId    the id of the user who stored the file
+     * @param bytes     the actual size of the stored file
+     */
+    public void confirm(UUID sessionId, Integer userId, long bytes) {
+        Reservation reservation = durableReservations.get(sessionId);
+        if (reservation != null) {
+            confirm(reservation, bytes);
+        } else {
+            fileAdded(userId, bytes);
+        }
+    }
+
+    /**
+     * Gives the space of a reservation back, e.g. when an upload fails.
+     *
+     * @param reservation the reservation of the upload
+     */
+    public void release(Reservation reservation) {
+        if (!reservation.settled.compareAndSet(false, true)) {
+            return;
+        }
+        reservation.account.update(balance -> balance.settle(reservation, 0, 0));
+        settled(reservation);
+    }
+
+    /**
+     * Gives the space reserved for an upload session back.
+     *
+     * @param sessionId the id of the upload session
+     */
+    public void release(UUID sessionId) {
+        Reservation reservation = durableReservations.get(sessionId);
+        if (reservation != null) {
+            release(reservation);
+        }
+    }
+
+    /**
+     * @return the ids of the upload sessions this ledger holds a reservation for
+     */
+    public Set<UUID> durableReservationIds() {
+        return Set.copyOf(durableReservations.keySet());
+    }
+
+    /**
+     * Records a deleted file. Accounts that are not loaded pick the change up when they are.
+     *
+     * @param userId the id of the user who owned the file
+     * @param bytes  the size of the file
+     */
+    public void fileRemoved(Integer userId, long bytes) {
+        Account account = accounts.get(userId);
+        if (account != null) {
+            account.update(balance -> balance.retired() ? balance : balance.use(-bytes, -1));
+        }
+    }
+
+    /**
+     * Restores the reservations of upload sessions that are still open and drops the others.
+     */
+    public void restore() {
+        List<QuotaReservation> restored = transactionTemplate.execute(status -> {
+            int dropped = quotaReservationRepository.deleteWithoutOpenSession();
+            log.debug("Dropped {} quota reservations of closed upload sessions", dropped);
+            return quotaReservationRepository.findAll();
+        });
+
+        for (QuotaReservation row : restored) {
+            Account account = account(row.getUserId());
+            Reservation reservation = new Reservation(
+                    row.getId(), row.getUserId(), account, row.getFiles(), true, row.getCreatedAt());
+            reservation.bytes.set(row.getBytes());
+            account.update(balance -> balance.reserve(row.getBytes(), row.getFiles()));
+            durableReservations.put(row.getId(), reservation);
+        }
+        log.info("Restored {} quota reservations", restored.size());
+    }
+
+    /**
+     * Writes the durable reservations changed since the previous run and evicts idle accounts.
+     */
+    @Scheduled(fixedDelayString = "${quota.flush-interval}", initialDelayString = "${quota.flush-interval}")
+    @PreDestroy
+    public void flush() {
+        Set<Reservation> changed = new LinkedHashSet<>();
+        for (Reservation reservation; (reservation = changedReservations.poll()) != null; ) {
+            changed.add(reservation);
+        }
+
+        if (!changed.isEmpty()) {
+            List<QuotaReservation> open = new ArrayList<>();
+            List<UUID> settled = new ArrayList<>();
+            for (Reservation reservation : changed) {
+                if (reservation.settled.get()) {
+                    settled.add(reservation.id);
+                } else {
+                    open.add(reservation.toEntity());
+                }
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    quotaReservationRepository.upsertAll(open);
+                    quotaReservationRepository.deleteAllById(settled);
+                });
+            } catch (RuntimeException e) {
+                log.warn("Failed to write quota reservations, retrying with the next flush", e);
+                changedReservations.addAll(changed);
+            }
+        }
+
+        evictIdleAccounts();
+    }
+
+    private Reservation reserve(UUID id, Integer userId, long bytes, boolean durable) {
+        while (true) {
+            Account account = account(userId);
+            Balance current = account.balance.get();
+            if (current.retired()) {
+                accounts.remove(userId, account);
+                continue;
+            }
+
+            Balance next = current.reserve(bytes, 1);
+            account.quota.check(next, userId);
+            if (account.balance.compareAndSet(current, next)) {
+                account.lastActivity = System.currentTimeMillis();
+                Reservation reservation = new Reservation(id, userId, account, 1, durable, Instant.now());
+                reservation.bytes.set(bytes);
+                return reservation;
+            }
+        }
+    }
+
+    private void grow(Reservation reservation, long bytes) {
+        if (reservation.settled.get()) {
+            throw new IllegalStateException("Reservation %s is already settled".formatted(reservation.id));
+        }
+        reservation.account.update(balance -> {
+            Balance next = balance.reserve(bytes, 0);
+            reservation.account.quota.check(next, reservation.userId);
+            return next;
+        });
+        reservation.bytes.addAndGet(bytes);
+        if (reservation.durable) {
+            changedReservations.offer(reservation);
+        }
+    }
+
+    private void fileAdded(Integer userId, long bytes) {
+        Account account = accounts.get(userId);
+        if (account != null) {
+            account.update(balance -> balance.retired() ? balance : balance.use(bytes, 1));
+        }
+    }
+
+    private void settled(Reservation reservation) {
+        if (reservation.durable) {
+            durableReservations.remove(reservation.id, reservation);
+            changedReservations.offer(reservation);
+        }
+    }
+
+    private Account account(Integer userId) {
+        Account account = accounts.get(userId);
+        if (account != null) {
+            return account;
+        }
+
+        // Loaded outside of the map so that the database reads do not block other accounts
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
+        UsageSummaryDto usage = usageCounterService.summary(userId);
+        Account loaded = new Account(quotas.get(user.getRole()),
+                new Balance(usage.bytesUsed(), usage.fileCount(), 0, 0, false));
+
+        Account existing = accounts.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * Retires idle accounts so they are reloaded from the usage counters when needed again.
+     * Retiring is a compare-and-set as well, so a concurrent reservation either lands before
+     * it, keeping the account, or sees the retired balance and loads a fresh account.
+     */
+    private void evictIdleAccounts() {
+        long idleSince = System.currentTimeMillis() - accountIdleTimeout;
+        accounts.forEach((userId, account) -> {
+            Balance current = account.balance.get();
+            if (account.lastActivity < idleSince && current.idle()
+                    && account.balance.compareAndSet(current, current.retire())) {
+                accounts.remove(userId, account);
+            }
+        });
+    }
+
+    /**
+     * The storage limits of a role.
+     */
+    private record Quota(long maxBytes, long maxFiles) {
+
+        void check(Balance balance, Integer userId) {
+            if (balance.usedBytes() + balance.reservedBytes() > maxBytes) {
+                throw new QuotaExceededException(
+                        "Storage quota of user %d exceeded: limit is %d bytes".formatted(userId, maxBytes));
+            }
+            if (balance.usedFiles() + balance.reservedFiles() > maxFiles) {
+                throw new QuotaExceededException(
+                        "Storage quota of user %d exceeded: limit is %d files".formatted(userId, maxFiles));
+            }
+        }
+    }
+
+    /**
+     * An immutable snapshot of the used and reserved space of an account.
+     * A retired balance belongs to an account that has been evicted and must not change anymore.
+     */
+    private record Balance(long usedBytes, long usedFiles, long reservedBytes, long reservedFiles, boolean retired) {
+
+        Balance reserve(long bytes, long files) {
+            return new Balance(usedBytes, usedFiles, reservedBytes + bytes, reservedFiles + files, retired);
+        }
+
+        Balance use(long bytes, long files) {
+            return new Balance(usedBytes + bytes, usedFiles + files, reservedBytes, reservedFiles, retired);
+        }
+
+        Balance settle(Reservation reservation, long usedBytes, long usedFiles) {
+            return new Balance(
+                    this.usedBytes + usedBytes,
+                    this.usedFiles + usedFiles,
+                    reservedBytes - reservation.bytes.get(),
+                    reservedFiles - reservation.files,
+                    retired
+            );
+        }
+
+        Balance retire() {
+            return new Balance(usedBytes, usedFiles, reservedBytes, reservedFiles, true);
+        }
+
+        boolean idle() {
+            return !retired && reservedBytes == 0 && reservedFiles == 0;
+        }
+    }
+
+    private static final class Account {
+
+        private final Quota quota;
+        private final AtomicReference<Balance> balance;
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        private Account(Quota quota, Balance balance) {
+            this.quota = quota;
+            this.balance = new AtomicReference<>(balance);
+        }
+
+        private void update(UnaryOperator<Balance> change) {
+            balance.updateAndGet(change);
+            lastActivity = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Space reserved for one upload. Obtained from {@link #reserve} or {@link #reserveDurable}
+     * and settled exactly once by {@link #confirm} or {@link #release}. A reservation that grows
+     * while its content streams in is settled by the same thread that reads the content.
+     */
+    public static final class Reservation {
+
+        private final UUID id;
+        private final Integer userId;
+        private final Account account;
+        private final int files;
+        private final boolean durable;
+        private final Instant createdAt;
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private Reservation(UUID id, Integer userId, Account account, int files, boolean durable, Instant createdAt) {
+            this.id = id;
+            this.userId = userId;
+            this.account = account;
+            this.files = files;
+            this.durable = durable;
+            this.createdAt = createdAt;
+        }
+
+        private QuotaReservation toEntity() {
+            return QuotaReservation.builder()
+                    .id(id)
+                    .userId(userId)
+                    .bytes(bytes.get())
+                    .files(files)
+                    .createdAt(createdAt)
+                    .build();
+        }
+    }
+}
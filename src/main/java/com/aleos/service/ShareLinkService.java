@@ -0,0 +1,138 @@
+package com.aleos.service;
+
+import com.aleos.dto.ShareLinkDto;
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.exception.ShareLinkUnavailableException;
+import com.aleos.storage.FileManifest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service issuing and resolving public share links of stored files.
+ * <p>
+ * A share link is the path {@code /share/<file id>} with an expiry time, a key id and an
+ * HMAC-SHA256 signature over the file id and the expiry as query parameters. Anyone holding
+ * the link may read the file until it expires; the signature proves the owner issued it, so
+ * nothing about the link is stored and checking it needs no database access.
+ * <p>
+ * The manifests of shared files are kept in memory for a while, so repeated hits on a popular
+ * link are served without a metadata query either. A file's content never changes, only its
+ * deletion makes a cached manifest stale; deleting a file evicts it on this node, and other nodes
+ * drop it once it expires from their cache.
+ * <p>
+ * Share links are optional: without a signing key the application starts, logs a warning and
+ * answers every request for a new link as unavailable, while the rest keeps working.
+ * <p>
+ * Dependencies:
+ * - FileContentService: Loads the manifests of shared files.
+ */
+@Service
+@Slf4j
+public class ShareLinkService {
+
+    public static final String PATH_PREFIX = "/share/";
+    public static final long DEFAULT_LIFETIME = 86400;
+
+    private final FileContentService fileContentService;
+    private final SigningKeyRing keyRing;
+    private final Cache<UUID, FileManifest> manifests;
+
+    @Value("${share.max-lifetime}")
+    private long maxLifetime;
+
+    public ShareLinkService(FileContentService fileContentService,
+                            @Value("${share.signing-keys}") String[] signingKeys,
+                            @Value("${share.manifest-cache.maximum-size}") long cacheSize,
+                            @Value("${share.manifest-cache.expire-after-write}") long cacheExpiry) {
+        this.fileContentService = fileContentService;
+        this.keyRing = new SigningKeyRing(signingKeys);
+        this.manifests = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheExpiry))
+                .build();
+    }
+
+    @PostConstruct
+    void checkSigningKeys() {
+        if (!keyRing.canSign()) {
+            log.warn("No share.signing-keys configured, share links cannot be issued");
+        }
+    }
+
+    /**
+     * Issues a share link for a file of the given user.
+     *
+     * @param ownerId  the id of the user who owns the file
+     * @param fileId   the id of the file
+     * @param lifetime the time the link stays valid in seconds, capped at the maximum lifetime
+     * @return the path of the link, relative to the context path, and its expiry time
+     * @throws ResourceNotFoundException     if the file does not exist or belongs to another user
+     * @throws ShareLinkUnavailableException if no signing key is configured
+     */
+    public ShareLinkDto issue(Integer ownerId, UUID fileId, long lifetime) {
+        if (!keyRing.canSign()) {
+            throw new ShareLinkUnavailableException("Share links are not enabled");
+        }
+        manifests.put(fileId, fileContentService.findManifest(ownerId, fileId));
+
+        long expires = Instant.now().getEpochSecond() + Math.clamp(lifetime, 1, maxLifetime);
+        String keyId = keyRing.signingKeyId();
+        String path = PATH_PREFIX + fileId
+                + "?expires=" + expires
+                + "&key=" + keyId
+                + "&signature=" + keyRing.sign(signedData(fileId, expires));
+
+        return new ShareLinkDto(path, Instant.ofEpochSecond(expires));
+    }
+
+    /**
+     * Checks the signature of a share link.
+     *
+     * @param fileId    the id of the shared file
+     * @param expires   the expiry time of the link in epoch seconds
+     * @param keyId     the id of the key the link was signed with
+     * @param signature the signature of the link
+     * @return true if the link was issued by this application, whether or not it has expired
+     */
+    public boolean isGenuine(UUID fileId, long expires, String keyId, String signature) {
+        return keyRing.verify(keyId, signedData(fileId, expires), signature);
+    }
+
+    /**
+     * Resolves the manifest of a shared file, from memory if it was served recently.
+     *
+     * @param fileId the id of the shared file
+     * @return the manifest, or empty if the file has been deleted
+     */
+    public Optional<FileManifest> findManifest(UUID fileId) {
+        FileManifest cached = manifests.getIfPresent(fileId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<FileManifest> manifest = fileContentService.findManifest(fileId);
+        manifest.ifPresent(m -> manifests.put(fileId, m));
+        return manifest;
+    }
+
+    /**
+     * Forgets the cached manifest of a file, e.g. after it has been deleted.
+     *
+     * @param fileId the id of the file
+     */
+    public void evict(UUID fileId) {
+        manifests.invalidate(fileId);
+    }
+
+    private static String signedData(UUID fileId, long expires) {
+        return "share:" + fileId + ":" + expires;
+    }
+}
@@ -0,0 +1,117 @@
+package com.aleos.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A set of HMAC-SHA256 keys identified by short ids, supporting key rotation.
+ * <p>
+ * Keys are configured as {@code <key id>:<base64 secret>} entries. The first entry signs, and
+ * every entry verifies, so a key is rotated by putting a new one in front and dropping the old
+ * one once nothing signed with it is valid anymore. Signatures are URL-safe base64 without padding.
+ */
+public class SigningKeyRing {
+
+    public static final Pattern KEY_ID = Pattern.compile("[A-Za-z0-9_-]{1,16}");
+    public static final Pattern SIGNATURE = Pattern.compile("[A-Za-z0-9_-]{43}");
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+
+    private final Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+    private final String signingKeyId;
+
+    /**
+     * @param entries the keys as {@code <key id>:<base64 secret>}, the signing key first; blank entries are skipped
+     * @throws IllegalStateException if an entry is malformed or its secret is shorter than 32 bytes
+     */
+    public SigningKeyRing(String[] entries) {
+        for (String entry : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":", 2);
+            byte[] secret = parts.length == 2 ? decodeSecret(parts[1]) : new byte[0];
+            if (secret.length < MIN_KEY_BYTES || !KEY_ID.matcher(parts[0]).matches()) {
+                throw malformedKey(null);
+            }
+            keys.put(parts[0], new SecretKeySpec(secret, ALGORITHM));
+        }
+        this.signingKeyId = keys.isEmpty() ? null : keys.keySet().iterator().next();
+    }
+
+    /**
+     * @return true if a key to sign with is configured
+     */
+    public boolean canSign() {
+        return signingKeyId != null;
+    }
+
+    /**
+     * @return the id of the key new signatures are made with
+     * @throws IllegalStateException if no key is configured
+     */
+    public String signingKeyId() {
+        if (signingKeyId == null) {
+            throw new IllegalStateException("No signing key is configured");
+        }
+        return signingKeyId;
+    }
+
+    /**
+     * Signs the given data with the current signing key.
+     *
+     * @param data the data to sign
+     * @return the signature
+     * @throws IllegalStateException if no key is configured
+     */
+    public String sign(String data) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac(keys.get(signingKeyId()), data));
+    }
+
+    /**
+     * Checks a signature in constant time.
+     *
+     * @param keyId     the id of the key the data was signed with
+     * @param data      the signed data
+     * @param signature the signature to check
+     * @return true if the key is known and the signature matches
+     */
+    public boolean verify(String keyId, String data, String signature) {
+        SecretKeySpec key = keyId != null ? keys.get(keyId) : null;
+        if (key == null || signature == null || !SIGNATURE.matcher(signature).matches()) {
+            return false;
+        }
+        return MessageDigest.isEqual(Base64.getUrlDecoder().decode(signature), mac(key, data));
+    }
+
+    private static byte[] decodeSecret(String secret) {
+        try {
+            return Base64.getDecoder().decode(secret);
+        } catch (IllegalArgumentException e) {
+            throw malformedKey(e);
+        }
+    }
+
+    private static IllegalStateException malformedKey(Throwable cause) {
+        return new IllegalStateException("Signing keys must read <id>:<base64 secret> with a secret of at least "
+                + MIN_KEY_BYTES + " bytes", cause);
+    }
+
+    private static byte[] mac(SecretKeySpec key, String data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to compute the signature", e);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.aleos.service;
+
+import com.aleos.dto.OpenUploadSessionPayload;
+import com.aleos.exception.QuotaExceededException;
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.exception.UploadSessionException;
+import com.aleos.model.StoredFile;
+import com.aleos.model.UploadPart;
+import com.aleos.model.UploadSession;
+import com.aleos.model.UploadSessionStatus;
+import com.aleos.repository.UploadPartRepository;
+import com.aleos.repository.UploadSessionRepository;
+import com.aleos.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service responsible for resumable, multipart upload sessions.
+ * <p>
+ * A client opens a session for a file of known size and receives the part layout.
+ * Parts may then be uploaded in any order and in parallel over separate connections;
+ * each one is written at its own offset of a shared staging file and recorded once it
+ * is on disk. After a dropped connection the client asks for the received parts and
+ * sends only the missing ones. Committing the session turns the staging file into a
+ * regular stored file.
+ * <p>
+ * A commit claims its session by moving it from OPEN to COMMITTING with a conditional update
+ * before the staging file is read, so a retried or concurrent commit, an abort or the cleanup
+ * finds the session taken and is rejected instead of storing the file twice or releasing the
+ * reservation of a file being stored. A failed commit returns the session to OPEN.
+ * <p>
+ * Database work is done in short, separate statements; no transaction or connection
+ * is held while part content is being streamed.
+ * <p>
+ * The space of the whole file is reserved in the {@link QuotaLedger} when the session is
+ * opened, so a session that is accepted can always be committed as far as the quota goes.
+ * <p>
+ * Sessions that are abandoned instead of being committed or aborted are aborted by a periodic
+ * cleanup once neither their state nor their parts have changed for the idle timeout: the
+ * staging file is removed and the reservation released. A session left COMMITTING by a node
+ * that stopped halfway through a commit is aborted the same way. Every node runs the cleanup; sessions
+ * are claimed with row locks skipping those claimed already, and every node releases the
+ * reservations it holds of sessions closed by any node, including those it restored on startup.
+ * <p>
+ * Dependencies:
+ * - UploadSessionRepository: Manages upload sessions in the database.
+ * - UploadPartRepository: Manages received parts in the database.
+ * - UserRepository: Resolves the owner reference of a new session.
+ * - FileStorageService: Writes part content and promotes completed uploads.
+ * - QuotaLedger: Reserves the space of a session until it is committed or aborted.
+ * - FolderService: Checks the folder a session uploads into.
+ * - PlatformTransactionManager: Runs every cleanup batch in its own transaction.
+ */
+@Service
+@Slf4j
+public class UploadSessionService {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadPartRepository uploadPartRepository;
+    private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+    private final QuotaLedger quotaLedger;
+    private final FolderService folderService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${storage.upload.part-size}")
+    private long defaultPartSize;
+
+    @Value("${storage.upload.max-parts}")
+    private int maxParts;
+
+    @Value("${storage.upload.idle-timeout}")
+    private long idleTimeout;
+
+    @Value("${storage.upload.cleanup-batch-size}")
+    private int cleanupBatchSize;
+
+    public UploadSessionService(UploadSessionRepository uploadSessionRepository,
+                                UploadPartRepository uploadPartRepository,
+                                UserRepository userRepository,
+                                FileStorageService fileStorageService,
+                                QuotaLedger quotaLedger,
+                                FolderService folderService,
+                                PlatformTransactionManager transactionManager) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.uploadPartRepository = uploadPartRepository;
+        this.userRepository = userRepository;
+        this.fileStorageService = fileStorageService;
+        this.quotaLedger = quotaLedger;
+        this.folderService = folderService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Opens a new upload session. The part size is the configured default unless the file
+     * is so large that it would need more than the maximum number of parts.
+     *
+     * @param ownerId the id of the user opening the session
+     * @param payload the name, media type, total size and target folder of the file
+     * @return the persisted session
+     * @throws QuotaExceededException    if the file does not fit the quota of the user
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     */
+    public UploadSession open(Integer ownerId, OpenUploadSessionPayload payload) {
+        if (payload.folderId() != null) {
+            folderService.find(ownerId, payload.folderId());
+        }
+        long totalSize = payload.totalSize();
+        long partSize = Math.max(defaultPartSize, Math.ceilDiv(totalSize, maxParts));
+        int partCount = (int) Math.max(1, Math.ceilDiv(totalSize, partSize));
+
+        UploadSession session = UploadSession.builder()
+                .owner(userRepository.getReferenceById(ownerId))
+                .folderId(payload.folderId())
+                .fileName(payload.fileName())
+                .contentType(payload.contentType() != null ? payload.contentType() : DEFAULT_CONTENT_TYPE)
+                .totalSize(totalSize)
+                .partSize(partSize)
+                .partCount(partCount)
+                .build();
+
+        UploadSession saved = uploadSessionRepository.save(session);
+        try {
+            quotaLedger.reserveDurable(saved.getId(), ownerId, totalSize);
+        } catch (QuotaExceededException e) {
+            uploadSessionRepository.delete(saved);
+            throw e;
+        }
+
+        return saved;
+    }
+
+    /**
+     * Retrieves an upload session of the given user.
+     *
+     * @param ownerId   the id of the user who owns the session
+     * @param sessionId the id of the session
+     * @return the session
+     * @throws ResourceNotFoundException if the session does not exist or belongs to another user
+     */
+    public UploadSession find(Integer ownerId, UUID sessionId) {
+        return uploadSessionRepository.findByIdAndOwnerId(sessionId, ownerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session not found: " + sessionId));
+    }
+
+    /**
+     * Returns the numbers of the parts already received for a session, in ascending order.
+     *
+     * @param sessionId the id of the session
+     * @return the received part numbers
+     */
+    public List<Integer> receivedParts(UUID sessionId) {
+        return uploadPartRepository.findPartNumbersBySessionId(sessionId);
+    }
+
+    /**
+     * Streams one part of an open session to disk and records it as received.
+     * Uploading a part that was already received overwrites it.
+     *
+     * @param ownerId    the id of the user who owns the session
+     * @param sessionId  the id of the session
+     * @param partNumber the 1-based number of the part
+     * @param content    the raw part content
+     * @return the recorded part
+     * @throws UploadSessionException if the session is not open or the part does not fit its layout
+     */
+    public UploadPart uploadPart(Integer ownerId, UUID sessionId, int partNumber, InputStream content) {
+        UploadSession session = findOpen(ownerId, sessionId);
+        if (partNumber < 1 || partNumber > session.getPartCount()) {
+            throw new UploadSessionException(
+                    "Part number %d is out of range 1..%d".formatted(partNumber, session.getPartCount()));
+        }
+
+        long expectedSize = session.expectedPartSize(partNumber);
+        String sha256 = fileStorageService.writePart(
+                fileStorageService.stagingFile(sessionId),
+                session.partOffset(partNumber),
+                expectedSize,
+                content
+        );
+
+        return uploadPartRepository.save(UploadPart.builder()
+                .sessionId(sessionId)
+                .partNumber(partNumber)
+                .size(expectedSize)
+                .sha256(sha256)
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Completes a session whose parts have all been received and stores the assembled file.
+     *
+     * @param ownerId   the id of the user who owns the session
+     * @param sessionId the id of the session
+     * @return the metadata of the stored file
+     * @throws UploadSessionException if the session is not open, is being committed already or
+     *                                some parts are missing
+     */
+    public StoredFile commit(Integer ownerId, UUID sessionId) {
+        UploadSession session = findOpen(ownerId, sessionId);
+        long received = uploadPartRepository.countBySessionId(sessionId);
+        if (received != session.getPartCount()) {
+            throw new UploadSessionException(
+                    "Upload session %s is missing %d of %d parts".formatted(
+                            sessionId, session.getPartCount() - received, session.getPartCount()));
+        }
+
+        transition(sessionId, UploadSessionStatus.OPEN, UploadSessionStatus.COMMITTING);
+        StoredFile storedFile;
+        try {
+            storedFile = fileStorageService.storeStaged(
+                    ownerId,
+                    session.getFolderId(),
+                    session.getFileName(),
+                    session.getContentType(),
+                    fileStorageService.stagingFile(sessionId)
+            );
+        } catch (RuntimeException e) {
+            uploadSessionRepository.transition(
+                    sessionId, UploadSessionStatus.COMMITTING, UploadSessionStatus.OPEN, Instant.now());
+            throw e;
+        }
+
+        quotaLedger.confirm(sessionId, ownerId, storedFile.getSize());
+        uploadSessionRepository.transition(
+                sessionId, UploadSessionStatus.COMMITTING, UploadSessionStatus.COMMITTED, Instant.now());
+
+        return storedFile;
+    }
+
+    /**
+     * Aborts an open session, discarding every part received so far.
+     *
+     * @param ownerId   the id of the user who owns the session
+     * @param sessionId the id of the session
+     * @throws UploadSessionException if the session is not open or is being committed
+     */
+    public void abort(Integer ownerId, UUID sessionId) {
+        findOpen(ownerId, sessionId);
+        transition(sessionId, UploadSessionStatus.OPEN, UploadSessionStatus.ABORTED);
+
+        fileStorageService.discardStaged(fileStorageService.stagingFile(sessionId));
+        quotaLedger.release(sessionId);
+    }
+
+    /**
+     * Aborts the sessions that have been idle for longer than the idle timeout, batch by batch,
+     * and releases the reservations of sessions that are no longer open.
+     */
+    @Scheduled(cron = "${storage.upload.cleanup-cron}")
+    public void expireIdle() {
+        Instant cutoff = Instant.now().minusSeconds(idleTimeout);
+        long expired = 0;
+        List<UUID> batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<UUID> ids = uploadSessionRepository.lockIdleBatch(cutoff, cleanupBatchSize);
+                if (!ids.isEmpty()) {
+                    uploadSessionRepository.abortAll(ids, Instant.now());
+                }
+                return ids;
+            });
+            batch.forEach(id -> fileStorageService.discardStaged(fileStorageService.stagingFile(id)));
+            expired += batch.size();
+        } while (batch.size() == cleanupBatchSize);
+
+        List<UUID> held = new ArrayList<>(quotaLedger.durableReservationIds());
+        for (int from = 0; from < held.size(); from += cleanupBatchSize) {
+            uploadSessionRepository.findClosedIds(held.subList(from, Math.min(from + cleanupBatchSize, held.size())))
+                    .forEach(quotaLedger::release);
+        }
+
+        if (expired > 0) {
+            log.info("Aborted {} idle upload sessions", expired);
+        }
+    }
+
+    private void transition(UUID sessionId, UploadSessionStatus from, UploadSessionStatus to) {
+        if (uploadSessionRepository.transition(sessionId, from, to, Instant.now()) == 0) {
+            throw new UploadSessionException("Upload session %s is no longer open".formatted(sessionId));
+        }
+    }
+
+    private UploadSession findOpen(Integer ownerId, UUID sessionId) {
+        UploadSession session = find(ownerId, sessionId);
+        if (session.getStatus() != UploadSessionStatus.OPEN) {
+            throw new UploadSessionException(
+                    "Upload session %s is %s".formatted(sessionId, session.getStatus().name().toLowerCase()));
+        }
+        return session;
+    }
+}
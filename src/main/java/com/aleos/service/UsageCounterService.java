@@ -0,0 +1,257 @@
+package com.aleos.service;
+
+import com.aleos.dto.UsageSummaryDto;
+import com.aleos.model.UsageMetric;
+import com.aleos.model.UsageTotal;
+import com.aleos.model.UserUsage;
+import com.aleos.repository.UsageDelta;
+import com.aleos.repository.UsageTotalRepository;
+import com.aleos.repository.UserUsageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service maintaining the per-user and system-wide usage counters shown on the dashboard.
+ * <p>
+ * The upload and delete paths only record changes in memory: per-user changes in a
+ * concurrent map, whose bins already spread concurrent writers, and system-wide changes,
+ * which every writer touches, in {@link LongAdder}s. The accumulated changes are applied to
+ * the counter tables in one batch per flush interval, so reading a counter is a primary key
+ * lookup plus the changes not flushed yet instead of a COUNT/SUM over the files table.
+ * <p>
+ * Changes are recorded only once the surrounding transaction commits. A flush first moves the
+ * pending changes to an in-flight set, writes that set and takes the changes out of it only
+ * after the write has committed. A failed flush leaves them in flight to be written again by
+ * the next one. Reads add the pending changes, then the in-flight ones, then the stored
+ * counters: a change moving from one to the next may be counted twice for a moment, but is
+ * never missed, so the quota ledger cannot read usage too low. Because the counters can still
+ * drift, e.g. after a crash between two flushes, they are recomputed from the files on startup.
+ * <p>
+ * Every flush also copies the new usage of the affected users into the hourly and daily
+ * rollups read by {@link UsageHistoryService}, so the usage history is built up as a side
+ * effect of the writes instead of being computed from file events when it is read.
+ * <p>
+ * Dependencies:
+ * - UserUsageRepository: Stores the per-user counters and rollups and applies batched changes.
+ * - UsageTotalRepository: Stores the system-wide counters.
+ * - PlatformTransactionManager: Runs every flush in its own transaction.
+ */
+@Service
+@Slf4j
+public class UsageCounterService {
+
+    private final UserUsageRepository userUsageRepository;
+    private final UsageTotalRepository usageTotalRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Unflushed per-user changes. Entries are only modified inside map operations that lock
+     * their bin, so a flush can detach an entry atomically without losing a concurrent update.
+     */
+    private final ConcurrentHashMap<Integer, PendingUsage> pendingByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Per-user changes taken by a flush that has not committed yet. Only modified by the flush,
+     * which runs one at a time.
+     */
+    private final ConcurrentHashMap<Integer, PendingUsage> inFlightByUser = new ConcurrentHashMap<>();
+
+    private final Map<UsageMetric, LongAdder> pendingTotals = new EnumMap<>(UsageMetric.class);
+    private final Map<UsageMetric, LongAdder> inFlightTotals = new EnumMap<>(UsageMetric.class);
+
+    public UsageCounterService(UserUsageRepository userUsageRepository,
+                               UsageTotalRepository usageTotalRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.userUsageRepository = userUsageRepository;
+        this.usageTotalRepository = usageTotalRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (UsageMetric metric : UsageMetric.values()) {
+            pendingTotals.put(metric, new LongAdder());
+            inFlightTotals.put(metric, new LongAdder());
+        }
+    }
+
+    /**
+     * Records a file added to the storage of a user.
+     *
+     * @param ownerId the id of the user who owns the file
+     * @param size    the file size in bytes
+     */
+    public void fileAdded(Integer ownerId, long size) {
+        afterCommit(() -> record(ownerId, 1, size));
+    }
+
+    /**
+     * Records several files added to the storage of a user at once.
+     *
+     * @param ownerId the id of the user who owns the files
+     * @param files   the number of files
+     * @param size    the total size of the files in bytes
+     */
+    public void filesAdded(Integer ownerId, long files, long size) {
+        afterCommit(() -> record(ownerId, files, size));
+    }
+
+    /**
+     * Records a file removed from the storage of a user.
+     *
+     * @param ownerId the id of the user who owned the file
+     * @param size    the file size in bytes
+     */
+    public void fileRemoved(Integer ownerId, long size) {
+        afterCommit(() -> record(ownerId, -1, -size));
+    }
+
+    /**
+     * Records a user account that has been activated.
+     */
+    public void userActivated() {
+        afterCommit(() -> pendingTotals.get(UsageMetric.ACTIVE_USERS).increment());
+    }
+
+    /**
+     * Reads the dashboard figures for a user.
+     *
+     * @param userId the id of the user
+     * @return the number and total size of the user's files and the number of active users
+     */
+    @Transactional(readOnly = true)
+    public UsageSummaryDto summary(Integer userId) {
+        long fileCount = 0;
+        long bytesUsed = 0;
+        for (PendingUsage pending : new PendingUsage[]{pendingByUser.get(userId), inFlightByUser.get(userId)}) {
+            if (pending != null) {
+                fileCount += pending.files;
+                bytesUsed += pending.bytes;
+            }
+        }
+        UserUsage stored = userUsageRepository.findById(userId).orElse(null);
+        if (stored != null) {
+            fileCount += stored.getFileCount();
+            bytesUsed += stored.getBytesUsed();
+        }
+
+        return new UsageSummaryDto(fileCount, bytesUsed, total(UsageMetric.ACTIVE_USERS));
+    }
+
+    /**
+     * Reads a system-wide usage figure.
+     *
+     * @param metric the figure to read
+     * @return the stored value plus the changes not flushed yet
+     */
+    @Transactional(readOnly = true)
+    public long total(UsageMetric metric) {
+        long pending = pendingTotals.get(metric).sum() + inFlightTotals.get(metric).sum();
+        long stored = usageTotalRepository.findById(metric)
+                .map(UsageTotal::getAmount)
+                .orElse(0L);
+        return stored + pending;
+    }
+
+    /**
+     * Applies the changes accumulated since the previous flush to the counter tables
+     * and the usage rollups in one transaction.
+     */
+    @Scheduled(fixedDelayString = "${usage.flush-interval}", initialDelayString = "${usage.flush-interval}")
+    @PreDestroy
+    public synchronized void flush() {
+        for (Integer userId : pendingByUser.keySet()) {
+            // Moved within the bin lock of the pending entry, which a read reaches before the in-flight one
+            pendingByUser.computeIfPresent(userId, (id, pending) -> {
+                add(inFlightByUser, id, pending.files, pending.bytes);
+                return null;
+            });
+        }
+        pendingTotals.forEach((metric, adder) -> {
+            long delta = adder.sum();
+            inFlightTotals.get(metric).add(delta);
+            adder.add(-delta);
+        });
+
+        List<UsageDelta> userDeltas = new ArrayList<>();
+        inFlightByUser.forEach((userId, inFlight) ->
+                userDeltas.add(new UsageDelta(userId, inFlight.files, inFlight.bytes)));
+        Map<UsageMetric, Long> totalDeltas = new EnumMap<>(UsageMetric.class);
+        inFlightTotals.forEach((metric, adder) -> {
+            long delta = adder.sum();
+            if (delta != 0) {
+                totalDeltas.put(metric, delta);
+            }
+        });
+        if (userDeltas.isEmpty() && totalDeltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            Instant now = Instant.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                userUsageRepository.addUserUsage(userDeltas);
+                userUsageRepository.addTotals(totalDeltas);
+                userUsageRepository.recordLevels(userDeltas.stream().map(UsageDelta::userId).toList(), now);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush usage counters, retrying with the next flush", e);
+            return;
+        }
+
+        userDeltas.forEach(delta -> add(inFlightByUser, delta.userId(), -delta.files(), -delta.bytes()));
+        totalDeltas.forEach((metric, delta) -> inFlightTotals.get(metric).add(-delta));
+    }
+
+    /**
+     * Recomputes all counters from the files and users tables, discarding accumulated drift.
+     */
+    @Transactional
+    public void reconcile() {
+        userUsageRepository.reconcile();
+    }
+
+    private void record(Integer ownerId, long files, long bytes) {
+        add(pendingByUser, ownerId, files, bytes);
+        pendingTotals.get(UsageMetric.FILES).add(files);
+        pendingTotals.get(UsageMetric.BYTES).add(bytes);
+    }
+
+    private static void add(ConcurrentHashMap<Integer, PendingUsage> changes, Integer userId, long files, long bytes) {
+        changes.compute(userId, (id, pending) -> {
+            PendingUsage usage = pending != null ? pending : new PendingUsage();
+            usage.files += files;
+            usage.bytes += bytes;
+            return usage.files != 0 || usage.bytes != 0 ? usage : null;
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class PendingUsage {
+        private volatile long files;
+        private volatile long bytes;
+    }
+}
@@ -0,0 +1,138 @@
+package com.aleos.service;
+
+import com.aleos.dto.UsagePointDto;
+import com.aleos.dto.UsageSeriesDto;
+import com.aleos.model.UsageRange;
+import com.aleos.model.UsageResolution;
+import com.aleos.model.UserUsage;
+import com.aleos.repository.UsageLevel;
+import com.aleos.repository.UserUsageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service responsible for the storage usage history shown on the dashboard chart.
+ * <p>
+ * The history is read from the hourly and daily rollups written by
+ * {@link UsageCounterService} on every flush, never from the files table. A range is split
+ * into equal slots aligned to the epoch, one per chart point, and each point carries the
+ * level of the newest rollup row before the end of its slot. Because the slots only move
+ * when a new slot begins, a response stays identical, and can be revalidated by its ETag,
+ * until either a slot boundary passes or the usage of the user changes.
+ * <p>
+ * Dependencies:
+ * - UserUsageRepository: Provides the usage rollups and the time of the last change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UsageHistoryService {
+
+    public static final int DEFAULT_POINTS = 60;
+    public static final int MAX_POINTS = 500;
+
+    private final UserUsageRepository userUsageRepository;
+
+    @Value("${usage.history.hourly-retention-days}")
+    private int hourlyRetentionDays;
+
+    /**
+     * Computes an entity tag for the series that {@link #series} would return at the given time.
+     *
+     * @param userId the id of the user
+     * @param range  the time range of the chart
+     * @param points the requested number of chart points
+     * @param now    the current time
+     * @return a value that changes whenever the series changes
+     */
+    @Transactional(readOnly = true)
+    public String etag(Integer userId, UsageRange range, int points, Instant now) {
+        Window window = window(range, points, now);
+        long version = userUsageRepository.findById(userId)
+                .map(UserUsage::getUpdatedAt)
+                .map(Instant::toEpochMilli)
+                .orElse(0L);
+        return "%s-%d-%d-%d".formatted(range, window.step().toSeconds(), window.to().getEpochSecond(), version);
+    }
+
+    /**
+     * Samples the storage usage of a user over a time range.
+     *
+     * @param userId the id of the user
+     * @param range  the time range of the chart
+     * @param points the requested number of chart points, capped at {@link #MAX_POINTS}
+     * @param now    the current time
+     * @return one point per slot, at most the requested number
+     */
+    @Transactional(readOnly = true)
+    public UsageSeriesDto series(Integer userId, UsageRange range, int points, Instant now) {
+        Window window = window(range, points, now);
+        UsageResolution resolution = range.getResolution();
+
+        List<UsageLevel> levels = userUsageRepository.findLevels(resolution, userId, window.from(), window.to());
+        UsageLevel current = baseline(userId, resolution, window.from());
+
+        List<UsagePointDto> series = new ArrayList<>(window.slots());
+        int next = 0;
+        for (int slot = 1; slot <= window.slots(); slot++) {
+            Instant slotEnd = window.from().plus(window.step().multipliedBy(slot));
+            while (next < levels.size() && levels.get(next).bucketStart().isBefore(slotEnd)) {
+                current = levels.get(next++);
+            }
+            series.add(new UsagePointDto(slotEnd, current.fileCount(), current.bytesUsed()));
+        }
+
+        return new UsageSeriesDto(range, window.from(), window.to(), window.step(), series);
+    }
+
+    /**
+     * Removes hourly rollups that no range reads anymore. Daily rollups are kept.
+     */
+    @Scheduled(cron = "${usage.history.prune-cron}")
+    @Transactional
+    public void pruneHourly() {
+        int deleted = userUsageRepository.deleteLevelsBefore(
+                UsageResolution.HOURLY, UsageResolution.HOURLY.bucketOf(Instant.now().minus(Duration.ofDays(hourlyRetentionDays))));
+        log.debug("Pruned {} hourly usage rollups", deleted);
+    }
+
+    /**
+     * The level at the start of the range: the newest row before it, falling back to the
+     * daily rollups for users whose hourly rows have been pruned.
+     */
+    private UsageLevel baseline(Integer userId, UsageResolution resolution, Instant from) {
+        Optional<UsageLevel> level = userUsageRepository.findLevelBefore(resolution, userId, from);
+        if (level.isEmpty() && resolution != UsageResolution.DAILY) {
+            level = userUsageRepository.findLevelBefore(
+                    UsageResolution.DAILY, userId, UsageResolution.DAILY.bucketOf(from));
+        }
+        return level.orElse(new UsageLevel(from, 0, 0));
+    }
+
+    private static Window window(UsageRange range, int points, Instant now) {
+        long bucket = range.getResolution().getBucketSize().toSeconds();
+        long duration = range.getDuration().toSeconds();
+        int requested = Math.clamp(points, 2, MAX_POINTS);
+
+        // Slots span whole rollup buckets, so no point falls between two rows of the same bucket
+        long step = Math.ceilDiv(Math.ceilDiv(duration, requested), bucket) * bucket;
+        int slots = (int) Math.ceilDiv(duration, step);
+        long to = Math.ceilDiv(now.getEpochSecond() + 1, step) * step;
+
+        return new Window(Instant.ofEpochSecond(to - slots * step), Instant.ofEpochSecond(to),
+                Duration.ofSeconds(step), slots);
+    }
+
+    private record Window(Instant from, Instant to, Duration step, int slots) {
+    }
+}
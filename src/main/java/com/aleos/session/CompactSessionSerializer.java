@@ -0,0 +1,51 @@
+package com.aleos.session;
+
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Serializer of session attributes that deflates the Java serialization form.
+ * <p>
+ * Serialized attributes, the security context in particular, consist largely of repeated class
+ * descriptors and field names, which compress to a fraction of their size. Smaller attribute rows
+ * mean less I/O on every session load and save and keep most rows out of TOAST storage.
+ */
+public class CompactSessionSerializer implements Serializer<Object>, Deserializer<Object> {
+
+    private final Serializer<Object> serializer = new DefaultSerializer();
+    private final Deserializer<Object> deserializer;
+
+    public CompactSessionSerializer(ClassLoader classLoader) {
+        this.deserializer = new DefaultDeserializer(classLoader);
+    }
+
+    @Override
+    public void serialize(Object object, OutputStream outputStream) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream deflating = new DeflaterOutputStream(outputStream, deflater)) {
+            serializer.serialize(object, deflating);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public Object deserialize(InputStream inputStream) throws IOException {
+        Inflater inflater = new Inflater();
+        try (InflaterInputStream inflating = new InflaterInputStream(inputStream, inflater)) {
+            return deserializer.deserialize(inflating);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.aleos.session;
+
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Session repository that keeps the last access time of sessions from being written on every request.
+ * <p>
+ * Spring Session touches the session on every request, and a store that persists each touch turns
+ * every page view and API call into a write. This repository decorates any indexed store and only
+ * passes a new last access time on once the stored one is older than the touch interval, so a
+ * session that sees no other change is written at most once per interval. A session may therefore
+ * expire up to one interval earlier than its inactivity timeout, which should be chosen much
+ * longer than the interval.
+ * <p>
+ * Any other change, such as a new attribute, is saved as before.
+ *
+ * @param <S> the type of the sessions of the decorated store
+ */
+public class ThrottledSessionRepository<S extends Session>
+        implements FindByIndexNameSessionRepository<ThrottledSessionRepository.ThrottledSession<S>> {
+
+    private final FindByIndexNameSessionRepository<S> delegate;
+    private final Duration touchInterval;
+
+    public ThrottledSessionRepository(FindByIndexNameSessionRepository<S> delegate, Duration touchInterval) {
+        this.delegate = delegate;
+        this.touchInterval = touchInterval;
+    }
+
+    @Override
+    public ThrottledSession<S> createSession() {
+        return new ThrottledSession<>(delegate.createSession(), touchInterval);
+    }
+
+    @Override
+    public void save(ThrottledSession<S> session) {
+        delegate.save(session.delegate);
+    }
+
+    @Override
+    public ThrottledSession<S> findById(String id) {
+        S session = delegate.findById(id);
+        return session != null ? new ThrottledSession<>(session, touchInterval) : null;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public Map<String, ThrottledSession<S>> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        Map<String, ThrottledSession<S>> sessions = new LinkedHashMap<>();
+        delegate.findByIndexNameAndIndexValue(indexName, indexValue)
+                .forEach((id, session) -> sessions.put(id, new ThrottledSession<>(session, touchInterval)));
+        return sessions;
+    }
+
+    /**
+     * A session whose last access time is only updated once the stored one is older than the touch interval.
+     *
+     * @param <S> the type of the decorated session
+     */
+    public static final class ThrottledSession<S extends Session> implements Session {
+
+        private final S delegate;
+        private final Duration touchInterval;
+
+        private ThrottledSession(S delegate, Duration touchInterval) {
+            this.delegate = delegate;
+            this.touchInterval = touchInterval;
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            if (!lastAccessedTime.isBefore(delegate.getLastAccessedTime().plus(touchInterval))) {
+                delegate.setLastAccessedTime(lastAccessedTime);
+            }
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.aleos.storage;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * What goes into an archive download.
+ * <p>
+ * The directories are known up front, while the file entries are resolved lazily, page by page, as the
+ * archive is written, so the metadata of a large folder is never held in memory at once.
+ *
+ * @param name        the name of the archive without extension
+ * @param directories the paths of the directories within the archive, each ending with '/', parents first
+ * @param entries     the files of the archive, in the order they are written
+ */
+public record ArchiveContent(
+        String name,
+        List<String> directories,
+        Iterator<ArchiveEntry> entries
+) {
+}
@@ -0,0 +1,13 @@
+package com.aleos.storage;
+
+/**
+ * A file to be written into an archive.
+ *
+ * @param path     the path of the entry within the archive, using '/' as separator
+ * @param manifest the file whose content the entry holds
+ */
+public record ArchiveEntry(
+        String path,
+        FileManifest manifest
+) {
+}
@@ -0,0 +1,167 @@
+package com.aleos.storage;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveException;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.ArchiveStreamFactory;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads the entries of a ZIP or TAR archive, optionally gzip-compressed, from a stream as it arrives.
+ * <p>
+ * The format is detected from the first bytes. ZIP archives are read from their local headers, so the
+ * central directory at the end is never needed; stored entries followed by a data descriptor are read
+ * as well. Only directories and regular files are reported, links and special files are skipped.
+ * <p>
+ * Entry paths are split into names with empty and "." segments dropped. A ".." segment, an overlong
+ * name or an entry that cannot be read, such as an encrypted one, fails the archive.
+ */
+public final class ArchiveReader implements Closeable {
+
+    public static final int MAX_NAME_LENGTH = 255;
+
+    private static final int GZIP_MAGIC = 0x1f8b;
+
+    private final ArchiveInputStream<? extends ArchiveEntry> archive;
+
+    private ArchiveReader(ArchiveInputStream<? extends ArchiveEntry> archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * An entry of an archive.
+     *
+     * @param path      the names along the path of the entry, never empty
+     * @param directory whether the entry is a directory rather than a file
+     */
+    public record Entry(List<String> path, boolean directory) {
+
+        /**
+         * @return the name of the entry itself
+         */
+        public String name() {
+            return path.getLast();
+        }
+
+        /**
+         * @return the names along the path of the directory holding the entry, empty at the top level
+         */
+        public List<String> parent() {
+            return path.subList(0, path.size() - 1);
+        }
+    }
+
+    /**
+     * Detects the format of an archive and starts reading it.
+     *
+     * @param content the archive
+     * @return a reader positioned before the first entry
+     * @throws IOException if the content cannot be read or is not a ZIP or TAR archive
+     */
+    public static ArchiveReader open(InputStream content) throws IOException {
+        InputStream in = new BufferedInputStream(content);
+        if (startsWithGzipMagic(in)) {
+            in = new BufferedInputStream(new GzipCompressorInputStream(in));
+        }
+
+        String format;
+        try {
+            format = ArchiveStreamFactory.detect(in);
+        } catch (ArchiveException e) {
+            throw new IOException("Unsupported archive format", e);
+        }
+        return switch (format) {
+            case ArchiveStreamFactory.ZIP -> new ArchiveReader(
+                    new ZipArchiveInputStream(in, StandardCharsets.UTF_8.name(), true, true));
+            case ArchiveStreamFactory.TAR -> new ArchiveReader(
+                    new TarArchiveInputStream(in, StandardCharsets.UTF_8.name()));
+            default -> throw new IOException("Unsupported archive format: " + format);
+        };
+    }
+
+    /**
+     * Advances to the next directory or regular file.
+     *
+     * @return the entry, or empty at the end of the archive
+     * @throws IOException if the archive cannot be read or the entry is not acceptable
+     */
+    public Optional<Entry> next() throws IOException {
+        ArchiveEntry entry;
+        while ((entry = archive.getNextEntry()) != null) {
+            if (entry instanceof TarArchiveEntry tar && !tar.isDirectory() && !isRegularFile(tar)
+                    || entry instanceof ZipArchiveEntry zip && zip.isUnixSymlink()) {
+                continue;
+            }
+            if (!archive.canReadEntryData(entry)) {
+                throw new IOException("Entry cannot be read, it may be encrypted: " + entry.getName());
+            }
+
+            List<String> path = split(entry.getName());
+            if (!path.isEmpty()) {
+                return Optional.of(new Entry(path, entry.isDirectory()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the content of the current entry. The stream ends with the entry; closing it has no effect.
+     *
+     * @return the content of the entry returned by the last call to {@link #next()}
+     */
+    public InputStream content() {
+        return new FilterInputStream(archive) {
+            @Override
+            public void close() {
+                // The archive stream is closed with the reader
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        archive.close();
+    }
+
+    private static boolean isRegularFile(TarArchiveEntry entry) {
+        return entry.isFile() && !entry.isSymbolicLink() && !entry.isLink();
+    }
+
+    private static boolean startsWithGzipMagic(InputStream in) throws IOException {
+        in.mark(2);
+        int magic = in.read() << 8 | in.read();
+        in.reset();
+        return magic == GZIP_MAGIC;
+    }
+
+    private static List<String> split(String name) throws IOException {
+        List<String> path = new ArrayList<>();
+        for (String segment : name.split("[/\\\\]")) {
+            if (segment.isEmpty() || segment.equals(".")) {
+                continue;
+            }
+            if (segment.equals("..")) {
+                throw new IOException("Entry points outside of the archive: " + name);
+            }
+            if (segment.length() > MAX_NAME_LENGTH) {
+                throw new IOException("Entry name is too long: " + name);
+            }
+            path.add(segment);
+        }
+        return path;
+    }
+}
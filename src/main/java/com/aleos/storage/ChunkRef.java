@@ -0,0 +1,18 @@
+package com.aleos.storage;
+
+/**
+ * A reference to a stored chunk together with its position in the file it belongs to.
+ *
+ * @param hash   hex encoded SHA-256 digest of the chunk content, which is also its key in the store
+ * @param offset the position of the first byte of the chunk within the file
+ * @param size   the chunk size in bytes
+ */
+public record ChunkRef(String hash, long offset, int size) {
+
+    /**
+     * @return the position just past the last byte of the chunk within the file
+     */
+    public long end() {
+        return offset + size;
+    }
+}
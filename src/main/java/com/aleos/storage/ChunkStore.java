@@ -0,0 +1,270 @@
+package com.aleos.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Content-addressed store of file chunks on the local file system.
+ * <p>
+ * Incoming content is split by a {@link ContentDefinedChunker} and every chunk is kept in
+ * a file named after the SHA-256 digest of its bytes, fanned out over two directory levels
+ * ({@code ab/cd/abcd...}). Identical chunks, no matter which file or user they come from,
+ * are stored once. The store knows nothing about reference counts; callers track which
+ * chunks are still in use and delete the rest.
+ * <p>
+ * Ingesting streams the content through one fixed-size buffer into a temporary chunk file,
+ * so memory use does not depend on the file or chunk size. When the finished chunk is
+ * already present the temporary file is truncated and reused for the next chunk.
+ * <p>
+ * Every chunk is in the store as soon as it is complete, before the rest of the content has
+ * been read. Callers that must clean up after a failed ingest can collect the chunks stored
+ * so far, which they learn even when ingesting fails.
+ */
+@Slf4j
+public class ChunkStore {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final String TEMP_DIRECTORY = "tmp";
+
+    private final Path root;
+    private final ContentDefinedChunker chunker;
+
+    public ChunkStore(Path root, ContentDefinedChunker chunker) {
+        this.root = root;
+        this.chunker = chunker;
+    }
+
+    /**
+     * Splits the content of the source into chunks and stores every chunk that is not present yet.
+     * The source is read to the end but not closed.
+     *
+     * @param source the content to store
+     * @return the digest, size and chunk list of the content
+     * @throws IOException if the content cannot be read or written
+     */
+    public IngestedContent ingest(ReadableByteChannel source) throws IOException {
+        return ingest(source, new ArrayList<>());
+    }
+
+    /**
+     * Splits the content of the source into chunks and stores every chunk that is not present yet,
+     * adding every chunk to the given list as soon as it is in the store. If ingesting fails,
+     * the list holds the chunks stored up to the failure.
+     * The source is read to the end but not closed.
+     *
+     * @param source the content to store
+     * @param stored the list receiving the stored chunks, whether written now or present already
+     * @return the digest, size and chunk list of the content
+     * @throws IOException if the content cannot be read or written
+     */
+    public IngestedContent ingest(ReadableByteChannel source, List<ChunkRef> stored) throws IOException {
+        MessageDigest contentDigest = sha256();
+        List<ChunkRef> chunks = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] data = buffer.array();
+        ContentDefinedChunker.Scanner scanner = chunker.newScanner();
+        long size = 0;
+
+        try (ChunkWriter writer = new ChunkWriter()) {
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                if (read == 0) {
+                    continue;
+                }
+                int end = buffer.position();
+                contentDigest.update(data, 0, end);
+                size += end;
+
+                int from = 0;
+                int boundary;
+                while ((boundary = scanner.scan(data, from, end)) != -1) {
+                    writer.append(buffer, from, boundary);
+                    chunks.add(writer.complete(chunks.isEmpty() ? 0 : chunks.getLast().end()));
+                    stored.add(chunks.getLast());
+                    from = boundary;
+                }
+                writer.append(buffer, from, end);
+                buffer.clear();
+            }
+
+            if (writer.hasContent()) {
+                chunks.add(writer.complete(chunks.isEmpty() ? 0 : chunks.getLast().end()));
+                stored.add(chunks.getLast());
+            }
+        }
+
+        return new IngestedContent(HexFormat.of().formatHex(contentDigest.digest()), size, List.copyOf(chunks));
+    }
+
+    /**
+     * Checks whether a chunk is present in the store.
+     *
+     * @param hash the chunk digest
+     * @return true if the chunk file exists
+     */
+    public boolean contains(String hash) {
+        return Files.exists(path(hash));
+    }
+
+    /**
+     * Opens a stored chunk for reading.
+     *
+     * @param hash the chunk digest
+     * @return a read-only channel over the chunk content
+     * @throws IOException if the chunk does not exist or cannot be opened
+     */
+    public FileChannel open(String hash) throws IOException {
+        return FileChannel.open(path(hash), StandardOpenOption.READ);
+    }
+
+    /**
+     * Transfers a byte range of a chunked file to the target channel. Each chunk is sent with
+     * {@link FileChannel#transferTo}, so the operating system can move the bytes without
+     * copying them through the Java heap when the target allows it.
+     *
+     * @param chunks   the chunks of the file, in order
+     * @param position the position of the first byte to transfer within the file
+     * @param count    the number of bytes to transfer
+     * @param target   the channel to write to
+     * @throws IOException if a chunk cannot be read or the target cannot be written
+     */
+    public void transfer(List<ChunkRef> chunks, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long end = position + count;
+        for (ChunkRef chunk : chunks) {
+            if (chunk.end() <= position) {
+                continue;
+            }
+            if (chunk.offset() >= end) {
+                break;
+            }
+
+            long from = Math.max(position, chunk.offset()) - chunk.offset();
+            long to = Math.min(end, chunk.end()) - chunk.offset();
+            try (FileChannel channel = open(chunk.hash())) {
+                while (from < to) {
+                    long transferred = channel.transferTo(from, to - from, target);
+                    if (transferred <= 0) {
+                        throw new EOFException("Chunk %s is shorter than expected".formatted(chunk.hash()));
+                    }
+                    from += transferred;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a chunk from the store. Missing chunks are ignored.
+     *
+     * @param hash the chunk digest
+     */
+    public void delete(String hash) {
+        try {
+            Files.deleteIfExists(path(hash));
+        } catch (IOException e) {
+            log.warn("Failed to delete chunk: {}", hash, e);
+        }
+    }
+
+    /**
+     * Resolves the location of a chunk on disk.
+     *
+     * @param hash the chunk digest
+     * @return the path of the chunk file, which may not exist
+     */
+    public Path path(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+
+    /**
+     * Accumulates the bytes of the current chunk in a temporary file and moves it to its
+     * content address once the chunk is complete.
+     */
+    private final class ChunkWriter implements AutoCloseable {
+
+        private final MessageDigest digest = sha256();
+        private Path tempFile;
+        private FileChannel channel;
+        private int size;
+
+        void append(ByteBuffer buffer, int from, int to) throws IOException {
+            if (from == to) {
+                return;
+            }
+            if (channel == null) {
+                Path tempDirectory = root.resolve(TEMP_DIRECTORY);
+                Files.createDirectories(tempDirectory);
+                tempFile = tempDirectory.resolve(UUID.randomUUID().toString());
+                channel = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            }
+
+            ByteBuffer segment = buffer.duplicate().limit(to).position(from);
+            digest.update(segment.array(), from, to - from);
+            while (segment.hasRemaining()) {
+                channel.write(segment);
+            }
+            size += to - from;
+        }
+
+        boolean hasContent() {
+            return size > 0;
+        }
+
+        ChunkRef complete(long offset) throws IOException {
+            String hash = HexFormat.of().formatHex(digest.digest());
+            ChunkRef chunk = new ChunkRef(hash, offset, size);
+            size = 0;
+
+            Path target = path(hash);
+            if (Files.exists(target)) {
+                channel.truncate(0);
+                return chunk;
+            }
+
+            channel.force(false);
+            channel.close();
+            channel = null;
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Another upload stored the same chunk concurrently
+                Files.deleteIfExists(tempFile);
+            }
+            return chunk;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+}
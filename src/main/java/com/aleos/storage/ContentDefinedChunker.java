@@ -0,0 +1,100 @@
+package com.aleos.storage;
+
+import java.util.SplittableRandom;
+
+/**
+ * Splits a byte stream into chunks whose boundaries depend on the content rather than on
+ * fixed offsets, so inserting or removing bytes only changes the chunks around the edit.
+ * <p>
+ * The implementation follows FastCDC: a gear rolling hash is updated with every byte and
+ * a boundary is declared when the top bits of the fingerprint are zero. A stricter mask is
+ * used below the average size and a looser one above it, which keeps chunk sizes close to
+ * the average. Chunks are never smaller than the minimum (except the last one) nor larger
+ * than the maximum.
+ * <p>
+ * The gear table is derived from a fixed seed: every node must cut identical content at
+ * identical positions, otherwise deduplication across uploads would not work.
+ */
+public class ContentDefinedChunker {
+
+    private static final long GEAR_SEED = 0x44726F704A6172L;
+    private static final long[] GEAR = new long[256];
+
+    static {
+        SplittableRandom random = new SplittableRandom(GEAR_SEED);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final int minSize;
+    private final int averageSize;
+    private final int maxSize;
+    private final long strictMask;
+    private final long looseMask;
+
+    public ContentDefinedChunker(int minSize, int averageSize, int maxSize) {
+        if (minSize <= 0 || minSize > averageSize || averageSize > maxSize || Integer.bitCount(averageSize) != 1) {
+            throw new IllegalArgumentException(
+                    "Chunk sizes must satisfy 0 < min <= average <= max and average must be a power of two");
+        }
+        this.minSize = minSize;
+        this.averageSize = averageSize;
+        this.maxSize = maxSize;
+
+        int bits = Integer.numberOfTrailingZeros(averageSize);
+        this.strictMask = topBits(bits + 2);
+        this.looseMask = topBits(bits - 2);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return a new scanner positioned at the start of a stream
+     */
+    public Scanner newScanner() {
+        return new Scanner();
+    }
+
+    private static long topBits(int count) {
+        return count <= 0 ? 0 : -1L << (Long.SIZE - Math.min(count, Long.SIZE));
+    }
+
+    /**
+     * Tracks the boundary search over a single stream. Not thread-safe.
+     */
+    public final class Scanner {
+
+        private long fingerprint;
+        private int length;
+
+        private Scanner() {
+        }
+
+        /**
+         * Consumes bytes from data[from, to) until a chunk boundary is found.
+         *
+         * @return the index just past the last byte of the completed chunk,
+         * or -1 if the range was consumed without reaching a boundary
+         */
+        public int scan(byte[] data, int from, int to) {
+            for (int i = from; i < to; i++) {
+                fingerprint = (fingerprint << 1) + GEAR[data[i] & 0xFF];
+                length++;
+
+                if (length < minSize) {
+                    continue;
+                }
+                long mask = length < averageSize ? strictMask : looseMask;
+                if ((fingerprint & mask) == 0 || length >= maxSize) {
+                    fingerprint = 0;
+                    length = 0;
+                    return i + 1;
+                }
+            }
+            return -1;
+        }
+    }
+}
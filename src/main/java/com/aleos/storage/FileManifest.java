@@ -0,0 +1,28 @@
+package com.aleos.storage;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Everything needed to serve the content of a stored file: its metadata and the ordered list
+ * of chunks holding its bytes.
+ *
+ * @param id          the file identifier
+ * @param name        the file name
+ * @param contentType the media type of the file
+ * @param size        the file size in bytes
+ * @param sha256      hex encoded SHA-256 digest of the whole content
+ * @param createdAt   the timestamp when the file was stored
+ * @param chunks      the chunks of the file, in order
+ */
+public record FileManifest(
+        UUID id,
+        String name,
+        String contentType,
+        long size,
+        String sha256,
+        Instant createdAt,
+        List<ChunkRef> chunks
+) {
+}
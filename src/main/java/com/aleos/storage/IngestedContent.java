@@ -0,0 +1,13 @@
+package com.aleos.storage;
+
+import java.util.List;
+
+/**
+ * The result of writing a stream of content into the {@link ChunkStore}.
+ *
+ * @param sha256 hex encoded SHA-256 digest of the whole content
+ * @param size   the content size in bytes
+ * @param chunks the chunks the content was split into, in order
+ */
+public record IngestedContent(String sha256, long size, List<ChunkRef> chunks) {
+}
@@ -0,0 +1,21 @@
+package com.aleos.storage;
+
+import java.util.UUID;
+
+/**
+ * A file whose content has been written to the {@link ChunkStore} and which is about to be registered.
+ *
+ * @param id          the identifier the file is registered under
+ * @param folderId    the id of the folder to put the file in, or null for none
+ * @param name        the name of the file
+ * @param contentType the media type of the file, may be null
+ * @param content     the digest, size and chunk list of the content
+ */
+public record IngestedFile(
+        UUID id,
+        UUID folderId,
+        String name,
+        String contentType,
+        IngestedContent content
+) {
+}
@@ -4,6 +4,7 @@ import com.aleos.configuration.ApplicationConfiguration;
 import jakarta.servlet.Filter;
 import org.springframework.lang.NonNull;
 import org.springframework.web.filter.DelegatingFilterProxy;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
 import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatcherServletInitializer;
 
 /**
@@ -24,6 +25,14 @@ import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatche
  *   <li><strong>DispatcherServlet Mapping:</strong> Mapped to the root URL pattern ("/").</li>
  *   <li><strong>Security Filter:</strong> Registers a {@link DelegatingFilterProxy} named
  *       "springSecurityFilterChain" to delegate security filtering to the Spring Security context.</li>
+ *   <li><strong>Session Filter:</strong> Registers a {@link DelegatingFilterProxy} named
+ *       "springSessionRepositoryFilter" ahead of it, backing HTTP sessions by the shared session store.</li>
+ *   <li><strong>Share Link Filter:</strong> Registers a {@link DelegatingFilterProxy} named
+ *       "shareLinkFilter" ahead of the session filter, serving public share links without a session.</li>
+ *   <li><strong>Resource URL Filter:</strong> Registers a {@link ResourceUrlEncodingFilter} last,
+ *       so links to static resources rendered by the templates carry their content hash.</li>
+ *   <li><strong>Observation Filter:</strong> Registers a {@link DelegatingFilterProxy} named
+ *       "serverHttpObservationFilter" first, recording the latency of every request.</li>
  * </ul>
  *
  * <p><b>By separating the root and servlet contexts, the application ensures a clear division
@@ -90,15 +99,34 @@ public class WebApplicationInitializer extends AbstractAnnotationConfigDispatche
      * This ensures that the {@code DelegatingFilterProxy} correctly locates the
      * {@code springSecurityFilterChain} bean within the servlet context.</p>
      *
+     * <p>Ahead of it, a second proxy delegates to the "springSessionRepositoryFilter" of the
+     * root context, which replaces container sessions with the shared session store, so the
+     * security filters already see the shared sessions. First of all, the
+     * "serverHttpObservationFilter" times every request, including the work of the
+     * filters behind it. Right after it, the "shareLinkFilter" of the servlet context answers
+     * requests for shared files on its own, so they never reach the session store or the
+     * security chain. Last, the {@link ResourceUrlEncodingFilter} rewrites the static resource
+     * URLs the templates render into their fingerprinted form.</p>
+     *
      * @return an array of {@link Filter} instances to be applied to incoming requests
      */
     @Override
     protected Filter[] getServletFilters() {
+        // Observation and session beans live in the root context, where the proxy looks by default
+        DelegatingFilterProxy observationFilterProxy = new DelegatingFilterProxy("serverHttpObservationFilter");
+        DelegatingFilterProxy sessionRepositoryFilterProxy = new DelegatingFilterProxy("springSessionRepositoryFilter");
+
+        String servletContextAttribute = "org.springframework.web.servlet.FrameworkServlet.CONTEXT." + getServletName();
+
+        DelegatingFilterProxy shareLinkFilterProxy = new DelegatingFilterProxy("shareLinkFilter");
+        shareLinkFilterProxy.setContextAttribute(servletContextAttribute);
+
         DelegatingFilterProxy delegatingFilterProxy = new DelegatingFilterProxy("springSecurityFilterChain");
-        delegatingFilterProxy.setContextAttribute(
-                "org.springframework.web.servlet.FrameworkServlet.CONTEXT." + getServletName()
-        );
+        delegatingFilterProxy.setContextAttribute(servletContextAttribute);
 
-        return new Filter[]{delegatingFilterProxy};
+        return new Filter[]{
+                observationFilterProxy, shareLinkFilterProxy, sessionRepositoryFilterProxy, delegatingFilterProxy,
+                new ResourceUrlEncodingFilter()
+        };
     }
 }
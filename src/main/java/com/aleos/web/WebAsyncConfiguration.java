@@ -0,0 +1,24 @@
+package com.aleos.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Runs asynchronous request processing, such as {@code Callable} and {@code StreamingResponseBody}
+ * return values, on the application task executor of the root context, which uses virtual threads
+ * in virtual-thread mode. Without it, Spring MVC would fall back to a thread per task without limits.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebAsyncConfiguration implements WebMvcConfigurer {
+
+    private final AsyncTaskExecutor taskExecutor;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(taskExecutor);
+    }
+}
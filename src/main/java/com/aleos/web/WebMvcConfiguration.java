@@ -1,22 +1,30 @@
 package com.aleos.web;
 
+import com.aleos.web.view.StreamingThymeleafViewResolver;
 import nz.net.ultraq.thymeleaf.layoutdialect.LayoutDialect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.ViewResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+import org.thymeleaf.cache.StandardCacheManager;
 import org.thymeleaf.spring6.ISpringTemplateEngine;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 import org.thymeleaf.spring6.templateresolver.SpringResourceTemplateResolver;
-import org.thymeleaf.spring6.view.ThymeleafViewResolver;
 import org.thymeleaf.templatemode.TemplateMode;
 import org.thymeleaf.templateresolver.ITemplateResolver;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * WebMvcConfiguration class provides the configuration for the Spring MVC framework.
  * It customizes the configuration by implementing the WebMvcConfigurer interface.
@@ -29,9 +37,17 @@ import org.thymeleaf.templateresolver.ITemplateResolver;
  * Methods:
  * - addViewControllers(ViewControllerRegistry registry): Customize the view controllers.
  * - addResourceHandlers(ResourceHandlerRegistry registry): Add resource handlers for serving static resources.
- * - templateEngine(ITemplateResolver templateResolver): Configure the SpringTemplateEngine bean with the given template resolver.
+ *   Resource URLs carry a hash of the content, so they can be cached forever; templates get the
+ *   versioned URLs through the {@code ResourceUrlEncodingFilter}. Precompressed variants are served
+ *   to clients accepting them, and resolved resources are cached in memory.
+ * - templateEngine(ITemplateResolver templateResolver, int templateCacheSize, int expressionCacheSize): Configure the
+ *   SpringTemplateEngine bean with the given template resolver. Parsed templates and expressions are kept in caches
+ *   of fixed maximum sizes.
  * - templateResolver(): Configures the SpringResourceTemplateResolver bean to resolve templates from specified locations.
- * - viewResolver(ISpringTemplateEngine templateEngine): Configure the ThymeleafViewResolver bean with the given template engine.
+ *   Templates are packaged with the application and never change, so they are cached without expiry.
+ * - viewResolver(ISpringTemplateEngine templateEngine, int chunkSize): Configure the view resolver bean with the given
+ *   template engine. Pages are written to the client in chunks of the given size while they are rendered, and rows
+ *   added to the model as {@code LazyRows} are streamed from the database as the template iterates them.
  */
 @Configuration
 @EnableWebMvc
@@ -47,15 +63,25 @@ public class WebMvcConfiguration implements WebMvcConfigurer {
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/resources/**")
                 .addResourceLocations("classpath:/static/")
-                .setCachePeriod(31556926);
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .resourceChain(true, new ConcurrentMapCache("static-resources"))
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
         registry.setOrder(Ordered.HIGHEST_PRECEDENCE);
     }
 
     @Bean
-    public SpringTemplateEngine templateEngine(ITemplateResolver templateResolver) {
+    public SpringTemplateEngine templateEngine(ITemplateResolver templateResolver,
+                                               @Value("${view.template-cache.maximum-size}") int templateCacheSize,
+                                               @Value("${view.expression-cache.maximum-size}") int expressionCacheSize) {
+        StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(templateCacheSize);
+        cacheManager.setExpressionCacheMaxSize(expressionCacheSize);
+
         SpringTemplateEngine engine = new SpringTemplateEngine();
         engine.setEnableSpringELCompiler(true);
         engine.setTemplateResolver(templateResolver);
+        engine.setCacheManager(cacheManager);
         engine.addDialect(new LayoutDialect());
         return engine;
     }
@@ -67,12 +93,15 @@ public class WebMvcConfiguration implements WebMvcConfigurer {
         resolver.setPrefix("classpath:/templates/");
         resolver.setSuffix(".html");
         resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCacheable(true);
+        resolver.setCacheTTLMs(null);
         return resolver;
     }
 
     @Bean
-    public ViewResolver viewResolver(ISpringTemplateEngine templateEngine) {
-        ThymeleafViewResolver resolver = new ThymeleafViewResolver();
+    public ViewResolver viewResolver(ISpringTemplateEngine templateEngine,
+                                     @Value("${view.response-chunk-size}") int chunkSize) {
+        StreamingThymeleafViewResolver resolver = new StreamingThymeleafViewResolver(chunkSize);
         resolver.setTemplateEngine(templateEngine);
         resolver.setCharacterEncoding("UTF-8");
         return resolver;
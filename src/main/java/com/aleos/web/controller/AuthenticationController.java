@@ -1,12 +1,16 @@
 package com.aleos.web.controller;
 
+import com.aleos.dto.EmailAvailabilityDto;
 import com.aleos.dto.SignUpPayload;
 import com.aleos.service.AuthenticationService;
+import com.aleos.service.EmailAvailabilityService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -15,12 +19,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.Locale;
-import java.util.UUID;
 
 /**
  * Controller responsible for handling user authentication-related requests.
  * This includes showing the sign-in form, displaying the sign-up form, processing sign-up requests,
- * and verifying account activation tokens.
+ * verifying account activation tokens, and checking whether an email is still available.
  */
 @Controller
 @RequestMapping("/auth")
@@ -30,6 +33,7 @@ public class AuthenticationController {
     private static final String ACTIVATION_LINK_FORMAT = "/auth/activate?token=%s";
 
     private final AuthenticationService authenticationService;
+    private final EmailAvailabilityService emailAvailabilityService;
     private final MessageSource messageSource;
     private final PasswordEncoder passwordEncoder;
 
@@ -61,7 +65,7 @@ public class AuthenticationController {
 
     /**
      * Processes the user sign-up request. If there are validation errors in the sign-up
-     * payload, it returns the sign-up view with errors. Otherwise, it delegates the
+     * payload or the email is already taken, it returns the sign-up view with errors. Otherwise, it delegates the
      * sign-up process to the `authenticationService`, sending out a confirmation email
      * and redirecting to the sign-in page upon successful registration.
      *
@@ -76,6 +80,9 @@ public class AuthenticationController {
                                 BindingResult bindingResult,
                                 RedirectAttributes redirectAttributes,
                                 HttpServletRequest req) {
+        if (!bindingResult.hasFieldErrors("email") && !emailAvailabilityService.isAvailable(payload.email())) {
+            bindingResult.rejectValue("email", "email.taken", getMessage("auth.signup.email-taken"));
+        }
         if (bindingResult.hasErrors()) {
             return "auth/sign-up";
         }
@@ -92,17 +99,31 @@ public class AuthenticationController {
         return "redirect:/auth/sign-in";
     }
 
+    /**
+     * Handles asynchronous checks of the sign-up form whether an email is still available.
+     *
+     * @param email the email entered in the sign-up form
+     * @return whether the email can be used to sign up
+     */
+    @GetMapping("/email-availability")
+    @ResponseBody
+    public ResponseEntity<EmailAvailabilityDto> checkEmailAvailability(@RequestParam String email) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(new EmailAvailabilityDto(emailAvailabilityService.isAvailable(email)));
+    }
+
     /**
      * Handles the activation of a user's account upon confirmation from an email link.
      * This method processes the verification token and redirects the user
      * after setting appropriate success messages.
      *
-     * @param token the UUID of the verification token provided in the activation email
+     * @param token the activation token provided in the activation email
      * @param redirectAttributes contains attributes for the redirect scenario
      * @return the redirection path to the sign-in page
      */
     @GetMapping("/activate")
-    public String verifyActivation(@RequestParam UUID token,
+    public String verifyActivation(@RequestParam String token,
                                    RedirectAttributes redirectAttributes
     ) {
         String activationEmail = authenticationService.processVerification(token);
@@ -1,7 +1,14 @@
 package com.aleos.web.controller;
 
+import com.aleos.service.FileListingService;
+import com.aleos.service.UsageCounterService;
+import com.aleos.web.security.AuthenticatedUser;
+import com.aleos.web.view.LazyRows;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
@@ -10,8 +17,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 @RequiredArgsConstructor
 public class DashboardController {
 
+    private final UsageCounterService usageCounterService;
+    private final FileListingService fileListingService;
+
+    @Value("${dashboard.recent-activity.limit}")
+    private int recentActivityLimit;
+
     @GetMapping
-    public String showDashboard() {
+    public String showDashboard(@AuthenticationPrincipal AuthenticatedUser user, Model model) {
+        model.addAttribute("usage", usageCounterService.summary(user.getId()));
+        // Read while the page renders, see StreamingThymeleafView
+        model.addAttribute("recentActivity", new LazyRows<>(
+                () -> fileListingService.streamRecent(user.getId(), recentActivityLimit)));
         return "dashboard";
     }
 }
@@ -0,0 +1,128 @@
+package com.aleos.web.controller;
+
+import com.aleos.dto.FilePageDto;
+import com.aleos.dto.InstantUploadPayload;
+import com.aleos.dto.MovePayload;
+import com.aleos.dto.ShareLinkDto;
+import com.aleos.dto.StoredFileDto;
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.mapper.StoredFileMapper;
+import com.aleos.model.FileSortField;
+import com.aleos.service.FileCatalogService;
+import com.aleos.service.FileListingService;
+import com.aleos.service.FileStorageService;
+import com.aleos.service.ShareLinkService;
+import com.aleos.web.security.AuthenticatedUser;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.UUID;
+
+/**
+ * REST controller for operations on stored files.
+ */
+@RestController
+@RequestMapping("/api/files")
+@RequiredArgsConstructor
+public class FileController {
+
+    private final FileStorageService fileStorageService;
+    private final FileListingService fileListingService;
+    private final StoredFileMapper storedFileMapper;
+    private final ShareLinkService shareLinkService;
+    private final FileCatalogService fileCatalogService;
+
+    /**
+     * Lists the files of the current user, one page at a time.
+     *
+     * @param sort      the attribute to sort by
+     * @param direction the sort direction
+     * @param cursor    the nextCursor of the previous page, absent for the first page
+     * @param size      the page size
+     * @param user      the currently authenticated user
+     * @return the files of the page and the cursor of the next page
+     */
+    @GetMapping
+    public FilePageDto list(@RequestParam(defaultValue = "CREATED_AT") FileSortField sort,
+                            @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+                            @RequestParam(required = false) String cursor,
+                            @RequestParam(defaultValue = "" + FileListingService.DEFAULT_PAGE_SIZE) int size,
+                            @AuthenticationPrincipal AuthenticatedUser user) {
+        return fileListingService.list(user.getId(), sort, direction, cursor, size);
+    }
+
+    /**
+     * Instant upload handshake. If a file with the given digest and size is already stored,
+     * a new file sharing that content is created for the current user and no content needs
+     * to be sent. Otherwise the client falls back to a regular upload.
+     *
+     * @param payload the name, media type, digest and size of the file
+     * @param user    the currently authenticated user
+     * @return the metadata of the new file
+     * @throws ResourceNotFoundException if the content is unknown and has to be uploaded
+     */
+    @PostMapping("/instant")
+    @ResponseStatus(HttpStatus.CREATED)
+    public StoredFileDto instantUpload(@RequestBody @Valid InstantUploadPayload payload,
+                                       @AuthenticationPrincipal AuthenticatedUser user) {
+        return fileStorageService.storeDuplicate(user.getId(), payload.folderId(),
+                        payload.name(), payload.contentType(), payload.sha256(), payload.size())
+                .map(storedFileMapper::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Content not found, upload required"));
+    }
+
+    /**
+     * Creates a public link to a file of the current user, valid for the given time.
+     *
+     * @param fileId   the id of the file
+     * @param lifetime the time the link stays valid in seconds
+     * @param user     the currently authenticated user
+     * @return the absolute URL of the link and its expiry time
+     * @throws ResourceNotFoundException if the file does not exist or belongs to another user
+     */
+    @PostMapping("/{fileId}/share-link")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ShareLinkDto share(@PathVariable UUID fileId,
+                              @RequestParam(defaultValue = "" + ShareLinkService.DEFAULT_LIFETIME) long lifetime,
+                              @AuthenticationPrincipal AuthenticatedUser user) {
+        ShareLinkDto link = shareLinkService.issue(user.getId(), fileId, lifetime);
+        return new ShareLinkDto(
+                ServletUriComponentsBuilder.fromCurrentContextPath().build().toUriString() + link.url(),
+                link.expiresAt()
+        );
+    }
+
+    /**
+     * Moves a file of the current user into another folder.
+     *
+     * @param fileId  the id of the file
+     * @param payload the id of the target folder, null to take the file out of any folder
+     * @param user    the currently authenticated user
+     * @return the metadata of the moved file
+     * @throws ResourceNotFoundException if the file or the folder does not exist or belongs to another user
+     */
+    @PutMapping("/{fileId}/folder")
+    public StoredFileDto move(@PathVariable UUID fileId,
+                              @RequestBody MovePayload payload,
+                              @AuthenticationPrincipal AuthenticatedUser user) {
+        return storedFileMapper.toDto(fileCatalogService.move(user.getId(), fileId, payload.folderId()));
+    }
+
+    /**
+     * Deletes a file of the current user.
+     *
+     * @param fileId the id of the file
+     * @param user   the currently authenticated user
+     */
+    @DeleteMapping("/{fileId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@PathVariable UUID fileId,
+                       @AuthenticationPrincipal AuthenticatedUser user) {
+        fileStorageService.delete(user.getId(), fileId);
+    }
+}
@@ -0,0 +1,100 @@
+package com.aleos.web.controller;
+
+import com.aleos.exception.ArchiveException;
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.service.ArchiveService;
+import com.aleos.service.FileContentService;
+import com.aleos.web.download.ContentResponseWriter;
+import com.aleos.web.download.ZipResponseWriter;
+import com.aleos.web.security.AuthenticatedUser;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Controller responsible for file downloads.
+ * <p>
+ * The content is written directly to the servlet response, supporting conditional
+ * requests and byte ranges, so browsers and download managers can revalidate cached
+ * copies and resume or parallelize downloads. Folders and selections of files are
+ * downloaded as ZIP archives streamed while they are built.
+ */
+@Controller
+@RequestMapping("/api/files")
+@RequiredArgsConstructor
+public class FileDownloadController {
+
+    private static final CacheControl PRIVATE_REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final FileContentService fileContentService;
+    private final ContentResponseWriter contentResponseWriter;
+    private final ArchiveService archiveService;
+    private final ZipResponseWriter zipResponseWriter;
+
+    /**
+     * Handles GET and HEAD requests for the content of a file of the current user.
+     *
+     * @param fileId   the id of the file
+     * @param inline   whether the browser should display the file rather than download it
+     * @param user     the currently authenticated user
+     * @param request  the current request
+     * @param response the current response
+     * @throws IOException if the content cannot be read or the response cannot be written
+     */
+    @GetMapping("/{fileId}/content")
+    public void download(@PathVariable UUID fileId,
+                         @RequestParam(defaultValue = "false") boolean inline,
+                         @AuthenticationPrincipal AuthenticatedUser user,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        contentResponseWriter.write(
+                fileContentService.findManifest(user.getId(), fileId), inline, PRIVATE_REVALIDATE, request, response
+        );
+    }
+
+    /**
+     * Handles GET requests for a ZIP archive of a folder of the current user and its whole subtree.
+     *
+     * @param folder   the id of the folder
+     * @param user     the currently authenticated user
+     * @param response the current response
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     * @throws IOException               if the content cannot be read or the response cannot be written
+     */
+    @GetMapping("/archive")
+    public void downloadFolder(@RequestParam UUID folder,
+                               @AuthenticationPrincipal AuthenticatedUser user,
+                               HttpServletResponse response) throws IOException {
+        zipResponseWriter.write(archiveService.folder(user.getId(), folder), response);
+    }
+
+    /**
+     * Handles POST requests for a ZIP archive of a selection of files of the current user. The ids are
+     * form parameters, so a plain HTML form can start the download and let the browser save it as it arrives.
+     *
+     * @param fileIds  the ids of the selected files
+     * @param user     the currently authenticated user
+     * @param response the current response
+     * @throws ArchiveException          if the selection is empty or too large
+     * @throws ResourceNotFoundException if a file does not exist or belongs to another user
+     * @throws IOException               if the content cannot be read or the response cannot be written
+     */
+    @PostMapping("/archive")
+    public void downloadSelection(@RequestParam("fileId") List<UUID> fileIds,
+                                  @AuthenticationPrincipal AuthenticatedUser user,
+                                  HttpServletResponse response) throws IOException {
+        zipResponseWriter.write(archiveService.selection(user.getId(), fileIds), response);
+    }
+}
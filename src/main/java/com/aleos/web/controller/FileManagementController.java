@@ -0,0 +1,47 @@
+package com.aleos.web.controller;
+
+import com.aleos.model.FileSortField;
+import com.aleos.service.FileListingService;
+import com.aleos.web.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Controller responsible for the "Manage Files" page, which lists the files of the current user.
+ */
+@Controller
+@RequestMapping("/files")
+@RequiredArgsConstructor
+public class FileManagementController {
+
+    private final FileListingService fileListingService;
+
+    /**
+     * Handles GET requests to display one page of the files of the current user.
+     *
+     * @param sort      the attribute to sort by
+     * @param direction the sort direction
+     * @param cursor    the cursor of the page to display, absent for the first page
+     * @param user      the currently authenticated user
+     * @param model     the model to hold the page
+     * @return the name of the view to render the file list
+     */
+    @GetMapping
+    public String showFiles(@RequestParam(defaultValue = "CREATED_AT") FileSortField sort,
+                            @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+                            @RequestParam(required = false) String cursor,
+                            @AuthenticationPrincipal AuthenticatedUser user,
+                            Model model) {
+        model.addAttribute("page", fileListingService.list(
+                user.getId(), sort, direction, cursor, FileListingService.DEFAULT_PAGE_SIZE));
+        model.addAttribute("sort", sort);
+        model.addAttribute("direction", direction);
+        return "files/list";
+    }
+}
@@ -0,0 +1,88 @@
+package com.aleos.web.controller;
+
+import com.aleos.dto.ArchiveImportDto;
+import com.aleos.dto.StoredFileDto;
+import com.aleos.mapper.StoredFileMapper;
+import com.aleos.service.ArchiveImportService;
+import com.aleos.service.FileStorageService;
+import com.aleos.web.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Controller responsible for file uploads.
+ * <p>
+ * The upload endpoint expects the raw file content as the request body rather than
+ * a multipart form, so the content can be streamed to storage without the container
+ * buffering or spooling it first. An archive can be uploaded the same way to be
+ * extracted into the folder tree as it arrives.
+ */
+@Controller
+@RequestMapping("/files/upload")
+@RequiredArgsConstructor
+public class FileUploadController {
+
+    private final FileStorageService fileStorageService;
+    private final StoredFileMapper storedFileMapper;
+    private final ArchiveImportService archiveImportService;
+
+    /**
+     * Handles GET requests to display the upload page.
+     *
+     * @return the name of the view to render the upload page
+     */
+    @GetMapping
+    public String showUploadForm() {
+        return "files/upload";
+    }
+
+    /**
+     * Streams the request body to storage as a new file owned by the current user.
+     *
+     * @param name        the original name of the file
+     * @param folder      the id of the folder to store the file in, absent for none
+     * @param contentType the media type of the file, taken from the request Content-Type header
+     * @param size        the length of the request body, absent for chunked requests
+     * @param content     the request body
+     * @param user        the currently authenticated user
+     * @return the metadata of the stored file
+     */
+    @PostMapping
+    @ResponseBody
+    @ResponseStatus(HttpStatus.CREATED)
+    public StoredFileDto upload(@RequestParam String name,
+                                @RequestParam(required = false) UUID folder,
+                                @RequestHeader(name = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                @RequestHeader(name = HttpHeaders.CONTENT_LENGTH, required = false) Long size,
+                                InputStream content,
+                                @AuthenticationPrincipal AuthenticatedUser user) {
+        return storedFileMapper.toDto(
+                fileStorageService.store(user.getId(), folder, name, contentType, size != null ? size : -1, content)
+        );
+    }
+
+    /**
+     * Streams a ZIP or TAR archive from the request body and extracts it into a folder of the current
+     * user, so a whole directory tree is uploaded with a single request.
+     *
+     * @param folder  the id of the folder to extract into, absent for the top level
+     * @param content the request body
+     * @param user    the currently authenticated user
+     * @return the number of folders created and of files extracted
+     */
+    @PostMapping("/archive")
+    @ResponseBody
+    @ResponseStatus(HttpStatus.CREATED)
+    public ArchiveImportDto uploadArchive(@RequestParam(required = false) UUID folder,
+                                          InputStream content,
+                                          @AuthenticationPrincipal AuthenticatedUser user) {
+        return archiveImportService.extract(user.getId(), folder, content);
+    }
+}
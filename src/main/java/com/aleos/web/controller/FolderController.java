@@ -0,0 +1,136 @@
+package com.aleos.web.controller;
+
+import com.aleos.dto.CreateFolderPayload;
+import com.aleos.dto.FolderDto;
+import com.aleos.dto.FolderPageDto;
+import com.aleos.dto.MovePayload;
+import com.aleos.exception.FolderConflictException;
+import com.aleos.exception.ResourceNotFoundException;
+import com.aleos.mapper.FolderMapper;
+import com.aleos.service.FolderService;
+import com.aleos.web.security.AuthenticatedUser;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST controller for the folders of the current user.
+ * <p>
+ * Every folder reports the total size and number of files of its whole subtree, so clients
+ * can show the size of any folder without listing its contents.
+ */
+@RestController
+@RequestMapping("/api/folders")
+@RequiredArgsConstructor
+public class FolderController {
+
+    private final FolderService folderService;
+    private final FolderMapper folderMapper;
+
+    /**
+     * Lists the top-level folders of the current user.
+     *
+     * @param user the currently authenticated user
+     * @return the top-level folders, ordered by name
+     */
+    @GetMapping
+    public List<FolderDto> list(@AuthenticationPrincipal AuthenticatedUser user) {
+        return folderService.children(user.getId(), null).stream().map(folderMapper::toDto).toList();
+    }
+
+    /**
+     * Retrieves a folder of the current user with the totals of its subtree.
+     *
+     * @param folderId the id of the folder
+     * @param user     the currently authenticated user
+     * @return the folder
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     */
+    @GetMapping("/{folderId}")
+    public FolderDto get(@PathVariable UUID folderId,
+                         @AuthenticationPrincipal AuthenticatedUser user) {
+        return folderMapper.toDto(folderService.find(user.getId(), folderId));
+    }
+
+    /**
+     * Lists the folders directly under a folder of the current user.
+     *
+     * @param folderId the id of the parent folder
+     * @param user     the currently authenticated user
+     * @return the child folders, ordered by name
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     */
+    @GetMapping("/{folderId}/children")
+    public List<FolderDto> children(@PathVariable UUID folderId,
+                                    @AuthenticationPrincipal AuthenticatedUser user) {
+        return folderService.children(user.getId(), folderId).stream().map(folderMapper::toDto).toList();
+    }
+
+    /**
+     * Lists all folders below a folder of the current user, at any depth, one page at a time.
+     *
+     * @param folderId the id of the folder
+     * @param cursor   the nextCursor of the previous page, absent for the first page
+     * @param size     the page size
+     * @param user     the currently authenticated user
+     * @return the folders of the page and the cursor of the next page
+     * @throws ResourceNotFoundException if the folder does not exist or belongs to another user
+     */
+    @GetMapping("/{folderId}/subtree")
+    public FolderPageDto subtree(@PathVariable UUID folderId,
+                                 @RequestParam(required = false) String cursor,
+                                 @RequestParam(defaultValue = "" + FolderService.DEFAULT_PAGE_SIZE) int size,
+                                 @AuthenticationPrincipal AuthenticatedUser user) {
+        return folderService.subtree(user.getId(), folderId, cursor, size);
+    }
+
+    /**
+     * Creates a folder for the current user.
+     *
+     * @param payload the name and the parent of the folder
+     * @param user    the currently authenticated user
+     * @return the new folder
+     * @throws FolderConflictException if the parent already holds a folder of that name
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public FolderDto create(@RequestBody @Valid CreateFolderPayload payload,
+                            @AuthenticationPrincipal AuthenticatedUser user) {
+        return folderMapper.toDto(folderService.create(user.getId(), payload.parentId(), payload.name()));
+    }
+
+    /**
+     * Moves a folder of the current user, with everything in it, under another folder.
+     *
+     * @param folderId the id of the folder
+     * @param payload  the id of the new parent folder, null to make it a top-level folder
+     * @param user     the currently authenticated user
+     * @return the moved folder
+     * @throws FolderConflictException if the move would create a cycle or a name clash
+     */
+    @PutMapping("/{folderId}/parent")
+    public FolderDto move(@PathVariable UUID folderId,
+                          @RequestBody MovePayload payload,
+                          @AuthenticationPrincipal AuthenticatedUser user) {
+        return folderMapper.toDto(folderService.move(user.getId(), folderId, payload.folderId()));
+    }
+
+    /**
+     * Deletes an empty folder of the current user together with its empty subfolders.
+     *
+     * @param folderId the id of the folder
+     * @param user     the currently authenticated user
+     * @throws FolderConflictException if the folder or one of its subfolders holds files
+     */
+    @DeleteMapping("/{folderId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@PathVariable UUID folderId,
+                       @AuthenticationPrincipal AuthenticatedUser user) {
+        folderService.delete(user.getId(), folderId);
+    }
+}
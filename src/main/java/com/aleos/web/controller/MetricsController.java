@@ -0,0 +1,29 @@
+package com.aleos.web.controller;
+
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller exposing the application metrics in the Prometheus text format.
+ * Access is limited to the scraper addresses configured in the security settings.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PrometheusMeterRegistry meterRegistry;
+
+    /**
+     * Returns the current value of every metric.
+     *
+     * @return the metrics in the Prometheus text format
+     */
+    @GetMapping(value = "/metrics", produces = PROMETHEUS_CONTENT_TYPE)
+    public String scrape() {
+        return meterRegistry.scrape();
+    }
+}
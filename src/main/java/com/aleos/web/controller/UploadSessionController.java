@@ -0,0 +1,112 @@
+package com.aleos.web.controller;
+
+import com.aleos.dto.OpenUploadSessionPayload;
+import com.aleos.dto.StoredFileDto;
+import com.aleos.dto.UploadPartDto;
+import com.aleos.dto.UploadSessionDto;
+import com.aleos.mapper.StoredFileMapper;
+import com.aleos.mapper.UploadSessionMapper;
+import com.aleos.model.UploadSession;
+import com.aleos.service.UploadSessionService;
+import com.aleos.web.security.AuthenticatedUser;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST controller for resumable, multipart uploads.
+ * <p>
+ * Typical flow: open a session, PUT its parts (in parallel, in any order), and commit.
+ * After an interruption the client GETs the session to learn which parts were received
+ * and resends only the missing ones.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+    private final UploadSessionMapper uploadSessionMapper;
+    private final StoredFileMapper storedFileMapper;
+
+    /**
+     * Opens a new upload session for the current user.
+     *
+     * @param payload the name, media type and total size of the file
+     * @param user    the currently authenticated user
+     * @return the session with its part layout
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public UploadSessionDto open(@RequestBody @Valid OpenUploadSessionPayload payload,
+                                 @AuthenticationPrincipal AuthenticatedUser user) {
+        UploadSession session = uploadSessionService.open(user.getId(), payload);
+        return uploadSessionMapper.toDto(session, List.of());
+    }
+
+    /**
+     * Returns the session state, including the parts received so far.
+     *
+     * @param sessionId the id of the session
+     * @param user      the currently authenticated user
+     * @return the session state
+     */
+    @GetMapping("/{sessionId}")
+    public UploadSessionDto status(@PathVariable UUID sessionId,
+                                   @AuthenticationPrincipal AuthenticatedUser user) {
+        UploadSession session = uploadSessionService.find(user.getId(), sessionId);
+        return uploadSessionMapper.toDto(session, uploadSessionService.receivedParts(sessionId));
+    }
+
+    /**
+     * Streams the request body as the given part of the session.
+     *
+     * @param sessionId  the id of the session
+     * @param partNumber the 1-based number of the part
+     * @param content    the request body
+     * @param user       the currently authenticated user
+     * @return the recorded part
+     */
+    @PutMapping("/{sessionId}/parts/{partNumber}")
+    public UploadPartDto uploadPart(@PathVariable UUID sessionId,
+                                    @PathVariable int partNumber,
+                                    InputStream content,
+                                    @AuthenticationPrincipal AuthenticatedUser user) {
+        return uploadSessionMapper.toDto(
+                uploadSessionService.uploadPart(user.getId(), sessionId, partNumber, content)
+        );
+    }
+
+    /**
+     * Completes the session and stores the assembled file.
+     *
+     * @param sessionId the id of the session
+     * @param user      the currently authenticated user
+     * @return the metadata of the stored file
+     */
+    @PostMapping("/{sessionId}/commit")
+    @ResponseStatus(HttpStatus.CREATED)
+    public StoredFileDto commit(@PathVariable UUID sessionId,
+                                @AuthenticationPrincipal AuthenticatedUser user) {
+        return storedFileMapper.toDto(uploadSessionService.commit(user.getId(), sessionId));
+    }
+
+    /**
+     * Aborts the session and discards the parts received so far.
+     *
+     * @param sessionId the id of the session
+     * @param user      the currently authenticated user
+     */
+    @DeleteMapping("/{sessionId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void abort(@PathVariable UUID sessionId,
+                      @AuthenticationPrincipal AuthenticatedUser user) {
+        uploadSessionService.abort(user.getId(), sessionId);
+    }
+}
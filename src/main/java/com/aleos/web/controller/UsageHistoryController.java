@@ -0,0 +1,55 @@
+package com.aleos.web.controller;
+
+import com.aleos.dto.UsageSeriesDto;
+import com.aleos.model.UsageRange;
+import com.aleos.service.UsageHistoryService;
+import com.aleos.web.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+
+/**
+ * REST controller providing the data of the dashboard storage usage chart.
+ */
+@RestController
+@RequestMapping("/api/usage")
+@RequiredArgsConstructor
+public class UsageHistoryController {
+
+    private final UsageHistoryService usageHistoryService;
+
+    /**
+     * Returns the storage usage of the current user over a time range. The response carries
+     * an ETag, and a matching If-None-Match is answered with 304 before the series is read.
+     *
+     * @param range      the time range of the chart
+     * @param points     the number of points the chart can display
+     * @param user       the currently authenticated user
+     * @param webRequest the current request
+     * @return the usage series, or null if the client copy is still current
+     */
+    @GetMapping("/history")
+    public ResponseEntity<UsageSeriesDto> history(@RequestParam(defaultValue = "MONTH") UsageRange range,
+                                                  @RequestParam(defaultValue = "" + UsageHistoryService.DEFAULT_POINTS) int points,
+                                                  @AuthenticationPrincipal AuthenticatedUser user,
+                                                  WebRequest webRequest) {
+        Instant now = Instant.now();
+        String etag = usageHistoryService.etag(user.getId(), range, points, now);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(usageHistoryService.series(user.getId(), range, points, now));
+    }
+}
@@ -0,0 +1,137 @@
+package com.aleos.web.download;
+
+import com.aleos.storage.ArchiveEntry;
+import com.aleos.storage.ChunkRef;
+import com.aleos.storage.ChunkStore;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads the entries of an archive, in order, ahead of the thread writing the archive.
+ * <p>
+ * The content is read into a fixed set of buffers that cycle between the two threads: the reader
+ * takes a free buffer, fills it from the chunk files and hands it over, and the writer gives it
+ * back once it has been written. The reader therefore never gets further ahead than the buffers
+ * hold, and a download costs the same memory whatever the size of the archive. Resolving the
+ * next page of entries from the database also happens here, off the writing thread.
+ * <p>
+ * The reader is stopped by interrupting its thread.
+ */
+final class ArchiveReadAhead implements Runnable {
+
+    /**
+     * What the reader hands over to the writer: the start of an entry, a block of its content,
+     * a failure or the end of the archive.
+     */
+    sealed interface Item permits Start, Block, Failure, End {
+    }
+
+    record Start(ArchiveEntry entry) implements Item {
+    }
+
+    record Block(byte[] buffer, int length) implements Item {
+    }
+
+    record Failure(Exception cause) implements Item {
+    }
+
+    record End() implements Item {
+    }
+
+    private final ChunkStore chunkStore;
+    private final Iterator<ArchiveEntry> entries;
+    private final BlockingQueue<byte[]> free;
+    private final BlockingQueue<Item> ready;
+
+    /**
+     * @param chunkStore the store holding the content
+     * @param entries    the entries to read
+     * @param blocks     the number of buffers
+     * @param blockSize  the size of a buffer in bytes
+     */
+    ArchiveReadAhead(ChunkStore chunkStore, Iterator<ArchiveEntry> entries, int blocks, int blockSize) {
+        this.chunkStore = chunkStore;
+        this.entries = entries;
+        this.free = new ArrayBlockingQueue<>(blocks);
+        // Entry starts carry no buffer, so room for one per block bounds the queue of empty files as well
+        this.ready = new ArrayBlockingQueue<>(blocks * 2);
+        for (int i = 0; i < blocks; i++) {
+            free.add(new byte[blockSize]);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            try {
+                while (entries.hasNext()) {
+                    ArchiveEntry entry = entries.next();
+                    ready.put(new Start(entry));
+                    read(entry);
+                }
+                ready.put(new End());
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                ready.put(new Failure(e));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the next item.
+     *
+     * @return the next item, the last one being {@link End} or {@link Failure}
+     * @throws InterruptedException if the writing thread is interrupted while waiting
+     */
+    Item take() throws InterruptedException {
+        return ready.take();
+    }
+
+    /**
+     * Gives a buffer back to the reader once the block it held has been written.
+     *
+     * @param buffer the buffer of a {@link Block}
+     */
+    void release(byte[] buffer) {
+        free.add(buffer);
+    }
+
+    private void read(ArchiveEntry entry) throws IOException, InterruptedException {
+        byte[] buffer = free.take();
+        int length = 0;
+        for (ChunkRef chunk : entry.manifest().chunks()) {
+            try (FileChannel channel = chunkStore.open(chunk.hash())) {
+                long remaining = chunk.size();
+                while (remaining > 0) {
+                    if (length == buffer.length) {
+                        ready.put(new Block(buffer, length));
+                        buffer = free.take();
+                        length = 0;
+                    }
+                    int read = channel.read(ByteBuffer.wrap(
+                            buffer, length, (int) Math.min(buffer.length - length, remaining)));
+                    if (read < 0) {
+                        throw new EOFException("Chunk %s is shorter than expected".formatted(chunk.hash()));
+                    }
+                    length += read;
+                    remaining -= read;
+                }
+            }
+        }
+
+        if (length > 0) {
+            ready.put(new Block(buffer, length));
+        } else {
+            free.add(buffer);
+        }
+    }
+}
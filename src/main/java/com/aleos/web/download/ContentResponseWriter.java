@@ -0,0 +1,236 @@
+package com.aleos.web.download;
+
+import com.aleos.storage.ChunkRef;
+import com.aleos.storage.ChunkStore;
+import com.aleos.storage.FileManifest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Writes the content of a stored file to an HTTP response, honouring conditional and range requests.
+ * <p>
+ * The strong ETag is the SHA-256 digest of the content, so it changes exactly when the bytes do.
+ * {@code If-None-Match}/{@code If-Modified-Since} are answered with 304 and {@code If-Range}
+ * guards range requests against a changed file. Single ranges are answered with a plain 206,
+ * several ranges with a {@code multipart/byteranges} body whose length is computed up front.
+ * <p>
+ * Only a single range whose bytes lie within one chunk file is sent without copying: when the
+ * container supports sendfile (Tomcat), the transfer is handed over to the container, which
+ * sends the file straight from the page cache to the socket. Sendfile takes one file per
+ * response, so every other response, including a whole file of several chunks and every
+ * multipart response, is copied chunk by chunk through the servlet output stream.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContentResponseWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CRLF = "\r\n";
+
+    private final ChunkStore chunkStore;
+
+    /**
+     * Writes the file content, or the requested ranges of it, to the response.
+     *
+     * @param manifest     the file to serve
+     * @param inline       whether the browser should display the file rather than download it
+     * @param cacheControl the Cache-Control policy of the response
+     * @param request      the current request
+     * @param response     the current response
+     * @throws IOException if the content cannot be read or the response cannot be written
+     */
+    public void write(FileManifest manifest,
+                      boolean inline,
+                      CacheControl cacheControl,
+                      HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        String etag = etag(manifest);
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        if (webRequest.checkNotModified(etag, manifest.createdAt().toEpochMilli())) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                        .filename(manifest.name(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString());
+
+        List<HttpRange> ranges = requestedRanges(request, manifest, etag);
+        if (ranges == null) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + manifest.size());
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+        if (ranges.isEmpty()) {
+            response.setContentType(manifest.contentType());
+            response.setContentLengthLong(manifest.size());
+            if (!head) {
+                writeRange(manifest, 0, manifest.size(), request, response);
+            }
+        } else if (ranges.size() == 1) {
+            long start = ranges.getFirst().getRangeStart(manifest.size());
+            long end = ranges.getFirst().getRangeEnd(manifest.size());
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(manifest.contentType());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, manifest.size()));
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                writeRange(manifest, start, end - start + 1, request, response);
+            }
+        } else {
+            writeMultipart(manifest, ranges, head, response);
+        }
+    }
+
+    /**
+     * Parses the Range header.
+     *
+     * @return an empty list if the whole content should be sent, the ranges to send,
+     * or null if none of the ranges can be satisfied
+     */
+    private List<HttpRange> requestedRanges(HttpServletRequest request, FileManifest manifest, String etag) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), manifest, etag)) {
+            return List.of();
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            // A syntactically invalid Range header is ignored
+            return List.of();
+        }
+
+        long size = manifest.size();
+        List<HttpRange> satisfiable = new ArrayList<>(ranges.size());
+        long total = 0;
+        for (HttpRange range : ranges) {
+            try {
+                total += range.getRangeEnd(size) - range.getRangeStart(size) + 1;
+                satisfiable.add(range);
+            } catch (IllegalArgumentException e) {
+                // Unsatisfiable ranges are skipped as long as at least one range remains
+            }
+        }
+        if (satisfiable.isEmpty()) {
+            return null;
+        }
+        // Overlapping ranges adding up to more than the whole file are served as the whole file
+        return total > size ? List.of() : satisfiable;
+    }
+
+    private boolean ifRangeMatches(String ifRange, FileManifest manifest, String etag) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond()
+                    == manifest.createdAt().getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private void writeMultipart(FileManifest manifest, List<HttpRange> ranges, boolean head,
+                                HttpServletResponse response) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        long size = manifest.size();
+
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(size);
+            long end = range.getRangeEnd(size);
+            byte[] partHeader = (CRLF + "--" + boundary + CRLF
+                    + HttpHeaders.CONTENT_TYPE + ": " + manifest.contentType() + CRLF
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(start, end, size) + CRLF
+                    + CRLF).getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + end - start + 1;
+        }
+        byte[] closing = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+
+        var out = response.getOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        for (int i = 0; i < ranges.size(); i++) {
+            long start = ranges.get(i).getRangeStart(size);
+            long end = ranges.get(i).getRangeEnd(size);
+            out.write(partHeaders.get(i));
+            chunkStore.transfer(manifest.chunks(), start, end - start + 1, channel);
+        }
+        out.write(closing);
+    }
+
+    private void writeRange(FileManifest manifest, long position, long count,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (count == 0) {
+            return;
+        }
+
+        Optional<ChunkRef> single = singleChunk(manifest.chunks(), position, count);
+        if (single.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            long from = position - single.get().offset();
+            request.setAttribute(SENDFILE_FILENAME, chunkStore.path(single.get().hash()).toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, from);
+            request.setAttribute(SENDFILE_END, from + count);
+            return;
+        }
+
+        chunkStore.transfer(manifest.chunks(), position, count, Channels.newChannel(response.getOutputStream()));
+    }
+
+    private Optional<ChunkRef> singleChunk(List<ChunkRef> chunks, long position, long count) {
+        return chunks.stream()
+                .filter(chunk -> chunk.offset() <= position && position + count <= chunk.end())
+                .findFirst();
+    }
+
+    private static String etag(FileManifest manifest) {
+        return "\"" + manifest.sha256() + "\"";
+    }
+
+    private static String contentRange(long start, long end, long size) {
+        return "bytes " + start + "-" + end + "/" + size;
+    }
+}
@@ -0,0 +1,113 @@
+package com.aleos.web.download;
+
+import com.aleos.service.ShareLinkService;
+import com.aleos.storage.FileManifest;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Filter serving the content behind public share links.
+ * <p>
+ * It is registered in {@code WebApplicationInitializer} ahead of the session and security filters
+ * and answers every request under {@code /share/} itself, so such a request never loads or creates
+ * a session and never runs the security chain. A link is checked by its signature alone; the
+ * manifest of the file usually comes from memory.
+ * <p>
+ * Responses are public and cacheable until the link expires, bounded by a configured maximum, and
+ * carry the content digest as a strong ETag, so a reverse proxy or CDN can serve repeated hits and
+ * revalidate cheaply. Invalid links are answered with 404 and expired ones with 410.
+ * <p>
+ * Dependencies:
+ * - ShareLinkService: Checks links and resolves the shared files.
+ * - ContentResponseWriter: Writes the content, honouring conditional and range requests.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShareLinkFilter extends OncePerRequestFilter {
+
+    private final ShareLinkService shareLinkService;
+    private final ContentResponseWriter contentResponseWriter;
+
+    @Value("${share.cache-max-age}")
+    private long cacheMaxAge;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getServletPath().startsWith(ShareLinkService.PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            response.setHeader(HttpHeaders.ALLOW, "GET, HEAD");
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        Optional<UUID> fileId = parseFileId(request.getServletPath().substring(ShareLinkService.PATH_PREFIX.length()));
+        long expires = parseLong(request.getParameter("expires"));
+        if (fileId.isEmpty() || !shareLinkService.isGenuine(
+                fileId.get(), expires, request.getParameter("key"), request.getParameter("signature"))) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long remaining = expires - Instant.now().getEpochSecond();
+        if (remaining <= 0) {
+            response.sendError(HttpServletResponse.SC_GONE);
+            return;
+        }
+
+        Optional<FileManifest> manifest = shareLinkService.findManifest(fileId.get());
+        if (manifest.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(Math.min(remaining, cacheMaxAge))).cachePublic();
+        try {
+            contentResponseWriter.write(manifest.get(), false, cacheControl, request, response);
+        } catch (NoSuchFileException e) {
+            // The file was deleted after its manifest had been cached
+            shareLinkService.evict(fileId.get());
+            if (response.isCommitted()) {
+                throw e;
+            }
+            response.reset();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    private static Optional<UUID> parseFileId(String value) {
+        try {
+            return Optional.of(UUID.fromString(value));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.aleos.web.download;
+
+import com.aleos.exception.ArchiveDownloadBusyException;
+import com.aleos.storage.ArchiveContent;
+import com.aleos.storage.ArchiveEntry;
+import com.aleos.storage.ChunkStore;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams an archive as a ZIP file straight to an HTTP response.
+ * <p>
+ * Nothing is staged: the entries are read in order by an {@link ArchiveReadAhead}, which stays at
+ * most a fixed number of blocks ahead, and compressed into the response as they arrive. The length
+ * of the archive is not known up front, so the response is chunked. Archives over 4 GiB or with
+ * more than 65535 entries get Zip64 records.
+ * <p>
+ * Every read-ahead occupies a thread for the whole download, so the read-aheads run on a pool of
+ * their own with one thread per concurrent download and no queue. A download beyond the limit is
+ * refused with an {@link ArchiveDownloadBusyException} before anything is written, instead of
+ * waiting for a reader that would only start once another download has finished.
+ * <p>
+ * Entries of media types that are compressed already, such as JPEG images or videos, are deflated
+ * at level 0, which only frames the bytes in stored blocks instead of compressing them again.
+ * A plain stored entry would need the CRC-32 of the content in its header, which is not known
+ * before the content has been read.
+ * <p>
+ * If reading fails halfway, the archive is left without its central directory and the response is
+ * aborted, so the client sees a failed download rather than a complete-looking truncated archive.
+ * <p>
+ * Dependencies:
+ * - ChunkStore: Holds the content of the files.
+ */
+@Component
+public class ZipResponseWriter {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final ChunkStore chunkStore;
+    private final ThreadPoolExecutor readerPool;
+    private final int readAheadBlocks;
+    private final int compressionLevel;
+    private final List<MimeType> storedMediaTypes;
+
+    public ZipResponseWriter(ChunkStore chunkStore,
+                             @Value("${archive.max-concurrent-downloads}") int maxConcurrentDownloads,
+                             @Value("${threads.virtual.enabled}") boolean virtualThreads,
+                             @Value("${archive.read-ahead-size}") int readAheadSize,
+                             @Value("${archive.compression-level}") int compressionLevel,
+                             @Value("${archive.stored-media-types}") String[] storedMediaTypes) {
+        this.chunkStore = chunkStore;
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("archive-read-", 0).factory()
+                : new CustomizableThreadFactory("archive-read-");
+        this.readerPool = new ThreadPoolExecutor(
+                maxConcurrentDownloads, maxConcurrentDownloads,
+                0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                threadFactory
+        );
+        this.readAheadBlocks = Math.max(1, readAheadSize / BLOCK_SIZE);
+        this.compressionLevel = compressionLevel;
+        this.storedMediaTypes = Arrays.stream(storedMediaTypes).map(MimeTypeUtils::parseMimeType).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        readerPool.shutdownNow();
+    }
+
+    /**
+     * Writes the archive to the response as an attachment named after it.
+     *
+     * @param content  the archive to write
+     * @param response the current response
+     * @throws ArchiveDownloadBusyException if the maximum number of archives is being downloaded already
+     * @throws IOException                  if the content cannot be read or the response cannot be written
+     */
+    public void write(ArchiveContent content, HttpServletResponse response) throws IOException {
+        ArchiveReadAhead readAhead = new ArchiveReadAhead(chunkStore, content.entries(), readAheadBlocks, BLOCK_SIZE);
+        Future<?> reader;
+        try {
+            reader = readerPool.submit(readAhead);
+        } catch (RejectedExecutionException e) {
+            throw new ArchiveDownloadBusyException("Too many archive downloads in progress", e);
+        }
+
+        try {
+            response.setContentType("application/zip");
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(content.name() + ".zip", StandardCharsets.UTF_8)
+                    .build()
+                    .toString());
+
+            // The deflater of an unfinished archive is released by its cleaner
+            ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(response.getOutputStream(), BLOCK_SIZE));
+            Set<String> names = new HashSet<>();
+            for (String directory : content.directories()) {
+                zip.putNextEntry(directoryEntry(directory, names));
+            }
+            writeEntries(readAhead, zip, names);
+            zip.close();
+        } finally {
+            reader.cancel(true);
+        }
+    }
+
+    private void writeEntries(ArchiveReadAhead readAhead, ZipOutputStream zip, Set<String> names) throws IOException {
+        while (true) {
+            switch (take(readAhead)) {
+                case ArchiveReadAhead.Start(ArchiveEntry entry) -> {
+                    zip.closeEntry();
+                    zip.setLevel(isCompressed(entry.manifest().contentType())
+                            ? Deflater.NO_COMPRESSION
+                            : compressionLevel);
+                    ZipEntry zipEntry = new ZipEntry(uniqueName(entry.path(), names));
+                    zipEntry.setTime(entry.manifest().createdAt().toEpochMilli());
+                    zip.putNextEntry(zipEntry);
+                }
+                case ArchiveReadAhead.Block(byte[] buffer, int length) -> {
+                    zip.write(buffer, 0, length);
+                    readAhead.release(buffer);
+                }
+                case ArchiveReadAhead.Failure(Exception cause) -> throw cause instanceof IOException e
+                        ? e
+                        : new IOException("Failed to read archive entries", cause);
+                case ArchiveReadAhead.End() -> {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static ArchiveReadAhead.Item take(ArchiveReadAhead readAhead) throws InterruptedIOException {
+        try {
+            return readAhead.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing an archive");
+        }
+    }
+
+    private boolean isCompressed(String contentType) {
+        try {
+            MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+            return storedMediaTypes.stream().anyMatch(type -> type.includes(mimeType));
+        } catch (InvalidMimeTypeException e) {
+            return false;
+        }
+    }
+
+    private static ZipEntry directoryEntry(String directory, Set<String> names) {
+        names.add(directory.substring(0, directory.length() - 1));
+        ZipEntry entry = new ZipEntry(directory);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(0);
+        entry.setCompressedSize(0);
+        entry.setCrc(0);
+        return entry;
+    }
+
+    /**
+     * Makes an entry name unique within the archive by numbering repeated names before their extension,
+     * as in {@code report (1).pdf}.
+     */
+    private static String uniqueName(String path, Set<String> names) {
+        if (names.add(path)) {
+            return path;
+        }
+
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        int split = dot > slash + 1 ? dot : path.length();
+        String base = path.substring(0, split);
+        String extension = path.substring(split);
+        for (int i = 1; ; i++) {
+            String name = base + " (" + i + ")" + extension;
+            if (names.add(name)) {
+                return name;
+            }
+        }
+    }
+}
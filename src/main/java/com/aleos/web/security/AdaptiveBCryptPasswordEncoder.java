@@ -0,0 +1,69 @@
+package com.aleos.web.security;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt password encoder whose cost can be calibrated to the machine it runs on.
+ * <p>
+ * Hashes record the cost they were made with, so hashes of different costs verify side by side.
+ * Only hashes weaker than the current cost are upgraded on sign-in. The calibrated cost can
+ * differ between nodes and between restarts, and replacing stronger hashes as well would let
+ * nodes rewrite each other's hashes back and forth and weaken stored passwords.
+ * Values that are not BCrypt hashes are left as they are.
+ */
+@Slf4j
+@Getter
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final int CALIBRATION_STRENGTH = 8;
+    private static final int CALIBRATION_ROUNDS = 5;
+
+    private final int strength;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Creates an encoder with the highest cost whose hashes take no longer than the target
+     * on this machine. Since every cost step doubles the work, the cost is extrapolated from
+     * the fastest of a few hashes at a low cost.
+     *
+     * @param targetMillis the target duration of one hash in milliseconds
+     * @param minStrength  the lowest acceptable cost
+     * @param maxStrength  the highest acceptable cost
+     * @return the calibrated encoder
+     */
+    public static AdaptiveBCryptPasswordEncoder calibrated(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_STRENGTH);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+
+        double steps = Math.log((double) targetMillis * 1_000_000 / fastest) / Math.log(2);
+        int strength = Math.clamp(CALIBRATION_STRENGTH + (int) Math.floor(steps), minStrength, maxStrength);
+        log.info("Calibrated BCrypt cost to {} for a target of {} ms ({} ms at cost {})",
+                strength, targetMillis, fastest / 1_000_000.0, CALIBRATION_STRENGTH);
+
+        return new AdaptiveBCryptPasswordEncoder(strength);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_HASH.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+}
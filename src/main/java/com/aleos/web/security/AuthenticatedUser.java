@@ -0,0 +1,53 @@
+package com.aleos.web.security;
+
+import com.aleos.model.Role;
+import com.aleos.model.User;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The principal stored in the security context after a successful sign-in.
+ * Besides the standard {@link UserDetails} contract it exposes the user's id
+ * and role, so controllers can hand them to services without reloading the
+ * user by email on every request.
+ * <p>
+ * Instances are serialized into the shared session store and read back by
+ * other nodes and later deployments, so the serial version is fixed: keep
+ * changes to the fields compatible, or bump it to drop the existing sessions.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Integer id;
+    private final String username;
+    private final Role role;
+    private final boolean enabled;
+    private String password;
+
+    public AuthenticatedUser(User user) {
+        this.id = user.getId();
+        this.username = user.getEmail();
+        this.role = user.getRole();
+        this.enabled = user.getActive();
+        this.password = user.getPassword();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(role);
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+}
@@ -1,9 +1,9 @@
 package com.aleos.web.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
@@ -17,6 +17,8 @@ public class AuthenticationConfig {
 
     /**
      * Creates a DaoAuthenticationProvider bean which will handle the authentication process.
+     * After a successful sign-in, a password hash made with a lower cost than the current one
+     * is replaced through the user details service; stronger hashes are kept.
      * <p>
      * * Note: Spring Boot automatically creates a DaoAuthenticationProvider
      * * if a UserDetailsService and PasswordEncoder are defined as beans.
@@ -32,17 +34,40 @@ public class AuthenticationConfig {
 
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(encoder);
+        authProvider.setUserDetailsPasswordService(userDetailsService);
 
         return authProvider;
     }
 
     /**
      * Provides a PasswordEncoder bean that uses the BCrypt hashing algorithm for securing passwords.
+     * Hashing runs on a bounded executor, and the BCrypt cost is either fixed or, when set to 0,
+     * calibrated at startup so that one hash takes about the target time on this machine.
      *
-     * @return a BCryptPasswordEncoder instance for encoding passwords
+     * @param strength      the fixed BCrypt cost, or 0 to calibrate it
+     * @param targetMillis  the target duration of one hash when calibrating
+     * @param minStrength   the lowest cost calibration may choose
+     * @param maxStrength   the highest cost calibration may choose
+     * @param threads       the number of hashing threads, or 0 for half of the available processors
+     * @param queueCapacity the number of hashes that may wait for a thread
+     * @param timeoutMillis the longest a request waits for its hash
+     * @return a bounded, BCrypt based PasswordEncoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${security.password.strength}") int strength,
+            @Value("${security.password.target-hash-millis}") long targetMillis,
+            @Value("${security.password.min-strength}") int minStrength,
+            @Value("${security.password.max-strength}") int maxStrength,
+            @Value("${security.password.hash-threads}") int threads,
+            @Value("${security.password.hash-queue-capacity}") int queueCapacity,
+            @Value("${security.password.hash-timeout}") long timeoutMillis
+    ) {
+        AdaptiveBCryptPasswordEncoder bcrypt = strength > 0
+                ? new AdaptiveBCryptPasswordEncoder(strength)
+                : AdaptiveBCryptPasswordEncoder.calibrated(targetMillis, minStrength, maxStrength);
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        return new BoundedPasswordEncoder(bcrypt, poolSize, queueCapacity, timeoutMillis);
     }
 }
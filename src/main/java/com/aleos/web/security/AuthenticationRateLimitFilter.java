@@ -0,0 +1,134 @@
+package com.aleos.web.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter limiting the rate of requests to the authentication endpoints.
+ * <p>
+ * Every request to {@code /auth/**} takes a token from the bucket of its client address; IPv6
+ * clients are keyed by their /64 network, which a single host usually controls as a whole.
+ * The client address is resolved through the trusted proxies, so clients behind a load balancer
+ * do not share one bucket. The email availability checks sent while the sign-up form is filled in
+ * take from buckets of their own instead, so typing an email does not use up the sign-in attempts
+ * of an address, and probing many emails for accounts is limited separately.
+ * Form submissions carrying an email additionally take a token from the bucket of that email,
+ * which slows down guessing the password of one account from many addresses. A request
+ * finding either bucket empty is answered with 429 and a Retry-After header before any
+ * password is hashed or any row is written.
+ * <p>
+ * Dependencies:
+ * - ClientAddressResolver: Resolves the client address behind trusted proxies.
+ * - RateLimiter: Buckets per client address, per client address for availability checks and per email.
+ * - MeterRegistry: Counts rejected requests by the limit they hit.
+ */
+public class AuthenticationRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String EMAIL_PARAMETER = "email";
+    private static final RequestMatcher AUTH_ENDPOINTS = new AntPathRequestMatcher("/auth/**");
+    private static final RequestMatcher EMAIL_AVAILABILITY = new AntPathRequestMatcher("/auth/email-availability");
+
+    private final ClientAddressResolver clientAddressResolver;
+    private final RateLimiter addressLimiter;
+    private final RateLimiter availabilityLimiter;
+    private final RateLimiter emailLimiter;
+    private final Counter addressRejections;
+    private final Counter availabilityRejections;
+    private final Counter emailRejections;
+
+    public AuthenticationRateLimitFilter(ClientAddressResolver clientAddressResolver,
+                                         RateLimiter addressLimiter,
+                                         RateLimiter availabilityLimiter,
+                                         RateLimiter emailLimiter,
+                                         MeterRegistry meterRegistry) {
+        this.clientAddressResolver = clientAddressResolver;
+        this.addressLimiter = addressLimiter;
+        this.availabilityLimiter = availabilityLimiter;
+        this.emailLimiter = emailLimiter;
+        this.addressRejections = meterRegistry.counter("auth.rate-limited", "key", "address");
+        this.availabilityRejections = meterRegistry.counter("auth.rate-limited", "key", "email-availability");
+        this.emailRejections = meterRegistry.counter("auth.rate-limited", "key", "email");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !AUTH_ENDPOINTS.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String address = addressKey(clientAddressResolver.resolve(request));
+        if (EMAIL_AVAILABILITY.matches(request)) {
+            long wait = availabilityLimiter.tryAcquire(address);
+            if (wait > 0) {
+                availabilityRejections.increment();
+                reject(response, wait);
+                return;
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long wait = addressLimiter.tryAcquire(address);
+        if (wait > 0) {
+            addressRejections.increment();
+            reject(response, wait);
+            return;
+        }
+
+        String email = HttpMethod.POST.matches(request.getMethod()) ? request.getParameter(EMAIL_PARAMETER) : null;
+        if (email != null && !email.isBlank()) {
+            wait = emailLimiter.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+            if (wait > 0) {
+                emailRejections.increment();
+                reject(response, wait);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    private static String addressKey(String remoteAddress) {
+        if (remoteAddress == null || remoteAddress.indexOf(':') < 0) {
+            return String.valueOf(remoteAddress);
+        }
+        try {
+            byte[] address = InetAddress.getByName(remoteAddress).getAddress();
+            if (address.length != 16) {
+                return remoteAddress;
+            }
+            StringBuilder network = new StringBuilder(20);
+            for (int i = 0; i < 8; i += 2) {
+                network.append(Integer.toHexString(((address[i] & 0xff) << 8) | (address[i + 1] & 0xff))).append(':');
+            }
+            return network.append(":/64").toString();
+        } catch (UnknownHostException e) {
+            return remoteAddress;
+        }
+    }
+}
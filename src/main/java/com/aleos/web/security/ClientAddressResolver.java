@@ -0,0 +1,74 @@
+package com.aleos.web.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the address of the client that sent a request, as seen through trusted reverse proxies.
+ * <p>
+ * Behind a proxy the remote address of every request is the proxy's own, so keying anything on it
+ * puts all clients into one bucket. If the request comes from a trusted proxy, the
+ * {@code X-Forwarded-For} header is read from the right, skipping the trusted proxies that appended
+ * to it, and the first other address is the client. Entries further left were sent by the client
+ * itself and are never trusted. Requests from other addresses are keyed on their remote address,
+ * whatever headers they carry.
+ */
+public class ClientAddressResolver {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+    private static final Pattern ADDRESS_LITERAL = Pattern.compile("[0-9A-Fa-f:.]+");
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    /**
+     * @param trustedProxies the addresses or CIDR ranges of the trusted proxies; blank entries are skipped
+     */
+    public ClientAddressResolver(String[] trustedProxies) {
+        this.trustedProxies = Arrays.stream(trustedProxies)
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    /**
+     * @param request the current request
+     * @return the address of the client
+     */
+    public String resolve(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        String forwardedFor = request.getHeader(FORWARDED_FOR);
+        if (forwardedFor == null || !isTrusted(address)) {
+            return address;
+        }
+
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                break;
+            }
+            address = hop;
+            if (!isTrusted(hop)) {
+                break;
+            }
+        }
+        return address;
+    }
+
+    private boolean isTrusted(String address) {
+        // Anything else, e.g. "unknown" or a host name, is not a proxy and must not be looked up
+        if (!ADDRESS_LITERAL.matcher(address).matches()) {
+            return false;
+        }
+        try {
+            return trustedProxies.stream().anyMatch(proxy -> proxy.matches(address));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.aleos.web.security;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by an arbitrary string, such as a client address or an email.
+ * <p>
+ * Each bucket holds up to {@code capacity} tokens and regains one token per refill interval.
+ * A bucket is stored as a single {@link AtomicLong}, the time at which it will be full again
+ * (the generic cell rate algorithm), so taking a token is one compare-and-set without locks and
+ * a bucket needs no timer to refill.
+ * <p>
+ * Buckets are spread over independent stripes, each bounded to its share of {@code maxKeys}.
+ * When a stripe is full, buckets that have refilled completely are dropped, since a new bucket
+ * behaves the same. If that does not free enough room, as when an attacker keeps sending from
+ * fresh addresses, the stripe drops further buckets regardless of their state, so memory stays
+ * bounded at the price of forgetting some partially drained buckets.
+ * <p>
+ * Buckets are held in memory by each node, so with several nodes a key gets the rate once per node.
+ */
+public class RateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxKeysPerStripe;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * @param capacity       the number of tokens a full bucket holds
+     * @param refillInterval the time in which a bucket regains one token
+     * @param maxKeys        the number of buckets kept at most
+     */
+    public RateLimiter(int capacity, Duration refillInterval, int maxKeys) {
+        this.intervalNanos = refillInterval.toNanos();
+        this.toleranceNanos = intervalNanos * capacity;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of the given key.
+     *
+     * @param key the key of the bucket
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = stripeOf(key).bucket(key, now);
+
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + intervalNanos;
+            long excess = next - now - toleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private Stripe stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private final class Stripe {
+
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicBoolean evicting = new AtomicBoolean();
+
+        private AtomicLong bucket(String key, long now) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxKeysPerStripe) {
+                evict(now);
+            }
+            return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        private void evict(long now) {
+            if (!evicting.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                buckets.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+
+                Iterator<AtomicLong> iterator = buckets.values().iterator();
+                while (buckets.size() >= maxKeysPerStripe && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+}
@@ -1,15 +1,30 @@
 package com.aleos.web.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * The SecurityConfig class configures the security settings for the web application.
@@ -45,20 +60,94 @@ public class SecurityConfig {
     @Value("${security.maximum-sessions}")
     private int maximumSessions;
 
+    @Value("${security.metrics-allowed-addresses}")
+    private String[] metricsAllowedAddresses;
+
+    @Value("${security.rate-limit.address.capacity}")
+    private int addressCapacity;
+
+    @Value("${security.rate-limit.address.refill-interval}")
+    private long addressRefillInterval;
+
+    @Value("${security.rate-limit.email-availability.capacity}")
+    private int availabilityCapacity;
+
+    @Value("${security.rate-limit.email-availability.refill-interval}")
+    private long availabilityRefillInterval;
+
+    @Value("${security.rate-limit.email.capacity}")
+    private int emailCapacity;
+
+    @Value("${security.rate-limit.email.refill-interval}")
+    private long emailRefillInterval;
+
+    @Value("${security.rate-limit.max-keys}")
+    private int rateLimitMaxKeys;
+
+    @Value("${security.trusted-proxies}")
+    private String[] trustedProxies;
+
+    /**
+     * Excludes the static resources from the security filter chain. They are public and
+     * fingerprinted, so none of the security filters has anything to do for them.
+     *
+     * @return a {@link WebSecurityCustomizer} ignoring the static resource paths.
+     */
+    @Bean
+    public WebSecurityCustomizer staticResourcesCustomizer() {
+        return web -> web.ignoring().requestMatchers("/resources/**");
+    }
+
+    /**
+     * Configures the session registry backing the concurrent session control.
+     * It reads the sessions of a user from the shared session store, so the limit
+     * holds across all nodes rather than per node.
+     *
+     * @param sessionRepository the session store, indexed by principal name.
+     * @return a {@link SessionRegistry} backed by the session store.
+     */
+    @Bean
+    public <S extends Session> SessionRegistry sessionRegistry(FindByIndexNameSessionRepository<S> sessionRepository) {
+        return new SpringSessionBackedSessionRegistry<>(sessionRepository);
+    }
+
+    /**
+     * Configures the filter limiting the rate of requests to the authentication endpoints,
+     * per client address, per client address for email availability checks and per submitted email.
+     *
+     * @param meterRegistry the registry counting rejected requests.
+     * @return an {@link AuthenticationRateLimitFilter} with its own buckets.
+     */
+    @Bean
+    public AuthenticationRateLimitFilter authenticationRateLimitFilter(MeterRegistry meterRegistry) {
+        return new AuthenticationRateLimitFilter(
+                new ClientAddressResolver(trustedProxies),
+                new RateLimiter(addressCapacity, Duration.ofMillis(addressRefillInterval), rateLimitMaxKeys),
+                new RateLimiter(availabilityCapacity, Duration.ofMillis(availabilityRefillInterval), rateLimitMaxKeys),
+                new RateLimiter(emailCapacity, Duration.ofMillis(emailRefillInterval), rateLimitMaxKeys),
+                meterRegistry);
+    }
+
     /**
      * Configures the security filter chain for the web application.
      *
      * @param httpSecurity the {@link HttpSecurity} to modify.
+     * @param sessionRegistry the registry of the sessions of each user.
+     * @param rateLimitFilter the filter limiting the rate of authentication requests.
      * @return a {@link SecurityFilterChain} configured with the desired settings.
      * @throws Exception in case of any configuration errors.
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity httpSecurity) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity httpSecurity,
+                                           SessionRegistry sessionRegistry,
+                                           AuthenticationRateLimitFilter rateLimitFilter) throws Exception {
         return httpSecurity
                 .csrf(AbstractHttpConfigurer::disable)
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
 
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/resources/**", "/auth/**").permitAll()
+                        .requestMatchers("/auth/**").permitAll()
+                        .requestMatchers("/metrics").access(fromAddresses(metricsAllowedAddresses))
                         .anyRequest().authenticated()
 
                 ).formLogin(customizer -> customizer
@@ -73,16 +162,26 @@ public class SecurityConfig {
                         .logoutUrl(logoutUrl)
                         .logoutSuccessUrl(logoutSuccessUrl)
                         .invalidateHttpSession(true)
-                        .deleteCookies("JSESSIONID")
+                        .deleteCookies("SESSION")
                         .permitAll()
 
                 ).sessionManagement(customizer ->
                         customizer
                                 .maximumSessions(maximumSessions)
+                                .sessionRegistry(sessionRegistry)
                                 .expiredUrl(sessionExpiredUrl)
 
                 ).authenticationProvider(authenticationProvider)
 
                 .build();
     }
+
+    private static AuthorizationManager<RequestAuthorizationContext> fromAddresses(String[] addresses) {
+        List<IpAddressMatcher> matchers = Arrays.stream(addresses)
+                .map(String::trim)
+                .map(IpAddressMatcher::new)
+                .toList();
+        return (authentication, context) -> new AuthorizationDecision(
+                matchers.stream().anyMatch(matcher -> matcher.matches(context.getRequest())));
+    }
 }
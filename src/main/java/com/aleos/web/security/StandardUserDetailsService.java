@@ -1,53 +1,46 @@
 package com.aleos.web.security;
 
 import com.aleos.repository.UserRepository;
+import com.aleos.service.AuthenticationService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
-import java.util.List;
-
 @Service
 @RequiredArgsConstructor
-public class StandardUserDetailsService implements UserDetailsService {
+public class StandardUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final AuthenticationService authenticationService;
 
     /**
-     * Loads the user details by the given email.
+     * Loads the user details by the given email. The user is read from the database rather than
+     * from the node-local cache, so an activation or a new password hash written by another node
+     * is seen at once; next to the password check, the read costs next to nothing.
      *
      * @param email the email of the user to be loaded
-     * @return UserDetails containing the user's authorities, password, email, and status
+     * @return AuthenticatedUser containing the user's id, authorities, password, email, and status
      * @throws UsernameNotFoundException if a user with the given email is not found
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return userRepository.findByEmail(email)
-                .map(user -> new UserDetails() {
-                    @Override
-                    public Collection<? extends GrantedAuthority> getAuthorities() {
-                        return List.of(user.getRole());
-                    }
-
-                    @Override
-                    public String getPassword() {
-                        return user.getPassword();
-                    }
-
-                    @Override
-                    public String getUsername() {
-                        return user.getEmail();
-                    }
-
-                    @Override
-                    public boolean isEnabled() {
-                        return user.getActive();
-                    }
+        return userRepository.findCurrentByEmail(email)
+                .map(AuthenticatedUser::new)
+                .orElseThrow(() -> new UsernameNotFoundException("User email: %s, not found".formatted(email)));
+    }
 
-                }).orElseThrow(() -> new UsernameNotFoundException("User email: %s, not found".formatted(email)));
+    /**
+     * Replaces the password hash of a user who has just signed in, e.g. after the hashing cost changed.
+     *
+     * @param user        the signed-in user
+     * @param newPassword the new password hash
+     * @return the user details carrying the new hash
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        return new AuthenticatedUser(authenticationService.updatePassword(((AuthenticatedUser) user).getId(), newPassword));
     }
 }
@@ -0,0 +1,48 @@
+package com.aleos.web.view;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Model value holding listing rows that are read only while the view renders them.
+ * <p>
+ * A list has to be read completely before the first byte of the page is written. The stream
+ * behind LazyRows is opened only when the template starts iterating it, so each row is written
+ * out as soon as it has been fetched. {@link StreamingThymeleafView} renders models holding
+ * LazyRows inside a read-only transaction, which keeps the database cursor open, and closes the
+ * stream once the page is done.
+ *
+ * @param <T> the type of the rows
+ */
+public final class LazyRows<T> implements Iterable<T>, AutoCloseable {
+
+    private final Supplier<Stream<T>> source;
+    private Stream<T> stream;
+
+    /**
+     * @param source opens the stream of rows; it is called at most once, during rendering
+     */
+    public LazyRows(Supplier<Stream<T>> source) {
+        this.source = source;
+    }
+
+    /**
+     * @throws IllegalStateException if the rows have already been iterated
+     */
+    @Override
+    public Iterator<T> iterator() {
+        if (stream != null) {
+            throw new IllegalStateException("Lazy rows can only be iterated once");
+        }
+        stream = source.get();
+        return stream.iterator();
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.aleos.web.view;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.thymeleaf.spring6.view.ThymeleafView;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thymeleaf view writing the page to the client in chunks while it is being rendered.
+ * <p>
+ * The response buffer is limited to the chunk size, so once that much output has been produced
+ * the container sends it with chunked transfer encoding and reuses the buffer, and the memory
+ * a page takes no longer grows with its length. Models holding {@link LazyRows} are rendered in
+ * a read-only transaction, in which the rows are streamed from the database as the template
+ * iterates them; other pages render without touching the database.
+ * <p>
+ * Instances are created by {@link StreamingThymeleafViewResolver}.
+ */
+public class StreamingThymeleafView extends ThymeleafView {
+
+    private static final TransactionDefinition READ_ONLY = readOnly();
+
+    private int chunkSize;
+
+    /**
+     * @param chunkSize the size of the response buffer in bytes, 0 to keep the container default
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+            throws Exception {
+        if (chunkSize > 0 && !response.isCommitted()) {
+            response.setBufferSize(chunkSize);
+        }
+
+        List<LazyRows<?>> lazyRows = model == null ? List.of() : model.values().stream()
+                .filter(LazyRows.class::isInstance)
+                .<LazyRows<?>>map(LazyRows.class::cast)
+                .toList();
+        if (lazyRows.isEmpty()) {
+            super.render(model, request, response);
+            return;
+        }
+
+        PlatformTransactionManager transactionManager = getApplicationContext().getBean(PlatformTransactionManager.class);
+        TransactionStatus transaction = transactionManager.getTransaction(READ_ONLY);
+        boolean rendered = false;
+        try {
+            super.render(model, request, response);
+            rendered = true;
+        } finally {
+            lazyRows.forEach(LazyRows::close);
+            if (rendered) {
+                transactionManager.commit(transaction);
+            } else {
+                transactionManager.rollback(transaction);
+            }
+        }
+    }
+
+    private static TransactionDefinition readOnly() {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        return definition;
+    }
+}
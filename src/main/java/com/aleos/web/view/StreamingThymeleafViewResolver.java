@@ -0,0 +1,32 @@
+package com.aleos.web.view;
+
+import org.springframework.web.servlet.View;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.util.Locale;
+
+/**
+ * ThymeleafViewResolver creating {@link StreamingThymeleafView}s with a common chunk size.
+ */
+public class StreamingThymeleafViewResolver extends ThymeleafViewResolver {
+
+    private final int chunkSize;
+
+    /**
+     * @param chunkSize the size of the response buffer of every view in bytes
+     */
+    public StreamingThymeleafViewResolver(int chunkSize) {
+        this.chunkSize = chunkSize;
+        setViewClass(StreamingThymeleafView.class);
+        setProducePartialOutputWhileProcessing(true);
+    }
+
+    @Override
+    protected View loadView(String viewName, Locale locale) throws Exception {
+        View view = super.loadView(viewName, locale);
+        if (view instanceof StreamingThymeleafView streamingView) {
+            streamingView.setChunkSize(chunkSize);
+        }
+        return view;
+    }
+}
@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset aleos:3
+CREATE TABLE STORED_FILE
+(
+    id           UUID         NOT NULL PRIMARY KEY,
+    owner_id     INT          NOT NULL,
+    name         VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    size         BIGINT       NOT NULL,
+    sha256       CHAR(64)     NOT NULL,
+    storage_key  VARCHAR(64)  NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+
+    CONSTRAINT fk_stored_file_owner_id FOREIGN KEY (owner_id) REFERENCES USERS ON DELETE CASCADE,
+    CONSTRAINT uq_stored_file_storage_key UNIQUE (storage_key)
+);
+
+CREATE INDEX idx_stored_file_owner_id ON STORED_FILE (owner_id);
@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset aleos:15
+-- Signed activation tokens are not stored, so the purge job dates abandoned accounts by the account itself
+ALTER TABLE USERS ADD COLUMN created_at TIMESTAMP(6) NOT NULL DEFAULT now();
+
+CREATE INDEX idx_users_inactive_created_at ON USERS (created_at) WHERE NOT active;
@@ -0,0 +1,33 @@
+--liquibase formatted sql
+
+--changeset aleos:16
+-- Folders store the ids of their ancestors as a materialized path, '/' for top-level folders and
+-- '/<root id>/.../<parent id>/' below. With the C collation a subtree is one prefix range of idx_folder_path,
+-- which also orders it for keyset pagination.
+-- size and file_count roll up every file in the subtree and are maintained on upload, delete and move.
+CREATE TABLE FOLDER
+(
+    id         UUID          NOT NULL PRIMARY KEY,
+    owner_id   INT           NOT NULL,
+    parent_id  UUID,
+    name       VARCHAR(255)  NOT NULL,
+    path       VARCHAR(2400) COLLATE "C" NOT NULL,
+    depth      INT           NOT NULL,
+    size       BIGINT        NOT NULL DEFAULT 0,
+    file_count BIGINT        NOT NULL DEFAULT 0,
+    created_at TIMESTAMP(6)  NOT NULL,
+
+    CONSTRAINT fk_folder_owner_id FOREIGN KEY (owner_id) REFERENCES USERS ON DELETE CASCADE,
+    CONSTRAINT fk_folder_parent_id FOREIGN KEY (parent_id) REFERENCES FOLDER,
+    CONSTRAINT uq_folder_owner_parent_name UNIQUE NULLS NOT DISTINCT (owner_id, parent_id, name),
+    CONSTRAINT ck_folder_totals CHECK (size >= 0 AND file_count >= 0)
+);
+
+CREATE INDEX idx_folder_path ON FOLDER (path, id);
+
+ALTER TABLE STORED_FILE ADD COLUMN folder_id UUID;
+ALTER TABLE STORED_FILE ADD CONSTRAINT fk_stored_file_folder_id FOREIGN KEY (folder_id) REFERENCES FOLDER;
+CREATE INDEX idx_stored_file_folder_id ON STORED_FILE (folder_id, name, id) WHERE folder_id IS NOT NULL;
+
+ALTER TABLE UPLOAD_SESSION ADD COLUMN folder_id UUID;
+ALTER TABLE UPLOAD_SESSION ADD CONSTRAINT fk_upload_session_folder_id FOREIGN KEY (folder_id) REFERENCES FOLDER ON DELETE SET NULL;
@@ -0,0 +1,5 @@
+--liquibase formatted sql
+
+--changeset aleos:20
+-- The cleanup of abandoned upload sessions scans the open and committing sessions by their last state change
+CREATE INDEX idx_upload_session_open_updated_at ON UPLOAD_SESSION (updated_at) WHERE status IN ('OPEN', 'COMMITTING');
@@ -0,0 +1,33 @@
+--liquibase formatted sql
+
+--changeset aleos:4
+CREATE TABLE UPLOAD_SESSION
+(
+    id           UUID         NOT NULL PRIMARY KEY,
+    owner_id     INT          NOT NULL,
+    file_name    VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    total_size   BIGINT       NOT NULL,
+    part_size    BIGINT       NOT NULL,
+    part_count   INT          NOT NULL,
+    status       VARCHAR(20)  NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    updated_at   TIMESTAMP(6) NOT NULL,
+
+    CONSTRAINT fk_upload_session_owner_id FOREIGN KEY (owner_id) REFERENCES USERS ON DELETE CASCADE
+);
+
+CREATE INDEX idx_upload_session_owner_id ON UPLOAD_SESSION (owner_id);
+
+--changeset aleos:5
+CREATE TABLE UPLOAD_PART
+(
+    session_id  UUID         NOT NULL,
+    part_number INT          NOT NULL,
+    size        BIGINT       NOT NULL,
+    sha256      CHAR(64)     NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+
+    CONSTRAINT pk_upload_part PRIMARY KEY (session_id, part_number),
+    CONSTRAINT fk_upload_part_session_id FOREIGN KEY (session_id) REFERENCES UPLOAD_SESSION ON DELETE CASCADE
+);
@@ -0,0 +1,27 @@
+--liquibase formatted sql
+
+--changeset aleos:6
+CREATE TABLE CHUNK
+(
+    hash       CHAR(64)     NOT NULL PRIMARY KEY,
+    size       INT          NOT NULL,
+    ref_count  BIGINT       NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+
+    CONSTRAINT ck_chunk_ref_count CHECK (ref_count >= 0)
+);
+
+CREATE TABLE FILE_CHUNK
+(
+    file_id      UUID     NOT NULL,
+    seq          INT      NOT NULL,
+    chunk_hash   CHAR(64) NOT NULL,
+    chunk_offset BIGINT   NOT NULL,
+    size         INT      NOT NULL,
+
+    CONSTRAINT pk_file_chunk PRIMARY KEY (file_id, seq),
+    CONSTRAINT fk_file_chunk_file_id FOREIGN KEY (file_id) REFERENCES STORED_FILE ON DELETE CASCADE,
+    CONSTRAINT fk_file_chunk_chunk_hash FOREIGN KEY (chunk_hash) REFERENCES CHUNK
+);
+
+CREATE INDEX idx_file_chunk_chunk_hash ON FILE_CHUNK (chunk_hash);
@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset aleos:8
+-- Covering indexes for the keyset-paginated file listing, one per sort order.
+-- The trailing id makes every key unique; the INCLUDE columns allow index-only scans.
+CREATE INDEX idx_stored_file_owner_name ON STORED_FILE (owner_id, name, id) INCLUDE (content_type, size, created_at);
+CREATE INDEX idx_stored_file_owner_size ON STORED_FILE (owner_id, size, id) INCLUDE (name, content_type, created_at);
+CREATE INDEX idx_stored_file_owner_created_at ON STORED_FILE (owner_id, created_at, id) INCLUDE (name, content_type, size);
+
+-- Superseded by the indexes above, which all start with owner_id
+DROP INDEX idx_stored_file_owner_id;
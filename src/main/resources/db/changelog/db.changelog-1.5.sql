@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset aleos:9
+CREATE TABLE USER_USAGE
+(
+    user_id    INT          NOT NULL PRIMARY KEY,
+    file_count BIGINT       NOT NULL,
+    bytes_used BIGINT       NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+
+    CONSTRAINT fk_user_usage_user_id FOREIGN KEY (user_id) REFERENCES USERS ON DELETE CASCADE
+);
+
+CREATE TABLE USAGE_TOTAL
+(
+    metric     VARCHAR(30)  NOT NULL PRIMARY KEY,
+    amount     BIGINT       NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,28 @@
+--liquibase formatted sql
+
+--changeset aleos:10
+-- Storage usage of every user as of the last change within each hour / day (UTC).
+-- Buckets without a row carry the level of the previous bucket forward.
+CREATE TABLE USAGE_HOURLY
+(
+    user_id      INT          NOT NULL,
+    bucket_start TIMESTAMP(6) NOT NULL,
+    file_count   BIGINT       NOT NULL,
+    bytes_used   BIGINT       NOT NULL,
+
+    CONSTRAINT pk_usage_hourly PRIMARY KEY (user_id, bucket_start),
+    CONSTRAINT fk_usage_hourly_user_id FOREIGN KEY (user_id) REFERENCES USERS ON DELETE CASCADE
+);
+
+CREATE TABLE USAGE_DAILY
+(
+    user_id      INT          NOT NULL,
+    bucket_start TIMESTAMP(6) NOT NULL,
+    file_count   BIGINT       NOT NULL,
+    bytes_used   BIGINT       NOT NULL,
+
+    CONSTRAINT pk_usage_daily PRIMARY KEY (user_id, bucket_start),
+    CONSTRAINT fk_usage_daily_user_id FOREIGN KEY (user_id) REFERENCES USERS ON DELETE CASCADE
+);
+
+CREATE INDEX idx_usage_hourly_bucket_start ON USAGE_HOURLY (bucket_start);
@@ -0,0 +1,14 @@
+--liquibase formatted sql
+
+--changeset aleos:11
+-- Quota reservations of open upload sessions, written behind the in-memory quota ledger
+CREATE TABLE QUOTA_RESERVATION
+(
+    id         UUID         NOT NULL PRIMARY KEY,
+    user_id    INT          NOT NULL,
+    bytes      BIGINT       NOT NULL,
+    files      INT          NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+
+    CONSTRAINT fk_quota_reservation_user_id FOREIGN KEY (user_id) REFERENCES USERS ON DELETE CASCADE
+);
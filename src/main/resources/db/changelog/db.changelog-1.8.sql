@@ -0,0 +1,20 @@
+--liquibase formatted sql
+
+--changeset aleos:12
+-- Outgoing emails, written in the transaction that produces them and delivered by a background worker
+CREATE TABLE EMAIL_OUTBOX
+(
+    id              BIGINT        NOT NULL PRIMARY KEY GENERATED BY DEFAULT AS IDENTITY,
+    recipient       VARCHAR(255)  NOT NULL,
+    sender          VARCHAR(255)  NOT NULL,
+    subject         VARCHAR(255)  NOT NULL,
+    body            TEXT          NOT NULL,
+    status          VARCHAR(20)   NOT NULL,
+    attempts        INT           NOT NULL,
+    next_attempt_at TIMESTAMP(6)  NOT NULL,
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP(6)  NOT NULL
+);
+
+-- Only pending rows are ever polled, in the order they become due
+CREATE INDEX idx_email_outbox_pending ON EMAIL_OUTBOX (next_attempt_at) WHERE status = 'PENDING';
@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset aleos:13
+-- Lets the purge job find expired tokens without scanning the table
+CREATE INDEX idx_verification_token_created_at ON VERIFICATION_TOKEN (created_at);
+
+-- Serves the "newest token of a user" probe of the purge job and the cascade when a user is deleted
+CREATE INDEX idx_verification_token_user_id_created_at ON VERIFICATION_TOKEN (user_id, created_at);
@@ -0,0 +1,54 @@
+// src/main/resources/static/js/file-upload.js
+
+// Sends every selected file as a raw request body, one request per file,
+// so the server can stream it to storage without multipart parsing.
+(function () {
+    'use strict'
+
+    const form = document.getElementById('uploadForm')
+    const fileInput = document.getElementById('fileInput')
+    const uploadList = document.getElementById('uploadList')
+    const uploadUrl = form.dataset.uploadUrl
+
+    form.addEventListener('submit', function (event) {
+        event.preventDefault()
+
+        Array.prototype.slice.call(fileInput.files).forEach(upload)
+        form.reset()
+    })
+
+    function upload(file) {
+        const item = document.createElement('li')
+        item.className = 'list-group-item'
+        item.innerHTML = '<div class="d-flex justify-content-between"><span class="name"></span><span class="status">0%</span></div>' +
+            '<div class="progress mt-2"><div class="progress-bar" role="progressbar" style="width: 0"></div></div>'
+        item.querySelector('.name').textContent = file.name
+        uploadList.prepend(item)
+
+        const status = item.querySelector('.status')
+        const bar = item.querySelector('.progress-bar')
+
+        const xhr = new XMLHttpRequest()
+        xhr.open('POST', uploadUrl + '?name=' + encodeURIComponent(file.name))
+        xhr.setRequestHeader('Content-Type', file.type || 'application/octet-stream')
+
+        xhr.upload.addEventListener('progress', function (e) {
+            if (e.lengthComputable) {
+                const percent = Math.round(e.loaded * 100 / e.total) + '%'
+                bar.style.width = percent
+                status.textContent = percent
+            }
+        })
+        xhr.addEventListener('load', function () {
+            const ok = xhr.status >= 200 && xhr.status < 300
+            bar.classList.add(ok ? 'bg-success' : 'bg-danger')
+            status.textContent = ok ? 'Done' : 'Failed'
+        })
+        xhr.addEventListener('error', function () {
+            bar.classList.add('bg-danger')
+            status.textContent = 'Failed'
+        })
+
+        xhr.send(file)
+    }
+})()
@@ -4,6 +4,8 @@
 (function () {
     'use strict'
 
+    const AVAILABILITY_CHECK_DELAY = 300
+
     // Fetch all the forms we want to apply custom Bootstrap validation styles to
     let forms = document.querySelectorAll('form')
 
@@ -19,4 +21,46 @@
                 form.classList.add('was-validated')
             }, false)
         })
+
+    // Check inputs marked with data-availability-url against the server while the user types
+    document.querySelectorAll('input[data-availability-url]')
+        .forEach(function (input) {
+            let feedback = input.parentElement.querySelector('.invalid-feedback')
+            let defaultMessage = feedback ? feedback.textContent : ''
+            let timer = null
+            let pending = null
+
+            function markAvailable(available) {
+                input.setCustomValidity(available ? '' : 'taken')
+                if (feedback) {
+                    feedback.textContent = available ? defaultMessage : input.dataset.takenMessage
+                }
+            }
+
+            input.addEventListener('input', function () {
+                clearTimeout(timer)
+                if (pending) {
+                    pending.abort()
+                }
+                markAvailable(true)
+                if (!input.checkValidity()) {
+                    return
+                }
+
+                timer = setTimeout(function () {
+                    pending = new AbortController()
+                    let url = input.dataset.availabilityUrl + '?email=' + encodeURIComponent(input.value)
+                    fetch(url, {signal: pending.signal, headers: {'Accept': 'application/json'}})
+                        .then(function (response) {
+                            return response.ok ? response.json() : {available: true}
+                        })
+                        .then(function (result) {
+                            markAvailable(result.available)
+                        })
+                        .catch(function () {
+                            // Aborted or failed checks leave the decision to the server on submit
+                        })
+                }, AVAILABILITY_CHECK_DELAY)
+            })
+        })
 })()
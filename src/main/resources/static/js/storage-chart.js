@@ -0,0 +1,61 @@
+// src/main/resources/static/js/storage-chart.js
+
+// Draws the "Storage Usage Over Time" chart from the pre-aggregated usage series.
+// The browser revalidates the series with its ETag, so reloading the dashboard
+// only transfers the data again when the usage has changed.
+(function () {
+    'use strict'
+
+    const canvas = document.getElementById('storageChart')
+    if (!canvas) {
+        return
+    }
+
+    const UNITS = ['B', 'KB', 'MB', 'GB', 'TB', 'PB']
+
+    fetch(canvas.dataset.url, {headers: {'Accept': 'application/json'}})
+        .then(function (response) {
+            if (!response.ok) {
+                throw new Error('Failed to load storage usage: ' + response.status)
+            }
+            return response.json()
+        })
+        .then(draw)
+        .catch(function (error) {
+            console.error(error)
+        })
+
+    function draw(series) {
+        const max = series.points.reduce(function (result, point) {
+            return Math.max(result, point.bytesUsed)
+        }, 0)
+        const unit = max > 0 ? Math.min(Math.floor(Math.log2(max) / 10), UNITS.length - 1) : 0
+        const hourly = series.range === 'DAY' || series.range === 'WEEK'
+
+        new Chart(canvas.getContext('2d'), {
+            type: 'line',
+            data: {
+                labels: series.points.map(function (point) {
+                    const time = new Date(point.time)
+                    return hourly ? time.toLocaleString() : time.toLocaleDateString()
+                }),
+                datasets: [{
+                    label: 'Storage Used (' + UNITS[unit] + ')',
+                    data: series.points.map(function (point) {
+                        return point.bytesUsed / Math.pow(1024, unit)
+                    }),
+                    backgroundColor: 'rgba(75, 192, 192, 0.2)',
+                    borderColor: 'rgba(75, 192, 192, 1)',
+                    borderWidth: 1,
+                    stepped: true,
+                    fill: true
+                }]
+            },
+            options: {
+                scales: {
+                    y: {beginAtZero: true}
+                }
+            }
+        })
+    }
+})()